@@ -0,0 +1,45 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.Account;
+import com.attendance.fpt.enums.Role;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bản chụp bất biến của tài khoản đăng nhập, được đặt vào SecurityContext cho mỗi request
+ * thay cho entity Account để có thể cache và dùng chung giữa các thread.
+ */
+@Getter
+public class AccountPrincipal implements UserDetails {
+    private final Long accountId;
+    private final Long employeeId;
+    private final String username;
+    private final String password;
+    private final Role role;
+    private final boolean active;
+    private final List<GrantedAuthority> authorities;
+
+    private AccountPrincipal(Account account) {
+        this.accountId = account.getId();
+        this.employeeId = account.getEmployee().getId();
+        this.username = account.getUsername();
+        this.password = account.getPassword();
+        this.role = account.getRole();
+        this.active = account.getEmployee().isActive();
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static AccountPrincipal from(Account account) {
+        return new AccountPrincipal(account);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -0,0 +1,50 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+import com.attendance.fpt.model.response.AttendanceWorkShiftResponse;
+import com.attendance.fpt.utils.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache lịch chấm công theo nhân viên và tháng.
+ * Mọi thao tác ghi lên phân công ca hoặc chấm công phải gọi evict để xoá tháng tương ứng sau khi commit.
+ */
+@Component
+public class AttendanceCalendarCache {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final Cache<CalendarKey, List<AttendanceWorkShiftResponse>> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    public List<AttendanceWorkShiftResponse> get(Long employeeId, LocalDate date,
+                                                 Supplier<List<AttendanceWorkShiftResponse>> loader) {
+        return cache.get(new CalendarKey(employeeId, YearMonth.from(date)), key -> List.copyOf(loader.get()));
+    }
+
+    public void evict(Long employeeId, LocalDate date) {
+        CalendarKey key = new CalendarKey(employeeId, YearMonth.from(date));
+        TransactionUtil.afterCommit(() -> cache.invalidate(key));
+    }
+
+    public void evict(WorkShiftAssignment workShiftAssignment) {
+        evict(workShiftAssignment.getEmployee().getId(), workShiftAssignment.getDateAssign());
+    }
+
+    public void evictAll() {
+        TransactionUtil.afterCommit(cache::invalidateAll);
+    }
+
+    private record CalendarKey(Long employeeId, YearMonth month) {
+    }
+}
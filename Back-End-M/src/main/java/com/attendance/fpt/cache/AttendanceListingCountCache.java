@@ -0,0 +1,32 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.enums.AttendanceStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Cache số dòng của danh sách chấm công theo bộ lọc. Giá trị là gần đúng: không bị xoá khi ghi,
+ * chỉ hết hạn sau một khoảng ngắn, để câu COUNT chạy tối đa một lần mỗi khoảng đó cho mỗi bộ lọc.
+ */
+@Component
+public class AttendanceListingCountCache {
+    private static final int MAXIMUM_SIZE = 1_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(1);
+
+    private final Cache<CountKey, Long> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    public long get(String employeeName, LocalDate date, AttendanceStatus status, Supplier<Long> loader) {
+        return cache.get(new CountKey(employeeName, date, status), key -> loader.get());
+    }
+
+    private record CountKey(String employeeName, LocalDate date, AttendanceStatus status) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.repositories.EmployeeRepository;
+import com.attendance.fpt.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Chỉ mục tìm kiếm nhân viên trong bộ nhớ, dùng để lọc trước danh sách id cho các truy vấn có lọc theo tên
+ * thay cho LIKE '%...%' phải quét toàn bảng. Mọi thao tác ghi lên Employee hoặc tên Department
+ * phải gọi reload để dựng lại chỉ mục sau khi commit; ghi từ node khác được cập nhật bởi lần refresh định kỳ.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeSearchIndex {
+    private final EmployeeRepository employeeRepository;
+
+    // Quá ngưỡng này thì danh sách IN quá dài, quay về LIKE trên database
+    @Value("${app.employee-search.max-ids:1000}")
+    private int maxIds;
+
+    private volatile EmployeeTrigramIndex index;
+
+    /**
+     * Điều kiện lọc nhân viên: ids khi chỉ mục trả về đủ ít kết quả, keyword khi phải quay về LIKE,
+     * cả hai null nghĩa là không lọc theo nhân viên.
+     */
+    public record Filter(Set<Long> ids, String keyword) {
+        public static final Filter NONE = new Filter(null, null);
+    }
+
+    public Filter match(String query, EmployeeTrigramIndex.Field... fields) {
+        if (query == null || query.isBlank()) {
+            return Filter.NONE;
+        }
+        Set<Long> ids = index().search(query, fields);
+        return ids.size() > maxIds ? new Filter(null, query.trim()) : new Filter(ids, null);
+    }
+
+    public void reload() {
+        TransactionUtil.afterCommit(this::refresh);
+    }
+
+    // Chỉ dựng lại khi chỉ mục đã được nạp, chưa nạp thì lần tìm kiếm đầu tiên sẽ nạp
+    public void refresh() {
+        if (index != null) {
+            index = EmployeeTrigramIndex.of(employeeRepository.findAllSearchEntries());
+        }
+    }
+
+    private EmployeeTrigramIndex index() {
+        EmployeeTrigramIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = EmployeeTrigramIndex.of(employeeRepository.findAllSearchEntries());
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+}
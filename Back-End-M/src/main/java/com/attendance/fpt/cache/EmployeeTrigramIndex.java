@@ -0,0 +1,109 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.utils.StringUtil;
+
+import java.util.*;
+
+/**
+ * Chỉ mục trigram bất biến trên tên, email, số điện thoại và phòng ban của nhân viên, đã bỏ dấu.
+ * Chuỗi tìm kiếm từ 3 ký tự trở lên chỉ cần xét các nhân viên trong danh sách ngắn nhất của các trigram
+ * của nó rồi kiểm tra lại bằng contains; chuỗi ngắn hơn thì quét toàn bộ nhân viên trong bộ nhớ.
+ */
+public final class EmployeeTrigramIndex {
+    static final int GRAM_SIZE = 3;
+    private static final long[] NO_IDS = new long[0];
+
+    private final Map<Long, Entry> byId;
+    private final Map<Long, Folded> folded;
+    private final Map<String, long[]> postings;
+
+    public enum Field {
+        NAME, EMAIL, PHONE, DEPARTMENT
+    }
+
+    public record Entry(Long id, String fullName, String email, String phone, String departmentName) {
+    }
+
+    private record Folded(String[] fields) {
+
+        boolean contains(String query, Field[] fields) {
+            for (Field field : fields) {
+                if (this.fields[field.ordinal()].contains(query)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private EmployeeTrigramIndex(Map<Long, Entry> byId, Map<Long, Folded> folded, Map<String, long[]> postings) {
+        this.byId = byId;
+        this.folded = folded;
+        this.postings = postings;
+    }
+
+    public static EmployeeTrigramIndex of(Collection<Entry> entries) {
+        Map<Long, Entry> byId = new HashMap<>(entries.size() * 2);
+        Map<Long, Folded> folded = new HashMap<>(entries.size() * 2);
+        Map<String, Set<Long>> postingSets = new HashMap<>();
+        for (Entry entry : entries) {
+            String[] fields = {
+                    StringUtil.foldForSearch(entry.fullName()),
+                    StringUtil.foldForSearch(entry.email()),
+                    StringUtil.foldForSearch(entry.phone()),
+                    StringUtil.foldForSearch(entry.departmentName())
+            };
+            byId.put(entry.id(), entry);
+            folded.put(entry.id(), new Folded(fields));
+            for (String field : fields) {
+                for (int i = 0; i + GRAM_SIZE <= field.length(); i++) {
+                    postingSets.computeIfAbsent(field.substring(i, i + GRAM_SIZE), key -> new HashSet<>()).add(entry.id());
+                }
+            }
+        }
+
+        Map<String, long[]> postings = new HashMap<>(postingSets.size() * 2);
+        postingSets.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToLong(Long::longValue).toArray()));
+        return new EmployeeTrigramIndex(byId, folded, postings);
+    }
+
+    public Optional<Entry> get(Long employeeId) {
+        return Optional.ofNullable(byId.get(employeeId));
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Trả về id các nhân viên có ít nhất một trong các trường đã chọn chứa chuỗi tìm kiếm (không phân biệt dấu, hoa thường)
+    public Set<Long> search(String query, Field... fields) {
+        String needle = StringUtil.foldForSearch(query);
+        Field[] targets = fields.length == 0 ? Field.values() : fields;
+        Set<Long> result = new HashSet<>();
+        if (needle.length() < GRAM_SIZE) {
+            folded.forEach((id, text) -> {
+                if (text.contains(needle, targets)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+
+        long[] candidates = null;
+        for (int i = 0; i + GRAM_SIZE <= needle.length(); i++) {
+            long[] ids = postings.getOrDefault(needle.substring(i, i + GRAM_SIZE), NO_IDS);
+            if (candidates == null || ids.length < candidates.length) {
+                candidates = ids;
+            }
+            if (candidates.length == 0) {
+                return result;
+            }
+        }
+        for (long id : candidates) {
+            if (folded.get(id).contains(needle, targets)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+}
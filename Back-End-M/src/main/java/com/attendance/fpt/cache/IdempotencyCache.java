@@ -0,0 +1,66 @@
+package com.attendance.fpt.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Lưu kết quả của các request có header Idempotency-Key theo (thao tác, người dùng, key).
+ * Request lặp lại khi request đầu còn đang chạy sẽ chờ và nhận cùng kết quả thay vì chạy lại;
+ * nếu request đầu lỗi thì key được xoá để client có thể thử lại.
+ */
+@Component
+public class IdempotencyCache {
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAXIMUM_SIZE = 50_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private final Cache<IdempotencyKey, CompletableFuture<Object>> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String username, String key, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        IdempotencyKey cacheKey = new IdempotencyKey(operation, username, key);
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = cache.asMap().putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        try {
+            T result = action.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(cacheKey, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record IdempotencyKey(String operation, String username, String key) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.Location;
+import com.attendance.fpt.utils.GeoUtil;
+
+import java.util.*;
+
+/**
+ * Lưới không gian bất biến trên các địa điểm chấm công có toạ độ và bán kính.
+ * Mỗi địa điểm được đưa vào mọi ô lưới mà hình chữ nhật bao quanh vùng geofence của nó chạm tới,
+ * nên một điểm chỉ cần xét các địa điểm trong đúng ô của nó: lọc nhanh bằng hình chữ nhật bao
+ * rồi mới tính khoảng cách haversine.
+ */
+public final class LocationGrid {
+    static final double CELL_SIZE_DEGREES = 0.02;
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final Map<Long, Entry[]> cells;
+    private final Map<Long, Entry> byId;
+
+    public record Entry(Long id, String name, double latitude, double longitude, long radius,
+                        double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+        boolean boundingBoxContains(double latitude, double longitude) {
+            return latitude >= minLatitude && latitude <= maxLatitude
+                    && longitude >= minLongitude && longitude <= maxLongitude;
+        }
+    }
+
+    public record Match(Entry location, double distance) {
+    }
+
+    private LocationGrid(Map<Long, Entry[]> cells, Map<Long, Entry> byId) {
+        this.cells = cells;
+        this.byId = byId;
+    }
+
+    public static LocationGrid of(Collection<Location> locations) {
+        Map<Long, List<Entry>> cellLists = new HashMap<>();
+        Map<Long, Entry> byId = new HashMap<>();
+        for (Location location : locations) {
+            if (location.getLatitude() == null || location.getLongitude() == null || location.getRadius() == null) {
+                continue;
+            }
+            double latitude = location.getLatitude();
+            double longitude = location.getLongitude();
+            double latDelta = GeoUtil.latitudeDelta(location.getRadius());
+            double lonDelta = GeoUtil.longitudeDelta(latitude, location.getRadius());
+            Entry entry = new Entry(location.getId(), location.getName(), latitude, longitude, location.getRadius(),
+                    latitude - latDelta, latitude + latDelta, longitude - lonDelta, longitude + lonDelta);
+            byId.put(entry.id(), entry);
+
+            for (long row = cellIndex(entry.minLatitude()); row <= cellIndex(entry.maxLatitude()); row++) {
+                for (long column = cellIndex(entry.minLongitude()); column <= cellIndex(entry.maxLongitude()); column++) {
+                    cellLists.computeIfAbsent(cellKey(row, column), key -> new ArrayList<>()).add(entry);
+                }
+            }
+        }
+
+        Map<Long, Entry[]> cells = new HashMap<>(cellLists.size() * 2);
+        cellLists.forEach((key, entries) -> cells.put(key, entries.toArray(Entry[]::new)));
+        return new LocationGrid(cells, Map.copyOf(byId));
+    }
+
+    public Optional<Entry> get(Long locationId) {
+        return Optional.ofNullable(byId.get(locationId));
+    }
+
+    // Địa điểm gần nhất có vùng geofence chứa toạ độ đã cho
+    public Optional<Match> findNearestContaining(double latitude, double longitude) {
+        Entry[] candidates = cells.getOrDefault(cellKey(cellIndex(latitude), cellIndex(longitude)), NO_ENTRIES);
+        Match nearest = null;
+        for (Entry candidate : candidates) {
+            if (!candidate.boundingBoxContains(latitude, longitude)) {
+                continue;
+            }
+            double distance = GeoUtil.distanceMeters(latitude, longitude, candidate.latitude(), candidate.longitude());
+            if (distance <= candidate.radius() && (nearest == null || distance < nearest.distance())) {
+                nearest = new Match(candidate, distance);
+            }
+        }
+        return Optional.ofNullable(nearest);
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+}
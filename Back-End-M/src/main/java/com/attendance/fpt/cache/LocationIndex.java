@@ -0,0 +1,46 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.repositories.LocationRepository;
+import com.attendance.fpt.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Chỉ mục không gian của các địa điểm đang hoạt động, dùng để tìm địa điểm chấm công từ toạ độ.
+ * Mọi thao tác ghi lên Location phải gọi reload để dựng lại lưới sau khi commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationIndex {
+    private final LocationRepository locationRepository;
+
+    private volatile LocationGrid grid;
+
+    public Optional<LocationGrid.Entry> get(Long locationId) {
+        return grid().get(locationId);
+    }
+
+    public Optional<LocationGrid.Match> findNearestContaining(double latitude, double longitude) {
+        return grid().findNearestContaining(latitude, longitude);
+    }
+
+    public void reload() {
+        TransactionUtil.afterCommit(() -> grid = LocationGrid.of(locationRepository.findByActive(true)));
+    }
+
+    private LocationGrid grid() {
+        LocationGrid current = grid;
+        if (current == null) {
+            synchronized (this) {
+                current = grid;
+                if (current == null) {
+                    current = LocationGrid.of(locationRepository.findByActive(true));
+                    grid = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,35 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.utils.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache tài khoản đăng nhập theo username để filter xác thực không phải truy vấn DB ở mỗi request.
+ * Mọi thay đổi mật khẩu, username, quyền hoặc trạng thái hoạt động phải gọi evict.
+ */
+@Component
+public class PrincipalCache {
+    private static final int MAXIMUM_SIZE = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+
+    private final Cache<String, AccountPrincipal> cache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    public AccountPrincipal get(String username, Function<String, AccountPrincipal> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> cache.invalidate(username));
+    }
+}
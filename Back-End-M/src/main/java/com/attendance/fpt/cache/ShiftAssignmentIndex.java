@@ -0,0 +1,150 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+import com.attendance.fpt.model.response.ShiftAssignmentSlotResponse;
+import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Chỉ mục phân ca theo ngày và nhân viên cho hôm qua, hôm nay và ngày mai.
+ * Được nạp khi ứng dụng khởi động, nạp lại lúc nửa đêm và cập nhật bởi các luồng thêm/xoá phân ca sau khi commit.
+ * Chỉ mục chỉ phản ánh ghi của node hiện tại, nên kết quả "không có" phải được xác nhận lại bằng database.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShiftAssignmentIndex {
+    private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
+    private final WorkShiftCatalog workShiftCatalog;
+
+    private volatile Map<LocalDate, Map<Long, List<Slot>>> days = Map.of();
+
+    // Khác null khi đang rebuild: các thay đổi commit trong lúc nạp snapshot được ghi lại để áp lên map mới
+    private final Object deltaLock = new Object();
+    private List<Consumer<Map<LocalDate, Map<Long, List<Slot>>>>> pendingDeltas;
+
+    private record Slot(Long workShiftAssignmentId, Long workShiftId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        synchronized (deltaLock) {
+            pendingDeltas = new ArrayList<>();
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            Map<LocalDate, Map<Long, List<Slot>>> loaded = new ConcurrentHashMap<>();
+            for (LocalDate date = today.minusDays(1); !date.isAfter(today.plusDays(1)); date = date.plusDays(1)) {
+                loaded.put(date, new ConcurrentHashMap<>());
+            }
+            for (ShiftAssignmentSlotResponse slot : workShiftAssignmentRepository
+                    .findSlotsByDateAssignRange(today.minusDays(1), today.plusDays(2))) {
+                loaded.get(slot.getDateAssign()).merge(slot.getEmployeeId(),
+                        List.of(new Slot(slot.getWorkShiftAssignmentId(), slot.getWorkShiftId())), ShiftAssignmentIndex::concat);
+            }
+            // Snapshot có thể đã chứa một phần các thay đổi này, add/remove theo id nên áp lại không bị trùng
+            synchronized (deltaLock) {
+                pendingDeltas.forEach(delta -> delta.accept(loaded));
+                days = loaded;
+            }
+        } finally {
+            synchronized (deltaLock) {
+                pendingDeltas = null;
+            }
+        }
+    }
+
+    public boolean covers(LocalDate date) {
+        return days.containsKey(date);
+    }
+
+    public Optional<Long> findCurrentAssignmentId(Long employeeId, LocalDate date, LocalTime time) {
+        List<Slot> slots = slots(employeeId, date);
+        if (slots.isEmpty()) {
+            return Optional.empty();
+        }
+        Set<Long> covering = workShiftCatalog.findCoveringShiftIds(time);
+        for (Slot slot : slots) {
+            if (covering.contains(slot.workShiftId())) {
+                return Optional.of(slot.workShiftAssignmentId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Chỉ có nghĩa khi covers(date) trả về true
+    public boolean overlaps(Long employeeId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        for (Slot slot : slots(employeeId, date)) {
+            Optional<WorkShiftCatalog.Shift> shift = workShiftCatalog.get(slot.workShiftId());
+            if (shift.isPresent() && shift.get().startTime().isBefore(endTime) && shift.get().endTime().isAfter(startTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(WorkShiftAssignment assignment) {
+        Long employeeId = assignment.getEmployee().getId();
+        LocalDate date = assignment.getDateAssign();
+        Slot slot = new Slot(assignment.getId(), assignment.getWorkShift().getId());
+        applyAfterCommit(index -> {
+            Map<Long, List<Slot>> byEmployee = index.get(date);
+            if (byEmployee != null) {
+                byEmployee.merge(employeeId, List.of(slot), (current, added) ->
+                        current.contains(slot) ? current : concat(current, added));
+            }
+        });
+    }
+
+    public void remove(WorkShiftAssignment assignment) {
+        Long employeeId = assignment.getEmployee().getId();
+        LocalDate date = assignment.getDateAssign();
+        Long workShiftAssignmentId = assignment.getId();
+        applyAfterCommit(index -> {
+            Map<Long, List<Slot>> byEmployee = index.get(date);
+            if (byEmployee != null) {
+                byEmployee.computeIfPresent(employeeId, (id, slots) -> {
+                    List<Slot> remaining = slots.stream()
+                            .filter(slot -> !slot.workShiftAssignmentId().equals(workShiftAssignmentId))
+                            .toList();
+                    return remaining.isEmpty() ? null : remaining;
+                });
+            }
+        });
+    }
+
+    private void applyAfterCommit(Consumer<Map<LocalDate, Map<Long, List<Slot>>>> delta) {
+        TransactionUtil.afterCommit(() -> {
+            synchronized (deltaLock) {
+                delta.accept(days);
+                if (pendingDeltas != null) {
+                    pendingDeltas.add(delta);
+                }
+            }
+        });
+    }
+
+    private List<Slot> slots(Long employeeId, LocalDate date) {
+        Map<Long, List<Slot>> byEmployee = days.get(date);
+        if (byEmployee == null) {
+            return List.of();
+        }
+        return byEmployee.getOrDefault(employeeId, List.of());
+    }
+
+    private static List<Slot> concat(List<Slot> current, List<Slot> added) {
+        List<Slot> merged = new ArrayList<>(current.size() + added.size());
+        merged.addAll(current);
+        merged.addAll(added);
+        return List.copyOf(merged);
+    }
+}
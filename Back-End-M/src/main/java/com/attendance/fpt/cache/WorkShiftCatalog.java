@@ -0,0 +1,97 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.WorkShift;
+import com.attendance.fpt.repositories.WorkShiftRepository;
+import com.attendance.fpt.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Bản sao trong bộ nhớ của bảng work_shifts (rất nhỏ và hiếm khi thay đổi).
+ * Các ca được sắp theo giờ bắt đầu kèm giờ kết thúc lớn nhất tính đến vị trí đó, nên tìm các ca
+ * đang diễn ra tại một thời điểm chỉ cần tìm nhị phân rồi quét ngược đến khi không thể còn ca phủ.
+ * Mọi thao tác ghi lên WorkShift phải gọi reload để nạp lại sau khi commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class WorkShiftCatalog {
+    private final WorkShiftRepository workShiftRepository;
+
+    private volatile Snapshot snapshot;
+
+    public record Shift(Long id, LocalTime startTime, LocalTime endTime) {
+    }
+
+    private record Snapshot(Map<Long, Shift> byId, Shift[] byStart, LocalTime[] maxEndUpTo) {
+    }
+
+    public Optional<Shift> get(Long workShiftId) {
+        return Optional.ofNullable(snapshot().byId().get(workShiftId));
+    }
+
+    // Các ca có startTime <= time <= endTime, cùng điều kiện với findCurrentShiftAssignment
+    public Set<Long> findCoveringShiftIds(LocalTime time) {
+        Snapshot current = snapshot();
+        Shift[] byStart = current.byStart();
+
+        int low = 0;
+        int high = byStart.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byStart[mid].startTime().isAfter(time)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        Set<Long> result = new HashSet<>();
+        for (int i = low - 1; i >= 0 && !current.maxEndUpTo()[i].isBefore(time); i--) {
+            if (!byStart[i].endTime().isBefore(time)) {
+                result.add(byStart[i].id());
+            }
+        }
+        return result;
+    }
+
+    public void reload() {
+        TransactionUtil.afterCommit(() -> snapshot = load());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        List<WorkShift> workShifts = workShiftRepository.findAll();
+        Map<Long, Shift> byId = new HashMap<>();
+        for (WorkShift workShift : workShifts) {
+            if (workShift.getStartTime() != null && workShift.getEndTime() != null) {
+                byId.put(workShift.getId(), new Shift(workShift.getId(), workShift.getStartTime(), workShift.getEndTime()));
+            }
+        }
+
+        Shift[] byStart = byId.values().stream()
+                .sorted(Comparator.comparing(Shift::startTime))
+                .toArray(Shift[]::new);
+        LocalTime[] maxEndUpTo = new LocalTime[byStart.length];
+        for (int i = 0; i < byStart.length; i++) {
+            LocalTime end = byStart[i].endTime();
+            maxEndUpTo[i] = i > 0 && maxEndUpTo[i - 1].isAfter(end) ? maxEndUpTo[i - 1] : end;
+        }
+        return new Snapshot(Map.copyOf(byId), byStart, maxEndUpTo);
+    }
+}
@@ -1,6 +1,7 @@
 package com.attendance.fpt.config;
 
-import com.attendance.fpt.entity.Account;
+import com.attendance.fpt.cache.AccountPrincipal;
+import com.attendance.fpt.cache.PrincipalCache;
 import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
 import com.attendance.fpt.repositories.AccountRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +13,6 @@ import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -23,18 +23,20 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfig {
 
     private final AccountRepository accountRepository;
+    private final PrincipalCache principalCache;
 
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> {
-            Account account = accountRepository.findByUsername(username)
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+            AccountPrincipal principal = principalCache.get(username, key -> accountRepository.findByUsername(key)
+                    .map(AccountPrincipal::from)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + key)));
 
-            if (!account.getEmployee().isActive()) {
+            if (!principal.isActive()) {
                 throw new DisabledException("User account is disabled");
             }
 
-            return (UserDetails) account;
+            return principal;
         };
     }
 
@@ -1,11 +1,13 @@
 package com.attendance.fpt.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -18,6 +20,35 @@ public class AsyncConfig {
         executor.setMaxPoolSize(10); // số thread tối đa
         executor.setQueueCapacity(500); // hàng đợi
         executor.setThreadNamePrefix("AsyncEmail-");
+        // Hàng đợi đầy thì thread gọi tự chạy task thay vì ném TaskRejectedException
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Worker gửi email từ outbox, không có hàng đợi vì email đang chờ đã nằm trong bảng email_outbox
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor(@Value("${app.mail.outbox.workers:2}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("MailOutbox-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // Gửi sự kiện SSE tới các kết nối thông báo; mỗi kết nối có nhiều nhất một task trong hàng đợi
+    @Bean(name = "notificationExecutor")
+    public ThreadPoolTaskExecutor notificationExecutor(@Value("${app.notification.stream.workers:4}") int workers,
+                                                       @Value("${app.notification.stream.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("NotificationStream-");
         executor.initialize();
         return executor;
     }
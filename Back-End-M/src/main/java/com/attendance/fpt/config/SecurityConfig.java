@@ -1,9 +1,11 @@
 package com.attendance.fpt.config;
 
+import com.attendance.fpt.cache.IdempotencyCache;
 import com.attendance.fpt.config.jwt.AuthTokenFilter;
-import com.attendance.fpt.constraints.Endpoints;
+import com.attendance.fpt.config.jwt.PublicEndpointMatcher;
 import com.attendance.fpt.exceptions.custom.CustomAccessDeniedHandler;
 import com.attendance.fpt.exceptions.custom.CustomAuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,6 +33,7 @@ public class SecurityConfig implements WebMvcConfigurer {
 
     private final AuthTokenFilter authTokenFilter;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
+    private final PublicEndpointMatcher publicEndpointMatcher;
 
 
     @Bean
@@ -39,7 +42,7 @@ public class SecurityConfig implements WebMvcConfigurer {
         configuration.setAllowCredentials(true);
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", IdempotencyCache.HEADER));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -52,7 +55,9 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .cors(httpSecurityCorsConfigurer -> httpSecurityCorsConfigurer.configurationSource(corsConfigurationSource()))
                 .addFilterBefore(authTokenFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers(Endpoints.PUBLIC_ENDPOINT).permitAll()
+                        .requestMatchers(publicEndpointMatcher).permitAll()
+                        // Lượt dispatch ASYNC khi kết thúc luồng SSE đã được xác thực ở request ban đầu
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sessionManagement -> sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
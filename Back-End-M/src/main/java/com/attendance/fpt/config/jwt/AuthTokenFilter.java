@@ -1,6 +1,5 @@
 package com.attendance.fpt.config.jwt;
 
-import com.attendance.fpt.constraints.Endpoints;
 import com.attendance.fpt.enums.TokenType;
 import com.attendance.fpt.model.response.ResponseError;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,7 +25,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Date;
 
 @Component
@@ -35,6 +33,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final PublicEndpointMatcher publicEndpointMatcher;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -44,16 +43,15 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        String requestURI = request.getRequestURI();
-        if (isPublicEndpoint(requestURI)) {
+        if (publicEndpointMatcher.matches(request)) {
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtil.validateJwtToken(jwt, TokenType.ACCESS_TOKEN)) {
-                String username = jwtUtil.getUserNameFromJwtToken(jwt, TokenType.ACCESS_TOKEN);
+            if (jwt != null) {
+                String username = jwtUtil.parseClaims(jwt, TokenType.ACCESS_TOKEN).getSubject();
 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
@@ -91,11 +89,6 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private boolean isPublicEndpoint(String requestURI) {
-        return Arrays.stream(Endpoints.PUBLIC_ENDPOINT)
-                .anyMatch(requestURI::matches);
-    }
-
     private void sendErrorResponse(HttpServletResponse response, HttpServletRequest request, String message) throws IOException {
 
         ResponseError error = ResponseError.builder()
@@ -2,21 +2,32 @@ package com.attendance.fpt.config.jwt;
 
 import com.attendance.fpt.entity.Account;
 import com.attendance.fpt.enums.TokenType;
-import io.jsonwebtoken.JwtException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidParameterException;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -34,6 +45,23 @@ public class JwtUtil {
     @Value("${spring.app.jwtRefreshExpirationMs}")
     private int jwtRefreshExpirationMs;
 
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    private final Map<TokenType, Key> signInKeys = new EnumMap<>(TokenType.class);
+    private final Map<TokenType, JwtParser> parsers = new EnumMap<>(TokenType.class);
+    private final Cache<VerifiedTokenKey, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new ExpireAtTokenExpiration())
+            .build();
+
+    // Giải mã secret và tạo key, parser một lần khi khởi động
+    @PostConstruct
+    public void init() {
+        signInKeys.put(TokenType.ACCESS_TOKEN, Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtAccessSecret)));
+        signInKeys.put(TokenType.REFRESH_TOKEN, Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret)));
+        signInKeys.forEach((type, key) -> parsers.put(type, Jwts.parserBuilder().setSigningKey(key).build()));
+    }
+
     public String generateAccessToken(Account account) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("email", account.getUsername());
@@ -61,35 +89,73 @@ public class JwtUtil {
 
 
     public String getUserNameFromJwtToken(String token, TokenType type) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey(type))
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token, type).getSubject();
     }
 
     public boolean validateJwtToken(String authToken, TokenType type) {
+        parseClaims(authToken, type);
+        return true;
+    }
+
+    // Xác thực chữ ký và trả về claims trong một lần parse, token đã xác thực được cache đến thời điểm hết hạn
+    public Claims parseClaims(String token, TokenType type) {
+        VerifiedTokenKey key = new VerifiedTokenKey(type, digest(token));
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
+
+        claims = getParser(type).parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
+    private JwtParser getParser(TokenType type) {
+        JwtParser parser = parsers.get(type);
+        if (parser == null) {
+            throw new InvalidParameterException("Invalid token type");
+        }
+        return parser;
+    }
+
+    private Key getSignInKey(TokenType type) {
+        Key key = signInKeys.get(type);
+        if (key == null) {
+            throw new InvalidParameterException("Invalid token type");
+        }
+        return key;
+    }
+
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSignInKey(type))
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException ex) {
-            throw ex;
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private Key getSignInKey(TokenType type){
-        switch (type) {
-            case ACCESS_TOKEN -> {
-                return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtAccessSecret));
-            }
-            case REFRESH_TOKEN -> {
-                return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtRefreshSecret));
-            }
-            default -> throw new InvalidParameterException("Invalid token type");
+    private record VerifiedTokenKey(TokenType type, String digest) {
+    }
+
+    // Mỗi token chỉ được giữ trong cache đến thời điểm exp của chính nó
+    private static class ExpireAtTokenExpiration implements Expiry<VerifiedTokenKey, Claims> {
+        @Override
+        public long expireAfterCreate(VerifiedTokenKey key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(VerifiedTokenKey key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(VerifiedTokenKey key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,88 @@
+package com.attendance.fpt.config.jwt;
+
+import com.attendance.fpt.constraints.Endpoints;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Khớp các endpoint công khai trong {@link Endpoints#PUBLIC_ENDPOINT}, được biên dịch một lần khi khởi động
+ * và dùng chung cho AuthTokenFilter và SecurityConfig.
+ * Hỗ trợ đường dẫn cố định, "/*" (đúng một segment) và "/**" (mọi đường dẫn con).
+ */
+@Component
+public class PublicEndpointMatcher implements RequestMatcher {
+    private static final String SINGLE_SEGMENT_WILDCARD = "/*";
+    private static final String ANY_PATH_WILDCARD = "/**";
+
+    private final Set<String> exactPaths = new HashSet<>();
+    private final String[] singleSegmentPrefixes;
+    private final String[] anyPathPrefixes;
+
+    public PublicEndpointMatcher() {
+        this(Endpoints.PUBLIC_ENDPOINT);
+    }
+
+    public PublicEndpointMatcher(String... patterns) {
+        List<String> singleSegment = new ArrayList<>();
+        List<String> anyPath = new ArrayList<>();
+
+        for (String pattern : patterns) {
+            if (pattern.endsWith(ANY_PATH_WILDCARD)) {
+                String base = pattern.substring(0, pattern.length() - ANY_PATH_WILDCARD.length());
+                checkLiteral(pattern, base);
+                exactPaths.add(base);
+                anyPath.add(base + "/");
+            } else if (pattern.endsWith(SINGLE_SEGMENT_WILDCARD)) {
+                String prefix = pattern.substring(0, pattern.length() - 1);
+                checkLiteral(pattern, prefix);
+                singleSegment.add(prefix);
+            } else {
+                checkLiteral(pattern, pattern);
+                exactPaths.add(pattern);
+            }
+        }
+
+        this.singleSegmentPrefixes = singleSegment.toArray(String[]::new);
+        this.anyPathPrefixes = anyPath.toArray(String[]::new);
+    }
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return matches(request.getRequestURI());
+    }
+
+    public boolean matches(String path) {
+        if (path == null) {
+            return false;
+        }
+        if (exactPaths.contains(path)) {
+            return true;
+        }
+        for (String prefix : singleSegmentPrefixes) {
+            // "/*" khớp đúng một segment không rỗng phía sau prefix
+            if (path.length() > prefix.length()
+                    && path.startsWith(prefix)
+                    && path.indexOf('/', prefix.length()) < 0) {
+                return true;
+            }
+        }
+        for (String prefix : anyPathPrefixes) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkLiteral(String pattern, String literal) {
+        if (literal.indexOf('*') >= 0 || literal.indexOf('?') >= 0 || literal.indexOf('{') >= 0) {
+            throw new IllegalArgumentException("Unsupported public endpoint pattern: " + pattern);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.attendance.fpt.controller;
 
+import com.attendance.fpt.cache.IdempotencyCache;
 import com.attendance.fpt.model.request.AttendanceUpdateRequest;
 import com.attendance.fpt.model.request.CheckInRequest;
 import com.attendance.fpt.model.request.CheckOutRequest;
 import com.attendance.fpt.model.response.AttendanceWorkShiftResponse;
 import com.attendance.fpt.model.response.ResponseSuccess;
+import com.attendance.fpt.model.response.ResponseWithCursor;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.services.AttendanceService;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -23,6 +26,7 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final IdempotencyCache idempotencyCache;
 
     @GetMapping("")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -41,6 +45,37 @@ public class AttendanceController {
         ));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<ResponseWithCursor<List<AttendanceWorkShiftResponse>>>> scrollAttendance(
+            @RequestParam(required = false) String employeeName,
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") int limit,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal
+    ) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Get attendance page success",
+                attendanceService.scrollAttendances(employeeName, date, status, cursor, limit, includeTotal)
+        ));
+    }
+
+    @GetMapping("/count")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<Long>> countAttendance(
+            @RequestParam(required = false) String employeeName,
+            @RequestParam(required = false) LocalDate date,
+            @RequestParam(required = false) String status
+    ) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Count attendance success",
+                attendanceService.countAttendances(employeeName, date, status)
+        ));
+    }
+
     @GetMapping("/recent-checker")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ResponseSuccess<List<AttendanceWorkShiftResponse>>> getRecentCheckers() {
@@ -66,11 +101,14 @@ public class AttendanceController {
     @PostMapping(value = "/check-in")
     @PreAuthorize("hasRole('ROLE_EMPLOYEE')")
     public ResponseEntity<ResponseSuccess<AttendanceWorkShiftResponse>> checkIn(
-            @RequestBody CheckInRequest request) {
+            @RequestBody CheckInRequest request,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
         return ResponseEntity.ok(new ResponseSuccess<>(
                 HttpStatus.OK,
                 "Check-in successful",
-                attendanceService.checkIn(request)
+                idempotencyCache.execute("check-in", principal.getName(), idempotencyKey,
+                        () -> attendanceService.checkIn(request))
         ));
     }
 
@@ -1,6 +1,7 @@
 package com.attendance.fpt.controller;
 
 import com.attendance.fpt.model.request.LeaveRequestAddRequest;
+import com.attendance.fpt.model.request.LeaveRequestBulkApproveRequest;
 import com.attendance.fpt.model.request.LeaveRequestHandleRequest;
 import com.attendance.fpt.model.response.*;
 import com.attendance.fpt.services.LeaveRequestService;
@@ -99,6 +100,17 @@ public class LeaveRequestController {
     }
 
 
+    @PutMapping("/approve")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<List<LeaveRequestApprovalResultResponse>>> approveLeaveRequests(
+            @Valid @RequestBody LeaveRequestBulkApproveRequest leaveRequestBulkApproveRequest) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Approve leave requests success",
+                leaveRequestService.approveLeaveRequests(leaveRequestBulkApproveRequest)
+        ));
+    }
+
     @PutMapping("/{id}/reject")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ResponseSuccess<Void>> rejectLeaveRequest(@PathVariable Long id,
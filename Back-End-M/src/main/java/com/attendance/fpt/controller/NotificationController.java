@@ -6,9 +6,11 @@ import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.services.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -31,6 +33,13 @@ public class NotificationController {
                         notificationService.getAllNotifications(page, limit)));
     }
 
+    // Kết nối SSE nhận sự kiện "notification" khi có thông báo mới và "unread-count" khi số chưa đọc thay đổi
+    @GetMapping(value = "/me/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ROLE_EMPLOYEE')")
+    public SseEmitter streamNotifications() {
+        return notificationService.subscribe();
+    }
+
     @GetMapping("/me/unread/count")
     @PreAuthorize("hasRole('ROLE_EMPLOYEE')")
     public ResponseEntity<ResponseSuccess<Long>> countUnreadNotificationsByEmployee() {
@@ -0,0 +1,90 @@
+package com.attendance.fpt.controller;
+
+import com.attendance.fpt.model.request.RosterTemplateExpandRequest;
+import com.attendance.fpt.model.request.RosterTemplateRequest;
+import com.attendance.fpt.model.response.ResponseSuccess;
+import com.attendance.fpt.model.response.RosterTemplateExpandResponse;
+import com.attendance.fpt.model.response.RosterTemplateResponse;
+import com.attendance.fpt.services.RosterTemplateService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("${api.prefix}/roster-templates")
+public class RosterTemplateController {
+
+    private final RosterTemplateService rosterTemplateService;
+
+    @GetMapping("")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<List<RosterTemplateResponse>>> getAllRosterTemplates() {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Get all roster templates success",
+                rosterTemplateService.getAllRosterTemplates()
+        ));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<RosterTemplateResponse>> getRosterTemplate(@PathVariable Long id) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Get roster template success",
+                rosterTemplateService.getRosterTemplate(id)
+        ));
+    }
+
+    @PostMapping("/add")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<RosterTemplateResponse>> addRosterTemplate(
+            @Valid @RequestBody RosterTemplateRequest request) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.CREATED,
+                "Add roster template success",
+                rosterTemplateService.addRosterTemplate(request)
+        ));
+    }
+
+    @PutMapping("/update/{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<RosterTemplateResponse>> updateRosterTemplate(
+            @PathVariable Long id,
+            @Valid @RequestBody RosterTemplateRequest request) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Update roster template success",
+                rosterTemplateService.updateRosterTemplate(id, request)
+        ));
+    }
+
+    @DeleteMapping("/delete/{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<String>> deleteRosterTemplate(@PathVariable Long id) {
+        rosterTemplateService.deleteRosterTemplate(id);
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Delete roster template success",
+                "Roster template deleted successfully"
+        ));
+    }
+
+    @PostMapping("/{id}/expand")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<RosterTemplateExpandResponse>> expandRosterTemplate(
+            @PathVariable Long id,
+            @Valid @RequestBody RosterTemplateExpandRequest request) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Expand roster template success",
+                rosterTemplateService.expandRosterTemplate(id, request)
+        ));
+    }
+}
@@ -61,6 +61,19 @@ public class StatisticController {
                 statisticService.getTopFiveStaffAttendanceByMonth(month,year)));
     }
 
+    @GetMapping("/staff-leaderboard/{month}/{year}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<ResponseWithPagination<List<TopStaffAttendanceResponse>>>> getStaffLeaderboardByMonth(
+            @PathVariable("month") int month,
+            @PathVariable("year") int year,
+            @RequestParam(required = false, defaultValue = "1") int page,
+            @RequestParam(required = false, defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(new ResponseSuccess<>(HttpStatus.OK,
+                "Get staff leaderboard success",
+                statisticService.getStaffLeaderboardByMonth(month, year, page, limit)));
+    }
+
     @GetMapping("/overall/{month}/{year}")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ResponseSuccess<List<OverallStatisticMonthResponse>>> getOverallByMonth(
@@ -3,6 +3,7 @@ package com.attendance.fpt.controller;
 import com.attendance.fpt.model.request.WorkShiftAssignmentListRequest;
 import com.attendance.fpt.model.response.ResponseSuccess;
 import com.attendance.fpt.model.response.WorkShiftAssignmentResponse;
+import com.attendance.fpt.model.response.WorkShiftAssignmentResultResponse;
 import com.attendance.fpt.services.WorkShiftAssignmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -55,6 +56,17 @@ public class WorkShiftAssignmentController {
         ));
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<ResponseSuccess<List<WorkShiftAssignmentResultResponse>>> addBulkAssignments(
+            @Valid @RequestBody WorkShiftAssignmentListRequest requests) {
+        return ResponseEntity.ok(new ResponseSuccess<>(
+                HttpStatus.OK,
+                "Bulk add shift assignments success",
+                workShiftAssignmentService.addBulkAssignments(requests)
+        ));
+    }
+
     @DeleteMapping("/delete")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     public ResponseEntity<ResponseSuccess<String>> deleteAssignment(
@@ -5,37 +5,16 @@ import com.attendance.fpt.entity.WorkShift;
 import com.attendance.fpt.entity.WorkShiftAssignment;
 import com.attendance.fpt.model.response.AttendanceWorkShiftResponse;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-
 public class AttendanceWorkShiftConverter {
 
+    // Ca chưa có chấm công là ca chưa kết thúc; ca đã kết thúc mà không chấm công được job đóng ca ghi nhận ABSENT
     public static AttendanceWorkShiftResponse toResponseNoHaveAttendance(WorkShiftAssignment workShiftAssignment) {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDate assignDate = workShiftAssignment.getDateAssign();
-        LocalTime endTime = workShiftAssignment.getWorkShift().getEndTime();
-
-        String status;
-        if (assignDate.isBefore(now.toLocalDate())) {
-            status = "ABSENT";
-        } else if (assignDate.isEqual(now.toLocalDate())) {
-            if (endTime.isBefore(now.toLocalTime())) {
-                status = "ABSENT";
-            } else {
-                status = null;
-            }
-        } else {
-            status = null;
-        }
-
-
         return AttendanceWorkShiftResponse.builder()
                 .workShifts(WorkShiftAssignmentConverter.toResponse(workShiftAssignment))
                 .date(workShiftAssignment.getDateAssign())
                 .checkIn(null)
                 .checkOut(null)
-                .status(status)
+                .status(null)
                 .attendanceId(null)
                 .locationName(null)
                 .image(null)
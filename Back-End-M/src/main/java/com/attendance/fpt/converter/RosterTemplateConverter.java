@@ -0,0 +1,32 @@
+package com.attendance.fpt.converter;
+
+import com.attendance.fpt.entity.RosterTemplate;
+import com.attendance.fpt.entity.RosterTemplateItem;
+import com.attendance.fpt.model.response.RosterTemplateItemResponse;
+import com.attendance.fpt.model.response.RosterTemplateResponse;
+
+public class RosterTemplateConverter {
+
+    public static RosterTemplateResponse toResponse(RosterTemplate rosterTemplate) {
+        return RosterTemplateResponse.builder()
+                .id(rosterTemplate.getId())
+                .name(rosterTemplate.getName())
+                .departmentId(rosterTemplate.getDepartment() != null ? rosterTemplate.getDepartment().getId() : null)
+                .departmentName(rosterTemplate.getDepartment() != null ? rosterTemplate.getDepartment().getName() : null)
+                .employeeId(rosterTemplate.getEmployee() != null ? rosterTemplate.getEmployee().getId() : null)
+                .employeeName(rosterTemplate.getEmployee() != null ? rosterTemplate.getEmployee().getFullName() : null)
+                .items(rosterTemplate.getItems().stream()
+                        .map(RosterTemplateConverter::toItemResponse)
+                        .toList())
+                .createdAt(rosterTemplate.getCreatedAt())
+                .build();
+    }
+
+    public static RosterTemplateItemResponse toItemResponse(RosterTemplateItem item) {
+        return RosterTemplateItemResponse.builder()
+                .id(item.getId())
+                .dayOfWeek(item.getDayOfWeek())
+                .workShift(WorkShiftConverter.toResponse(item.getWorkShift()))
+                .build();
+    }
+}
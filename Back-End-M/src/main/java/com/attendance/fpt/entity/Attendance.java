@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 @Entity
 @Getter
 @Setter
-@Table(name = "attendances")
+@Table(name = "attendances", uniqueConstraints = {
+        // Mỗi phân ca chỉ có một bản ghi chấm công, chặn check-in trùng ở mức database
+        @UniqueConstraint(name = "uk_attendances_work_shift_assignment", columnNames = "work_shift_assignment_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
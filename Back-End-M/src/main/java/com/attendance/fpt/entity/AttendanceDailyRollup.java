@@ -0,0 +1,54 @@
+package com.attendance.fpt.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Số liệu chấm công đã tổng hợp theo ngày, phòng ban, ca làm và nhân viên cho dashboard.
+ * Bảng chỉ được ghi bởi AttendanceRollupService, không cập nhật trực tiếp từ các luồng nghiệp vụ.
+ */
+@Entity
+@Table(name = "attendance_daily_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_attendance_daily_rollups_key", columnNames = {"date_assign", "employee_id", "work_shift_id"})
+}, indexes = {
+        @Index(name = "idx_attendance_daily_rollups_date_shift", columnList = "date_assign, work_shift_id"),
+        @Index(name = "idx_attendance_daily_rollups_employee_date", columnList = "employee_id, date_assign")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "date_assign", nullable = false)
+    private LocalDate dateAssign;
+
+    @Column(name = "department_id")
+    private Long departmentId;
+
+    @Column(name = "work_shift_id", nullable = false)
+    private Long workShiftId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    private int assignedCount;
+    private int presentCount;
+    private int lateCount;
+    private int leaveCount;
+
+    // Số bản ghi chấm công trạng thái ABSENT do job đóng ca (ShiftClosingService) ghi cho các ca đã kết thúc mà không chấm công
+    private int absentCount;
+
+    private double totalHours;
+
+    private LocalDateTime updatedAt;
+}
@@ -15,7 +15,10 @@ import java.time.LocalDateTime;
 @Setter
 @SuperBuilder
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_employee_created", columnList = "employee_id, created_at"),
+        @Index(name = "idx_notifications_read_created", columnList = "is_read, created_at")
+})
 public class Notification{
 
     @Id
@@ -0,0 +1,40 @@
+package com.attendance.fpt.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thông báo đã hết hạn được chuyển khỏi bảng notifications, giữ nguyên id gốc.
+ * Bảng chỉ được ghi bởi NotificationRetentionService và không có khoá ngoại để việc chuyển dữ liệu không phải kiểm tra ràng buộc.
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+        @Index(name = "idx_notifications_archive_employee_created", columnList = "employee_id, created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationArchive {
+
+    @Id
+    private Long id;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "is_read")
+    private Boolean isRead;
+
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
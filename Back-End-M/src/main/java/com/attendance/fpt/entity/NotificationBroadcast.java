@@ -0,0 +1,66 @@
+package com.attendance.fpt.entity;
+
+import com.attendance.fpt.enums.NotificationBroadcastStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Yêu cầu gửi một thông báo cho nhiều nhân viên. Người nhận là recipientIds nếu có, nếu không thì
+// là nhân viên đang hoạt động của departmentId, hoặc toàn bộ nhân viên khi cả hai đều trống.
+// Người nhận được ghi theo thứ tự id tăng dần; lastRecipientId là người cuối của lô đã commit gần nhất
+@Entity
+@Table(name = "notification_broadcasts", indexes = {
+        @Index(name = "idx_notification_broadcasts_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationBroadcast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    @Column(name = "recipient_ids", columnDefinition = "MEDIUMTEXT")
+    private String recipientIds;
+
+    @Column(name = "department_id")
+    private Long departmentId;
+
+    @Column(name = "last_recipient_id", nullable = false)
+    private long lastRecipientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationBroadcastStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.status == null) {
+            this.status = NotificationBroadcastStatus.PENDING;
+        }
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.attendance.fpt.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Số thông báo chưa đọc của từng nhân viên, được cập nhật cùng transaction với các thao tác gửi và đánh dấu đã đọc
+ * để API đếm không phải COUNT trên bảng notifications. Nhân viên chưa có dòng nào nghĩa là không có thông báo chưa đọc.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCounter {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+}
@@ -0,0 +1,44 @@
+package com.attendance.fpt.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "roster_templates")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterTemplate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    // Mẫu áp dụng cho cả phòng ban hoặc cho một nhân viên, chỉ một trong hai được đặt
+    @ManyToOne
+    @JoinColumn(name = "department_id")
+    private Department department;
+
+    @ManyToOne
+    @JoinColumn(name = "employee_id")
+    private Employee employee;
+
+    @Builder.Default
+    @OneToMany(mappedBy = "rosterTemplate", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<RosterTemplateItem> items = new ArrayList<>();
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,30 @@
+package com.attendance.fpt.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.DayOfWeek;
+
+@Entity
+@Getter
+@Setter
+@Table(name = "roster_template_items")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RosterTemplateItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+
+    @ManyToOne
+    @JoinColumn(name = "work_shift_id")
+    private WorkShift workShift;
+
+    @ManyToOne
+    @JoinColumn(name = "roster_template_id")
+    private RosterTemplate rosterTemplate;
+}
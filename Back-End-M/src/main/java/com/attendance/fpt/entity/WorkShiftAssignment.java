@@ -8,7 +8,10 @@ import java.time.LocalDate;
 @Entity
 @Getter
 @Setter
-@Table(name = "shift_assignments")
+@Table(name = "shift_assignments", indexes = {
+        @Index(name = "idx_shift_assignments_employee_date", columnList = "employee_id, date_assign"),
+        @Index(name = "idx_shift_assignments_date_shift", columnList = "date_assign, work_shift_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
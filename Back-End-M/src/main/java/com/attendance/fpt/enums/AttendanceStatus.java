@@ -3,5 +3,6 @@ package com.attendance.fpt.enums;
 public enum AttendanceStatus {
     PRESENT,
     LATE,
-    LEAVE
+    LEAVE,
+    ABSENT
 } 
\ No newline at end of file
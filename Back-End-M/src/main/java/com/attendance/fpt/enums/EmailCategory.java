@@ -0,0 +1,8 @@
+package com.attendance.fpt.enums;
+
+public enum EmailCategory {
+    GENERAL,
+    OTP,
+    REQUEST_STATUS,
+    SHIFT_REMINDER
+}
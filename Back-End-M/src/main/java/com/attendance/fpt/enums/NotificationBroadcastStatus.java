@@ -0,0 +1,7 @@
+package com.attendance.fpt.enums;
+
+public enum NotificationBroadcastStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -9,7 +9,7 @@ import org.springframework.web.multipart.MultipartFile;
 @Getter
 @Setter
 public class CheckInRequest {
-        @NotNull(message = "Location ID cannot be null")
+        // Không bắt buộc: nếu bỏ trống, server tự tìm địa điểm theo toạ độ
         private Long locationId;
         @NotNull(message = "Check-in time cannot be null")
         private Double latitude;
@@ -0,0 +1,19 @@
+package com.attendance.fpt.model.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class LeaveRequestBulkApproveRequest {
+    @NotEmpty(message = "ids are required")
+    @Size(max = 200, message = "ids must not exceed 200 items")
+    private List<@NotNull Long> ids;
+
+    private String responseNote;
+}
@@ -0,0 +1,17 @@
+package com.attendance.fpt.model.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+
+@Getter
+@Setter
+public class RosterTemplateItemRequest {
+    @NotNull(message = "Day of week is required")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Work shift id is required")
+    private Long workShiftId;
+}
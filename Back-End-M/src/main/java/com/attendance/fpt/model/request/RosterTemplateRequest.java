@@ -0,0 +1,24 @@
+package com.attendance.fpt.model.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class RosterTemplateRequest {
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    private Long departmentId;
+
+    private Long employeeId;
+
+    @Valid
+    @NotEmpty(message = "Items are required")
+    private List<RosterTemplateItemRequest> items;
+}
@@ -1,5 +1,8 @@
 package com.attendance.fpt.model.request;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,5 +11,7 @@ import java.util.List;
 @Getter
 @Setter
 public class WorkShiftAssignmentListRequest {
-    List<WorkShiftAssignmentRequest> workShiftAssignments;
+    @Valid
+    @NotEmpty(message = "Work shift assignments are required")
+    private List<@NotNull(message = "Work shift assignment is required") WorkShiftAssignmentRequest> workShiftAssignments;
 }
@@ -0,0 +1,17 @@
+package com.attendance.fpt.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Getter
+@AllArgsConstructor
+public class AssignedShiftIntervalResponse {
+    private Long employeeId;
+    private LocalDate dateAssign;
+    private Long workShiftId;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
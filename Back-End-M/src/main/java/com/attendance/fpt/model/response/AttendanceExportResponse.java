@@ -0,0 +1,36 @@
+package com.attendance.fpt.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Một dòng dữ liệu xuất Excel, được chiếu trực tiếp từ câu truy vấn (không load entity).
+ * Loại dòng (đi làm, nghỉ phép, vắng không phép) được phân loại sẵn trong SQL.
+ */
+@Getter
+@AllArgsConstructor
+public class AttendanceExportResponse {
+    public static final String TYPE_ATTENDED = "ATTENDED";
+    public static final String TYPE_LEAVE = "LEAVE";
+    public static final String TYPE_ABSENT = "ABSENT";
+
+    private String type;
+    private String employeeName;
+    private String employeePhone;
+    private String departmentName;
+    private String workShiftName;
+    private LocalDate dateAssign;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Boolean partTime;
+    private LocalDateTime checkInTime;
+    private LocalDateTime checkOutTime;
+    private Double totalHours;
+    private String leaveReason;
+    private String responseByName;
+    private String responseNote;
+}
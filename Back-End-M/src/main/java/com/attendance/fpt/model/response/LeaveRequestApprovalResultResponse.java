@@ -0,0 +1,15 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class LeaveRequestApprovalResultResponse {
+    private Long leaveRequestId;
+    private boolean success;
+    private int approvedDays;
+    private String message;
+}
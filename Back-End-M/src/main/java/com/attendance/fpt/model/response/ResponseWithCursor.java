@@ -0,0 +1,17 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+public class ResponseWithCursor<T> {
+    private T data;
+    private int limit;
+    private String nextCursor;
+    private boolean hasNext;
+    // Tổng số dòng gần đúng lấy từ cache, chỉ có khi client yêu cầu
+    private Long totalItem;
+}
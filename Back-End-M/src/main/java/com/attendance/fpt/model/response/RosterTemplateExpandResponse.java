@@ -0,0 +1,17 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RosterTemplateExpandResponse {
+    private int total;
+    private int created;
+    private int skipped;
+    private List<WorkShiftAssignmentResultResponse> conflicts;
+}
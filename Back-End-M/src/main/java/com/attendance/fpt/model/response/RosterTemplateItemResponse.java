@@ -0,0 +1,16 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+
+@Getter
+@Setter
+@Builder
+public class RosterTemplateItemResponse {
+    private Long id;
+    private DayOfWeek dayOfWeek;
+    private WorkShiftResponse workShift;
+}
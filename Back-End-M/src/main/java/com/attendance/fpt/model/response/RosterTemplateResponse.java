@@ -0,0 +1,22 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+public class RosterTemplateResponse {
+    private Long id;
+    private String name;
+    private Long departmentId;
+    private String departmentName;
+    private Long employeeId;
+    private String employeeName;
+    private List<RosterTemplateItemResponse> items;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,15 @@
+package com.attendance.fpt.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class ShiftAssignmentSlotResponse {
+    private Long workShiftAssignmentId;
+    private Long employeeId;
+    private LocalDate dateAssign;
+    private Long workShiftId;
+}
@@ -0,0 +1,17 @@
+package com.attendance.fpt.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalTime;
+
+/**
+ * Một ca sắp bắt đầu cần gửi email nhắc check-in, được chiếu trực tiếp từ câu truy vấn.
+ */
+@Getter
+@AllArgsConstructor
+public class ShiftReminderResponse {
+    private Long workShiftAssignmentId;
+    private String email;
+    private LocalTime startTime;
+}
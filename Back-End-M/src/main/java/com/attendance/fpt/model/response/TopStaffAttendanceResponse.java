@@ -1,5 +1,6 @@
 package com.attendance.fpt.model.response;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,6 +8,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Builder
+@AllArgsConstructor
 public class TopStaffAttendanceResponse {
     private Long employeeId;
     private String employeeName;
@@ -0,0 +1,21 @@
+package com.attendance.fpt.model.response;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@Builder
+public class WorkShiftAssignmentResultResponse {
+    private int index;
+    private Long employeeId;
+    private Long workShiftId;
+    private LocalDate dateAssign;
+    private boolean success;
+    private boolean duplicate;
+    private Long workShiftAssignmentId;
+    private String message;
+}
@@ -0,0 +1,140 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.AttendanceDailyRollup;
+import com.attendance.fpt.model.response.TopStaffAttendanceResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface AttendanceDailyRollupRepository extends JpaRepository<AttendanceDailyRollup, Long> {
+
+    String INSERT_ROLLUP = """
+            INSERT INTO attendance_daily_rollups (date_assign, department_id, work_shift_id, employee_id,
+                assigned_count, present_count, late_count, leave_count, absent_count, total_hours, updated_at)
+            SELECT wsa.date_assign, e.department_id, wsa.work_shift_id, wsa.employee_id,
+                COUNT(wsa.id),
+                SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN a.status = 'LATE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN a.status = 'LEAVE' THEN 1 ELSE 0 END),
+                SUM(CASE WHEN a.status = 'ABSENT' THEN 1 ELSE 0 END),
+                COALESCE(SUM(a.total_hours), 0),
+                CURRENT_TIMESTAMP
+            FROM shift_assignments wsa
+            JOIN employees e ON e.id = wsa.employee_id
+            LEFT JOIN attendances a ON a.work_shift_assignment_id = wsa.id
+            """;
+
+    String GROUP_ROLLUP = " GROUP BY wsa.date_assign, e.department_id, wsa.work_shift_id, wsa.employee_id";
+
+    // Ghi đè theo khoá (date_assign, employee_id, work_shift_id) thay vì xoá rồi chèn lại, để hai lần tính lại
+    // đồng thời cho cùng một ngày không lấy gap lock chéo nhau hoặc đụng khoá trùng
+    String UPSERT_ROLLUP = """
+             ON DUPLICATE KEY UPDATE department_id = VALUES(department_id),
+                assigned_count = VALUES(assigned_count),
+                present_count = VALUES(present_count),
+                late_count = VALUES(late_count),
+                leave_count = VALUES(leave_count),
+                absent_count = VALUES(absent_count),
+                total_hours = VALUES(total_hours),
+                updated_at = VALUES(updated_at)
+            """;
+
+    // Dòng tổng hợp không còn phân ca tương ứng (phân ca đã bị xoá) thì bỏ đi
+    String NO_ASSIGNMENT = """
+             AND NOT EXISTS (SELECT 1 FROM shift_assignments wsa
+                WHERE wsa.employee_id = attendance_daily_rollups.employee_id
+                  AND wsa.date_assign = attendance_daily_rollups.date_assign
+                  AND wsa.work_shift_id = attendance_daily_rollups.work_shift_id)
+            """;
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROLLUP + "WHERE wsa.employee_id = :employeeId AND wsa.date_assign IN (:dates)" + GROUP_ROLLUP
+            + UPSERT_ROLLUP, nativeQuery = true)
+    int upsertByEmployeeAndDates(@Param("employeeId") Long employeeId, @Param("dates") Collection<LocalDate> dates);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM attendance_daily_rollups WHERE employee_id = :employeeId AND date_assign IN (:dates)"
+            + NO_ASSIGNMENT, nativeQuery = true)
+    int deleteOrphansByEmployeeAndDates(@Param("employeeId") Long employeeId, @Param("dates") Collection<LocalDate> dates);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = INSERT_ROLLUP + "WHERE wsa.date_assign >= :fromDate AND wsa.date_assign < :toDate" + GROUP_ROLLUP
+            + UPSERT_ROLLUP, nativeQuery = true)
+    int upsertByDateAssignRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM attendance_daily_rollups WHERE date_assign >= :fromDate AND date_assign < :toDate"
+            + NO_ASSIGNMENT, nativeQuery = true)
+    int deleteOrphansByDateAssignRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    @Query("""
+        SELECT
+            r.dateAssign,
+            SUM(r.presentCount),
+            SUM(r.leaveCount),
+            SUM(r.lateCount),
+            SUM(r.absentCount),
+            SUM(r.assignedCount)
+        FROM AttendanceDailyRollup r
+        WHERE r.dateAssign BETWEEN :startDate AND :endDate
+        GROUP BY r.dateAssign
+        ORDER BY r.dateAssign
+        """)
+    List<Object[]> getStatisticByDateAssignBetween(@Param("startDate") LocalDate startDate,
+                                                   @Param("endDate") LocalDate endDate);
+
+    @Query("""
+        SELECT
+            r.dateAssign,
+            SUM(r.presentCount),
+            SUM(r.absentCount),
+            SUM(r.lateCount),
+            SUM(r.leaveCount),
+            SUM(r.assignedCount)
+        FROM AttendanceDailyRollup r
+        JOIN WorkShift ws ON ws.id = r.workShiftId
+        WHERE (r.dateAssign < :today
+               OR (r.dateAssign = :today AND ws.endTime < :now))
+          AND r.dateAssign >= :fromDate
+          AND r.dateAssign < :toDate
+        GROUP BY r.dateAssign
+        ORDER BY r.dateAssign
+        """)
+    List<Object[]> getStatisticByWeekInMonth(@Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate,
+                                             @Param("today") LocalDate today,
+                                             @Param("now") LocalTime now);
+
+    // Không sắp xếp trong SQL, việc xếp hạng do StatisticService thực hiện bằng heap giới hạn kích thước
+    @Query("""
+        SELECT new com.attendance.fpt.model.response.TopStaffAttendanceResponse(
+            e.id,
+            e.fullName,
+            d.name,
+            SUM(r.assignedCount),
+            SUM(r.presentCount),
+            SUM(r.lateCount),
+            SUM(r.absentCount),
+            SUM(r.leaveCount),
+            SUM(r.totalHours))
+        FROM AttendanceDailyRollup r
+        JOIN WorkShift ws ON ws.id = r.workShiftId
+        JOIN Employee e ON e.id = r.employeeId
+        LEFT JOIN Department d ON d.id = r.departmentId
+        WHERE (r.dateAssign < :today
+               OR (r.dateAssign = :today AND ws.endTime < :now))
+          AND r.dateAssign >= :fromDate
+          AND r.dateAssign < :toDate
+        GROUP BY e.id, e.fullName, d.name
+        """)
+    List<TopStaffAttendanceResponse> findStaffAttendanceCounters(@Param("fromDate") LocalDate fromDate,
+                                                                 @Param("toDate") LocalDate toDate,
+                                                                 @Param("today") LocalDate today,
+                                                                 @Param("now") LocalTime now);
+}
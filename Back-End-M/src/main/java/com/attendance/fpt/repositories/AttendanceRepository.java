@@ -5,23 +5,17 @@ import com.attendance.fpt.enums.AttendanceStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
 
-    @Query("SELECT a FROM Attendance a " +
-            " JOIN a.workShiftAssignment ws" +
-            " WHERE a.employee.id = :employeeId " +
-            "AND month(ws.dateAssign) = :month AND year(ws.dateAssign) = :year")
-    List<Attendance> findAllByEmployeeAndMonthAndYear(@Param("employeeId") Long employeeId,
-                                                      @Param("month") Long month,
-                                                      @Param("year") Long year);
-
     Optional<Attendance> findByIdAndEmployee_Id(Long id, Long employeeId);
 
     @Query("SELECT a FROM Attendance a " +
@@ -44,4 +38,35 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
             @Param("workShiftAssignmentDateAssign") LocalDate workShiftAssignmentDateAssign,
             @Param("workShiftId") Long workShiftId,
             @Param("status") AttendanceStatus status);
+
+    // Ghi nhận vắng cho các phân ca trong lô; phân ca đã có chấm công (check-in muộn, sửa tay) thì bỏ qua
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO attendances (employee_id, work_shift_assignment_id, status, total_hours, edited)
+            SELECT wsa.employee_id, wsa.id, 'ABSENT', 0, false
+            FROM shift_assignments wsa
+            WHERE wsa.id IN (:workShiftAssignmentIds)
+              AND NOT EXISTS (SELECT 1 FROM attendances a WHERE a.work_shift_assignment_id = wsa.id)
+            """, nativeQuery = true)
+    int insertAbsentByWorkShiftAssignmentIds(@Param("workShiftAssignmentIds") Collection<Long> workShiftAssignmentIds);
+
+    // Ghi nhận nghỉ phép cho mọi phân ca của đơn trong một câu lệnh; số dòng chèn được chính là số ngày phép bị trừ
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            INSERT INTO attendances (employee_id, work_shift_assignment_id, leave_request_id, status, total_hours, edited)
+            SELECT wsa.employee_id, wsa.id, :leaveRequestId, 'LEAVE', 0, false
+            FROM shift_assignments wsa
+            WHERE wsa.employee_id = :employeeId
+              AND wsa.work_shift_id = :workShiftId
+              AND wsa.date_assign BETWEEN :startDate AND :endDate
+              AND NOT EXISTS (SELECT 1 FROM attendances a WHERE a.work_shift_assignment_id = wsa.id)
+            """, nativeQuery = true)
+    int insertLeaveForRequest(@Param("leaveRequestId") Long leaveRequestId,
+                              @Param("employeeId") Long employeeId,
+                              @Param("workShiftId") Long workShiftId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT DISTINCT a.workShiftAssignment.dateAssign FROM Attendance a WHERE a.leaveRequest.id = :leaveRequestId")
+    List<LocalDate> findDateAssignsByLeaveRequestId(@Param("leaveRequestId") Long leaveRequestId);
 }
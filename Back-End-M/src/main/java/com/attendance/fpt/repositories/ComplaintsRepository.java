@@ -13,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ComplaintsRepository extends JpaRepository<Complaint, Long> {
@@ -24,13 +25,15 @@ public interface ComplaintsRepository extends JpaRepository<Complaint, Long> {
     List<Complaint> findByStatusOrderByCreatedAtAsc(@Param("status") ComplaintStatus status);
 
     @Query("SELECT c FROM Complaint c " +
-            "WHERE (:employeeName IS NULL OR LOWER(c.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
+            "WHERE (:employeeIds IS NULL OR c.employee.id IN :employeeIds) " +
+            "AND (:employeeName IS NULL OR LOWER(c.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
             "AND (:createdDate IS NULL OR FUNCTION('DATE', c.createdAt) = :createdDate) " +
             "AND (:date IS NULL OR c.date = :date) " +
             "AND (:departmentId IS NULL OR c.employee.department.id = :departmentId) " +
             "AND (:complaintType IS NULL OR c.complaintType = :complaintType) " +
             "AND (:status IS NULL OR c.status = :status)")
     Page<Complaint> findAllWithFilters(
+            @Param("employeeIds") Collection<Long> employeeIds,
             @Param("employeeName") String employeeName,
             @Param("createdDate") LocalDate createdDate,
             @Param("date") LocalDate date,
@@ -1,5 +1,6 @@
 package com.attendance.fpt.repositories;
 
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.enums.Role;
 import org.springframework.data.domain.Page;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,13 +21,15 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
 
     @Query("SELECT e FROM Employee e " +
-           "WHERE (:name IS NULL OR LOWER(e.fullName) LIKE LOWER(CONCAT('%', :name, '%'))) " +
+           "WHERE (:employeeIds IS NULL OR e.id IN :employeeIds) " +
+           "AND (:name IS NULL OR LOWER(e.fullName) LIKE LOWER(CONCAT('%', :name, '%'))) " +
            "AND (:email IS NULL OR LOWER(e.email) LIKE LOWER(CONCAT('%', :email, '%'))) " +
            "AND (:phone IS NULL OR e.phone LIKE CONCAT('%', :phone, '%')) " +
            "AND (:role IS NULL OR e.account.role = :role) " +
            "AND (:status IS NULL OR e.active = CASE WHEN :status = 'active' THEN true ELSE false END) " +
            "AND (:departmentName IS NULL OR e.department.name = :departmentName)")
     Page<Employee> findAllWithFilters(
+        @Param("employeeIds") Collection<Long> employeeIds,
         @Param("name") String name,
         @Param("email") String email,
         @Param("phone") String phone,
@@ -36,4 +40,18 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     );
 
     List<Employee> findAllByAccount_Role(Role role);
+
+    // Chỉ đọc các cột cần cho chỉ mục tìm kiếm, không nạp entity và quan hệ
+    @Query("SELECT new com.attendance.fpt.cache.EmployeeTrigramIndex$Entry(e.id, e.fullName, e.email, e.phone, d.name) " +
+           "FROM Employee e LEFT JOIN e.department d")
+    List<EmployeeTrigramIndex.Entry> findAllSearchEntries();
+
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.department LEFT JOIN FETCH e.account WHERE e.id IN :ids")
+    List<Employee> findAllWithDepartmentByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT e.id FROM Employee e WHERE e.department.id = :departmentId AND e.active = true ORDER BY e.id")
+    List<Long> findActiveIdsByDepartmentId(@Param("departmentId") Long departmentId);
+
+    @Query("SELECT e.id FROM Employee e WHERE e.active = true ORDER BY e.id")
+    List<Long> findActiveIds();
 }
@@ -6,10 +6,12 @@ import com.attendance.fpt.enums.AttendanceStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,17 +29,28 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
 
     @Query("""
     SELECT lb FROM LeaveBalance lb
-    WHERE (:employeeName IS NULL OR LOWER(lb.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%')))
+    WHERE (:employeeIds IS NULL OR lb.employee.id IN :employeeIds)
+      AND (:employeeName IS NULL OR LOWER(lb.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%')))
       AND (:year IS NULL OR lb.year = :year)
       AND (:departmentId IS NULL OR lb.employee.department.id = :departmentId)
        AND (:leaveBalanceType IS NULL OR lb.leaveType.name = :leaveBalanceType)
 """)
-    Page<LeaveBalance> getAllLeaveBalanceByFilter(@Param("employeeName") String employeeName,
+    Page<LeaveBalance> getAllLeaveBalanceByFilter(@Param("employeeIds") Collection<Long> employeeIds,
+                                                  @Param("employeeName") String employeeName,
                                                   @Param("year") Long year,
                                                   @Param("departmentId") Long departmentId,
                                                     @Param("leaveBalanceType") String leaveBalanceType,
                                                   Pageable pageable);
 
-
-
-}
\ No newline at end of file
+    boolean existsByEmployee_IdAndLeaveType_IdAndYear(Long employeeId, Long leaveTypeId, Integer year);
+
+    // Trừ phép nguyên tử: điều kiện remainingDay >= :days nằm trong câu UPDATE nên hai lần duyệt đồng thời không thể làm âm số dư
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveBalance lb SET lb.usedDay = lb.usedDay + :days, lb.remainingDay = lb.remainingDay - :days " +
+            "WHERE lb.employee.id = :employeeId AND lb.leaveType.id = :leaveTypeId AND lb.year = :year " +
+            "AND lb.remainingDay >= :days")
+    int consume(@Param("employeeId") Long employeeId,
+                @Param("leaveTypeId") Long leaveTypeId,
+                @Param("year") Integer year,
+                @Param("days") int days);
+}
@@ -1,6 +1,7 @@
 package com.attendance.fpt.repositories;
 
 import com.attendance.fpt.entity.Complaint;
+import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.LeaveRequest;
 import com.attendance.fpt.enums.ComplaintStatus;
 import com.attendance.fpt.enums.LeaveRequestStatus;
@@ -8,11 +9,13 @@ import com.attendance.fpt.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long> {
@@ -26,13 +29,15 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
 
 
     @Query("SELECT DISTINCT lq FROM LeaveRequest lq " +
-            "WHERE (:employeeName IS NULL OR LOWER(lq.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
+            "WHERE (:employeeIds IS NULL OR lq.employee.id IN :employeeIds) " +
+            "AND (:employeeName IS NULL OR LOWER(lq.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
             "AND (:createdDate IS NULL OR FUNCTION('DATE', lq.createdAt) = :createdDate) " +
             "AND (:departmentId IS NULL OR lq.employee.department.id = :departmentId) " +
             "AND (:workShiftId IS NULL OR lq.workShift.id = :workShiftId) " +
             "AND (:leaveTypeId IS NULL OR lq.leaveType.id = :leaveTypeId) " +
             "AND (:status IS NULL OR lq.status = :status)")
     Page<LeaveRequest> findAllWithFilters(
+            @Param("employeeIds") Collection<Long> employeeIds,
             @Param("employeeName") String employeeName,
             @Param("createdDate") LocalDate createdDate,
             @Param("departmentId") Long departmentId,
@@ -42,11 +47,13 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
             Pageable pageable);
 
 
-    @Query("SELECT lt.name as name, count( distinct lq) as value FROM Attendance a" +
-            " JOIN a.leaveRequest lq " +
+    // Đi từ bảng đơn nghỉ phép và chỉ dò bảng chấm công theo khoá ngoại thay vì quét toàn bộ chấm công
+    @Query("SELECT lt.name as name, count(lq) as value FROM LeaveRequest lq" +
             " JOIN lq.leaveType lt " +
+            " WHERE lq.status = :status " +
+            " AND EXISTS (SELECT 1 FROM Attendance a WHERE a.leaveRequest = lq) " +
             " GROUP BY lt " )
-    List<Object[]> getLeaveOverallStatistics();
+    List<Object[]> getLeaveOverallStatistics(@Param("status") LeaveRequestStatus status);
 
 
     @Query("SELECT lt.name as name, count( distinct lq) as value FROM Attendance a" +
@@ -54,10 +61,10 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
             " JOIN lq.leaveType lt " +
             "  WHERE (a.workShiftAssignment.dateAssign < CURRENT_DATE " +
             "               OR (a.workShiftAssignment.dateAssign = CURRENT_DATE AND a.workShiftAssignment.workShift.endTime < CURRENT_TIMESTAMP))" +
-            "          AND EXTRACT(MONTH FROM a.workShiftAssignment.dateAssign) = :month" +
-            "          AND EXTRACT(YEAR FROM a.workShiftAssignment.dateAssign) = :year" +
+            "          AND a.workShiftAssignment.dateAssign >= :fromDate" +
+            "          AND a.workShiftAssignment.dateAssign < :toDate" +
             " GROUP BY lt " )
-    List<Object[]> getLeaveOverallStatisticsByMonth(int month, int year);
+    List<Object[]> getLeaveOverallStatisticsByDateAssignRange(LocalDate fromDate, LocalDate toDate);
 
     @Query("""
     SELECT lb.leaveType.name, lb.usedDay
@@ -69,4 +76,15 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
     List<Object[]> getLeaveOverallEmployeeStatistics(@Param("employeeId") Long employeeId,
                                                      @Param("year") int year);
 
-}
\ No newline at end of file
+    // Chỉ chuyển trạng thái khi đơn vẫn đang chờ duyệt; trả về 0 nếu đơn đã được người khác xử lý trước
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE LeaveRequest lq SET lq.status = :newStatus, lq.responseDate = :responseDate, " +
+            "lq.responseNote = :responseNote, lq.responseBy = :responseBy " +
+            "WHERE lq.id = :id AND lq.status = :currentStatus")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("currentStatus") LeaveRequestStatus currentStatus,
+                              @Param("newStatus") LeaveRequestStatus newStatus,
+                              @Param("responseDate") LocalDateTime responseDate,
+                              @Param("responseNote") String responseNote,
+                              @Param("responseBy") Employee responseBy);
+}
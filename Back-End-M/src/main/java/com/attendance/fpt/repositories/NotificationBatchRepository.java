@@ -0,0 +1,10 @@
+package com.attendance.fpt.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationBatchRepository {
+    List<Long> batchInsert(List<Long> employeeIds, String content, LocalDateTime createdAt);
+
+    void batchIncrementUnread(List<Long> employeeIds);
+}
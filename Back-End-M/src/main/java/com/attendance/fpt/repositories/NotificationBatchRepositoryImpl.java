@@ -0,0 +1,62 @@
+package com.attendance.fpt.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class NotificationBatchRepositoryImpl implements NotificationBatchRepository {
+    private static final String INSERT_SQL = "INSERT INTO notifications " +
+            "(content, is_read, employee_id, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INCREMENT_SQL = "INSERT INTO notification_counters (employee_id, unread_count) VALUES (?, 1) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Cùng một nội dung cho nhiều nhân viên, chèn một lô JDBC và trả về id theo đúng thứ tự employeeIds
+    @Override
+    public List<Long> batchInsert(List<Long> employeeIds, String content, LocalDateTime createdAt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, content);
+                        ps.setBoolean(2, false);
+                        ps.setLong(3, employeeIds.get(i));
+                        ps.setTimestamp(4, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return employeeIds.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (Map<String, Object> key : keys) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    @Override
+    public void batchIncrementUnread(List<Long> employeeIds) {
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, employeeIds, employeeIds.size(),
+                (ps, employeeId) -> ps.setLong(1, employeeId));
+    }
+}
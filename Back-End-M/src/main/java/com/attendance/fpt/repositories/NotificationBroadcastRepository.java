@@ -0,0 +1,47 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.NotificationBroadcast;
+import com.attendance.fpt.enums.NotificationBroadcastStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationBroadcastRepository extends JpaRepository<NotificationBroadcast, Long> {
+
+    // SELECT ... FOR UPDATE SKIP LOCKED: nhiều node cùng lấy yêu cầu mà không chờ khóa của nhau
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM NotificationBroadcast b WHERE b.status = :status AND b.nextAttemptAt <= :now ORDER BY b.nextAttemptAt")
+    List<NotificationBroadcast> findDueForUpdate(@Param("status") NotificationBroadcastStatus status,
+                                                 @Param("now") LocalDateTime now,
+                                                 Pageable pageable);
+
+    // Chỉ tiến con trỏ khi nó vẫn ở vị trí đã đọc, để hai worker không cùng ghi một lô
+    @Modifying
+    @Query("UPDATE NotificationBroadcast b SET b.lastRecipientId = :lastRecipientId, b.nextAttemptAt = :leaseUntil " +
+            "WHERE b.id = :id AND b.lastRecipientId = :expectedRecipientId")
+    int advanceCursor(@Param("id") Long id,
+                      @Param("expectedRecipientId") long expectedRecipientId,
+                      @Param("lastRecipientId") long lastRecipientId,
+                      @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE NotificationBroadcast b SET b.status = :status, b.sentAt = :sentAt, b.lastError = NULL WHERE b.id = :id")
+    int markSent(@Param("id") Long id,
+                 @Param("status") NotificationBroadcastStatus status,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE NotificationBroadcast b SET b.status = :status, b.attempts = :attempts, " +
+            "b.nextAttemptAt = :nextAttemptAt, b.lastError = :lastError WHERE b.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") NotificationBroadcastStatus status,
+                          @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("lastError") String lastError);
+}
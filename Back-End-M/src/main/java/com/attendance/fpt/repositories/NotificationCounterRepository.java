@@ -0,0 +1,41 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    @Query("SELECT c.unreadCount FROM NotificationCounter c WHERE c.employeeId = :employeeId")
+    Optional<Long> findUnreadCountByEmployeeId(@Param("employeeId") Long employeeId);
+
+    default long getUnreadCount(Long employeeId) {
+        return findUnreadCountByEmployeeId(employeeId).orElse(0L);
+    }
+
+    // Tạo dòng đếm nếu chưa có, cộng dồn nếu đã có; khoá dòng của nhân viên thay vì khoá cả bảng
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (employee_id, unread_count) VALUES (:employeeId, :delta) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + :delta", nativeQuery = true)
+    int increment(@Param("employeeId") Long employeeId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = CASE WHEN c.unreadCount > :delta THEN c.unreadCount - :delta ELSE 0 END " +
+            "WHERE c.employeeId = :employeeId")
+    int decrement(@Param("employeeId") Long employeeId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = 0 WHERE c.employeeId = :employeeId")
+    int reset(@Param("employeeId") Long employeeId);
+
+    // Dựng lại toàn bộ bộ đếm từ bảng notifications, dùng khi triển khai lần đầu
+    @Modifying
+    @Query(value = "INSERT INTO notification_counters (employee_id, unread_count) " +
+            "SELECT n.employee_id, COUNT(*) FROM notifications n " +
+            "WHERE n.is_read = false AND n.employee_id IS NOT NULL GROUP BY n.employee_id", nativeQuery = true)
+    int backfill();
+}
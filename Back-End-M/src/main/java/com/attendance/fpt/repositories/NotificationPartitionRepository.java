@@ -0,0 +1,107 @@
+package com.attendance.fpt.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quản lý phân vùng theo tháng của bảng notifications trên MySQL (RANGE COLUMNS theo created_at).
+ * Mỗi phân vùng pYYYYMM chứa thông báo của đúng tháng đó, p_future chứa phần còn lại và luôn là phân vùng cuối.
+ * Bảng phải được chuyển sang phân vùng trước bằng script db/notifications-partitioning.sql.
+ * Tháng hết hạn được tách ra bảng notifications_expired_pYYYYMM bằng EXCHANGE PARTITION trước khi đếm, lưu trữ và xoá.
+ */
+@Repository
+@RequiredArgsConstructor
+public class NotificationPartitionRepository {
+    private static final String TABLE = "notifications";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final String DETACHED_PREFIX = "notifications_expired_";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Các tháng đã có phân vùng, theo thứ tự tăng dần; rỗng nếu bảng chưa được phân vùng
+    public List<YearMonth> findMonthPartitions() {
+        return jdbcTemplate.queryForList(
+                        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                                "ORDER BY PARTITION_ORDINAL_POSITION",
+                        String.class, TABLE)
+                .stream()
+                .map(MONTH_PARTITION::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> YearMonth.parse(matcher.group(1), MONTH_FORMAT))
+                .toList();
+    }
+
+    // p_future có dữ liệu thì REORGANIZE phải chép lại toàn bộ các dòng đó
+    public boolean hasFutureRows() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + TABLE + " PARTITION (" + FUTURE_PARTITION + "))", Boolean.class));
+    }
+
+    // Tách tháng mới ra khỏi p_future; chỉ gần như không tốn chi phí khi p_future đang rỗng
+    public void addMonthPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    public void dropMonthPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partitionName(month));
+    }
+
+    // Đổi dữ liệu của tháng sang một bảng rỗng không phân vùng; EXCHANGE PARTITION chỉ đổi metadata và diễn ra
+    // nguyên tử, sau đó phân vùng trên bảng chính rỗng nên không thao tác nào còn sửa được các dòng đã tách
+    public void detachMonthPartition(YearMonth month) {
+        String detached = detachedTable(month);
+        jdbcTemplate.execute("CREATE TABLE " + detached + " LIKE " + TABLE);
+        jdbcTemplate.execute("ALTER TABLE " + detached + " REMOVE PARTITIONING");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partitionName(month) + " WITH TABLE " + detached);
+    }
+
+    public boolean detachedMonthExists(YearMonth month) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, detachedTable(month));
+        return count != null && count > 0;
+    }
+
+    public void dropDetachedMonth(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + detachedTable(month));
+    }
+
+    public Map<Long, Long> countUnreadByEmployee(YearMonth month) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT employee_id, COUNT(*) FROM " + detachedTable(month) + " " +
+                        "WHERE is_read = false AND employee_id IS NOT NULL GROUP BY employee_id",
+                resultSet -> {
+                    counts.put(resultSet.getLong(1), resultSet.getLong(2));
+                });
+        return counts;
+    }
+
+    public int archiveDetachedMonth(YearMonth month, LocalDateTime archivedAt) {
+        return jdbcTemplate.update("INSERT INTO notifications_archive (id, content, is_read, employee_id, created_at, archived_at) " +
+                "SELECT id, content, is_read, employee_id, created_at, ? FROM " + detachedTable(month),
+                archivedAt);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH_FORMAT);
+    }
+
+    private static String detachedTable(YearMonth month) {
+        return DETACHED_PREFIX + partitionName(month);
+    }
+}
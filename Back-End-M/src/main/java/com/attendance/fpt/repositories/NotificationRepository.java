@@ -1,21 +1,42 @@
 package com.attendance.fpt.repositories;
 
 import com.attendance.fpt.entity.Notification;
-import com.attendance.fpt.model.response.NotificationResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface NotificationRepository extends JpaRepository<Notification,Integer> {
+public interface NotificationRepository extends JpaRepository<Notification,Integer>, NotificationBatchRepository {
 
     Page<Notification> findAllByEmployee_Id(Long employeeId, Pageable pageable);
 
-    long countByEmployee_IdAndIsRead(Long employeeId, Boolean isRead);
+    // Trả về 1 nếu thông báo vừa chuyển từ chưa đọc sang đã đọc, 0 nếu đã đọc trước đó hoặc không thuộc nhân viên
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.employee.id = :employeeId AND n.isRead = false")
+    int markRead(@Param("id") Long id, @Param("employeeId") Long employeeId);
 
-    Optional<Notification> findByIdAndEmployee_Id(Long id, Long employeeId);
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.employee.id = :employeeId AND n.isRead = false")
+    int markAllRead(@Param("employeeId") Long employeeId);
 
-    List<Notification> findAllByEmployee_IdAndIsRead(Long employeeId, Boolean isRead);
+    boolean existsByIdAndEmployee_Id(Long id, Long employeeId);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.isRead = true AND n.createdAt < :cutoff")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive (id, content, is_read, employee_id, created_at, archived_at) " +
+            "SELECT n.id, n.content, n.is_read, n.employee_id, n.created_at, :archivedAt FROM notifications n WHERE n.id IN (:ids)",
+            nativeQuery = true)
+    int archiveByIdIn(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
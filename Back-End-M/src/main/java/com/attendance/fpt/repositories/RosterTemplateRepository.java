@@ -0,0 +1,17 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.RosterTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface RosterTemplateRepository extends JpaRepository<RosterTemplate, Long> {
+
+    @Query("SELECT DISTINCT rt FROM RosterTemplate rt " +
+            "LEFT JOIN FETCH rt.items i " +
+            "LEFT JOIN FETCH i.workShift " +
+            "WHERE rt.id = :id")
+    Optional<RosterTemplate> findWithItemsById(@Param("id") Long id);
+}
@@ -0,0 +1,9 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+
+import java.util.List;
+
+public interface WorkShiftAssignmentBatchRepository {
+    void batchInsert(List<WorkShiftAssignment> assignments);
+}
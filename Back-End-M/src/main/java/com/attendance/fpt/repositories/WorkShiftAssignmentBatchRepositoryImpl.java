@@ -0,0 +1,61 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class WorkShiftAssignmentBatchRepositoryImpl implements WorkShiftAssignmentBatchRepository {
+    private static final int BATCH_SIZE = 1000;
+    private static final String INSERT_SQL = "INSERT INTO shift_assignments " +
+            "(date_assign, employee_id, work_shift_id, locked, reminder_sent) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Hibernate tắt JDBC batch với id IDENTITY nên chèn trực tiếp qua JDBC batch, id tự tăng được
+    // đọc lại từ generated keys và gán vào entity. Với MySQL cần bật rewriteBatchedStatements=true
+    // trên URL để driver gộp lô thành một câu INSERT nhiều giá trị
+    @Override
+    public void batchInsert(List<WorkShiftAssignment> assignments) {
+        for (int from = 0; from < assignments.size(); from += BATCH_SIZE) {
+            List<WorkShiftAssignment> chunk = assignments.subList(from, Math.min(from + BATCH_SIZE, assignments.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            WorkShiftAssignment assignment = chunk.get(i);
+                            ps.setDate(1, Date.valueOf(assignment.getDateAssign()));
+                            ps.setLong(2, assignment.getEmployee().getId());
+                            ps.setLong(3, assignment.getWorkShift().getId());
+                            ps.setBoolean(4, false);
+                            ps.setBoolean(5, false);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                WorkShiftAssignment assignment = chunk.get(i);
+                assignment.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+                assignment.setLocked(false);
+                assignment.setReminderSent(false);
+            }
+        }
+    }
+}
@@ -5,22 +5,32 @@ import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.WorkShift;
 import com.attendance.fpt.entity.WorkShiftAssignment;
 import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.model.response.AttendanceExportResponse;
+import com.attendance.fpt.model.response.AssignedShiftIntervalResponse;
+import com.attendance.fpt.model.response.ShiftAssignmentSlotResponse;
+import com.attendance.fpt.model.response.ShiftReminderResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAssignment, Long> {
+public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAssignment, Long>,
+        WorkShiftAssignmentBatchRepository {
 
     @Query("SELECT wsa FROM WorkShiftAssignment wsa " +
             "WHERE wsa.employee.id = :employeeId " +
@@ -31,14 +41,28 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
                                                            @Param("startTime") LocalTime startTime,
                                                            @Param("endTime") LocalTime endTime);
 
+    @Query("SELECT new com.attendance.fpt.model.response.AssignedShiftIntervalResponse(" +
+            "wsa.employee.id, wsa.dateAssign, ws.id, ws.startTime, ws.endTime) " +
+            "FROM WorkShiftAssignment wsa JOIN wsa.workShift ws " +
+            "WHERE wsa.employee.id IN :employeeIds " +
+            "AND wsa.dateAssign >= :fromDate AND wsa.dateAssign < :toDate")
+    List<AssignedShiftIntervalResponse> findIntervalsByEmployeesAndDateAssignRange(@Param("employeeIds") Collection<Long> employeeIds,
+                                                                                 @Param("fromDate") LocalDate fromDate,
+                                                                                 @Param("toDate") LocalDate toDate);
+
 
     @Query("SELECT w FROM WorkShiftAssignment w" +
+            " JOIN FETCH w.workShift" +
+            " JOIN FETCH w.employee e" +
+            " LEFT JOIN FETCH e.department" +
+            " LEFT JOIN FETCH w.attendance a" +
+            " LEFT JOIN FETCH a.location" +
             " WHERE w.employee.id = :employeeId" +
-            " AND month(w.dateAssign) = :month AND year(w.dateAssign) = :year " +
+            " AND w.dateAssign >= :fromDate AND w.dateAssign < :toDate " +
             " ORDER BY w.dateAssign ASC, w.workShift.startTime ASC")
-    List<WorkShiftAssignment> findAllByEmployeeAndMonthAndYear(@Param("employeeId") Long employeeId,
-                                                               @Param("month") Long month,
-                                                               @Param("year") Long year);
+    List<WorkShiftAssignment> findAllByEmployeeAndDateAssignRange(@Param("employeeId") Long employeeId,
+                                                                  @Param("fromDate") LocalDate fromDate,
+                                                                  @Param("toDate") LocalDate toDate);
 
 
     @Query("SELECT w FROM WorkShiftAssignment w " +
@@ -50,6 +74,35 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
                                                              @Param("dateAssign") LocalDate dateAssign,
                                                              @Param("currentTime") LocalTime currentTime);
 
+    // Phân ca đã kết thúc mà chưa có chấm công, lấy theo lô và theo thứ tự giờ kết thúc ca để đóng ca.
+    // Ngày và giờ hiện tại được truyền từ ứng dụng để cùng múi giờ với luồng check-in
+    @Query("SELECT new com.attendance.fpt.model.response.ShiftAssignmentSlotResponse(" +
+            "wsa.id, wsa.employee.id, wsa.dateAssign, ws.id) " +
+            "FROM WorkShiftAssignment wsa " +
+            "JOIN wsa.workShift ws " +
+            "LEFT JOIN wsa.attendance a " +
+            "WHERE a.id IS NULL " +
+            "AND wsa.dateAssign >= :fromDate " +
+            "AND (wsa.dateAssign < :today OR (wsa.dateAssign = :today AND ws.endTime <= :now)) " +
+            "ORDER BY wsa.dateAssign, ws.endTime, wsa.id")
+    List<ShiftAssignmentSlotResponse> findEndedSlotsWithoutAttendance(@Param("fromDate") LocalDate fromDate,
+                                                                      @Param("today") LocalDate today,
+                                                                      @Param("now") LocalTime now,
+                                                                      Pageable pageable);
+
+    @Query("SELECT MIN(wsa.dateAssign) FROM WorkShiftAssignment wsa")
+    LocalDate findFirstDateAssign();
+
+    @Query("SELECT MAX(wsa.dateAssign) FROM WorkShiftAssignment wsa")
+    LocalDate findLastDateAssign();
+
+    @Query("SELECT new com.attendance.fpt.model.response.ShiftAssignmentSlotResponse(" +
+            "wsa.id, wsa.employee.id, wsa.dateAssign, wsa.workShift.id) " +
+            "FROM WorkShiftAssignment wsa " +
+            "WHERE wsa.dateAssign >= :fromDate AND wsa.dateAssign < :toDate")
+    List<ShiftAssignmentSlotResponse> findSlotsByDateAssignRange(@Param("fromDate") LocalDate fromDate,
+                                                                @Param("toDate") LocalDate toDate);
+
 
     @Query("SELECT wa FROM WorkShiftAssignment wa " +
             "JOIN wa.employee e " +
@@ -57,16 +110,15 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
             "WHERE (:employeeId IS NULL OR e.id = :employeeId) " +
             "AND (:workShiftId IS NULL OR ws.id = :workShiftId) " +
             "AND (:departmentId IS NULL OR e.department.id = :departmentId) " +
-            "AND EXTRACT(MONTH FROM wa.dateAssign) = :month " +
-            "AND EXTRACT(YEAR FROM wa.dateAssign) = :year " +
-            "AND wa.dateAssign IS NOT NULL " +
+            "AND (:fromDate IS NULL OR wa.dateAssign >= :fromDate) " +
+            "AND (:toDate IS NULL OR wa.dateAssign < :toDate) " +
             "AND ws.startTime IS NOT NULL " +
             "ORDER BY wa.dateAssign ASC, ws.startTime ASC")
     List<WorkShiftAssignment> filterAssignments(
             @Param("employeeId") Long employeeId,
             @Param("workShiftId") Long workShiftId,
-            @Param("month") Long month,
-            @Param("year") Long year,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
             @Param("departmentId") Long departmentId
     );
 
@@ -74,11 +126,10 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
     @Query("SELECT wsa " +
             "FROM WorkShiftAssignment wsa " +
             "LEFT JOIN wsa.attendance a " +
-            "WHERE (" +
-            "  :employeeName IS NULL " +
-            "  OR LOWER(wsa.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))" +
-            "  OR LOWER(wsa.employee.email) LIKE LOWER(CONCAT('%', :employeeName, '%'))" +
-            ") " +
+            "WHERE (:employeeIds IS NULL OR wsa.employee.id IN :employeeIds) " +
+            "AND (:employeeName IS NULL " +
+            "  OR LOWER(wsa.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%')) " +
+            "  OR LOWER(wsa.employee.email) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
             "AND (:date IS NULL OR wsa.dateAssign = :date) " +
 //            "AND ( " +
 //            "     (wsa.dateAssign < CURRENT_DATE) " +
@@ -86,173 +137,126 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
 //            "     (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.startTime <= CURRENT TIME) " +
 //            ") " +
             "AND (:status IS NULL OR a.status = :status ) ")
-    Page<WorkShiftAssignment> getAllWorkShiftAttendanceByFilter(@Param("employeeName") String employeeName,
+    Page<WorkShiftAssignment> getAllWorkShiftAttendanceByFilter(@Param("employeeIds") Collection<Long> employeeIds,
+                                                                @Param("employeeName") String employeeName,
                                                                 @Param("date") LocalDate date,
                                                                 @Param("status") AttendanceStatus status,
                                                                 Pageable pageable);
 
-    @Query("SELECT wsa " +
-            "FROM WorkShiftAssignment wsa " +
-            "LEFT JOIN wsa.attendance a " +
-            "WHERE (" +
-            "  :employeeName IS NULL " +
-            "  OR LOWER(wsa.employee.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%'))" +
-            "  OR LOWER(wsa.employee.email) LIKE LOWER(CONCAT('%', :employeeName, '%'))" +
-            ") " +
+    String LISTING_FILTER =
+            "WHERE (:employeeIds IS NULL OR e.id IN :employeeIds) " +
+            "AND (:employeeName IS NULL " +
+            "  OR LOWER(e.fullName) LIKE LOWER(CONCAT('%', :employeeName, '%')) " +
+            "  OR LOWER(e.email) LIKE LOWER(CONCAT('%', :employeeName, '%'))) " +
             "AND (:date IS NULL OR wsa.dateAssign = :date) " +
-//            "AND ( " +
-//            "     (wsa.dateAssign < CURRENT_DATE) " +
-//            "     OR " +
-//            "     (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.startTime <= CURRENT TIME) " +
-//            ") " +
-            "AND a.id IS NULL")
-    Page<WorkShiftAssignment> getAllWorkShiftAttendanceByFilterAndAbsent(@Param("employeeName") String employeeName,
-                                                                @Param("date") LocalDate date,
-                                                                Pageable pageable);
-
-    boolean existsByWorkShiftAndDateAssignAndEmployee(WorkShift workShift, LocalDate dateAssign, Employee employee);
-
-    Optional<WorkShiftAssignment> findByWorkShiftAndDateAssignAndEmployee(WorkShift workShift, LocalDate dateAssign, Employee employee);
-
-    @Query("SELECT " +
-            "  wsa.dateAssign AS date, " +
-            "  SUM(CASE WHEN a.status = 'PRESENT' THEN 1 ELSE 0 END), " +
-            "  SUM(CASE WHEN a.status = 'LEAVE' THEN 1 ELSE 0 END), " +
-            "  SUM(CASE WHEN a.status = 'LATE' THEN 1 ELSE 0 END), " +
-            "  SUM(CASE WHEN a.id IS NULL AND " +
-            "               FUNCTION('CURRENT_TIMESTAMP') >= FUNCTION('TIMESTAMP', wsa.dateAssign, wsa.workShift.endTime) " +
-            "           THEN 1 ELSE 0 END), " +
-            "  COUNT(wsa) AS total " +
-            "FROM WorkShiftAssignment wsa " +
-            "LEFT JOIN wsa.attendance a " +
-            "WHERE wsa.dateAssign BETWEEN :startDate AND :endDate " +
-            "GROUP BY wsa.dateAssign " +
-            "ORDER BY wsa.dateAssign")
-    List<Object[]> getStatisticByDateAssignBetween(LocalDate startDate, LocalDate endDate);
-
-
+            "AND (:status IS NULL OR a.status = :status) ";
 
-    @Query("""
-    SELECT 
-        e.id,
-        e.fullName,
-        d.name,
-        COUNT(wsa.id) AS totalWorkShiftAssignment,
-        COUNT(CASE WHEN a.status = 'PRESENT' THEN 1 END) AS totalAttendanceWorkShift,
-        COUNT(CASE WHEN a.status = 'LATE' THEN 1 END) AS totalLateWorkShift,
-        COUNT(CASE WHEN a.status IS NULL THEN 1 END) AS totalAbsentWorkShift,
-        COUNT(CASE WHEN a.status = 'LEAVE' THEN 1 END) AS totalLeaveWorkShift,
-        SUM(CASE WHEN a.totalHours IS NOT NULL THEN a.totalHours ELSE 0 END) AS totalWorkingHours
-    FROM WorkShiftAssignment wsa
-    JOIN wsa.employee e
-    JOIN e.department d
-    LEFT JOIN wsa.attendance a
-    WHERE (wsa.dateAssign < CURRENT_DATE 
-           OR (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.endTime < CURRENT_TIMESTAMP))
-      AND (EXTRACT(MONTH FROM wsa.dateAssign) = :month
-           AND EXTRACT(YEAR FROM wsa.dateAssign) = :year)
-    GROUP BY e.id, e.fullName, d.name
-    ORDER BY totalAttendanceWorkShift DESC
-    LIMIT 5
-""")
-    List<Object[]> getTopFiveStaffAttendance(@Param("month") int month, @Param("year") int year);
+    String LISTING_ORDER = "ORDER BY wsa.dateAssign DESC, ws.endTime DESC, wsa.id DESC";
 
-    @Query("""
-    SELECT 
-        e.id,
-        e.fullName,
-        d.name,
-        COUNT(wsa.id) AS totalWorkShiftAssignment,
-        COUNT(CASE WHEN a.status = 'PRESENT' THEN 1 END) AS totalAttendanceWorkShift,
-        COUNT(CASE WHEN a.status = 'LATE' THEN 1 END) AS totalLateWorkShift,
-        COUNT(CASE WHEN a.status IS NULL THEN 1 END) AS totalAbsentWorkShift,
-        COUNT(CASE WHEN a.status = 'LEAVE' THEN 1 END) AS totalLeaveWorkShift,
-        SUM(CASE WHEN a.totalHours IS NOT NULL THEN a.totalHours ELSE 0 END) AS totalWorkingHours
-    FROM WorkShiftAssignment wsa
-    JOIN wsa.employee e
-    JOIN e.department d
-    LEFT JOIN wsa.attendance a
-    WHERE (wsa.dateAssign < CURRENT_DATE 
-           OR (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.endTime < CURRENT_TIMESTAMP))
-      AND (EXTRACT(MONTH FROM wsa.dateAssign) = :month
-           AND EXTRACT(YEAR FROM wsa.dateAssign) = :year)
-    GROUP BY e.id, e.fullName, d.name
-    ORDER BY totalAttendanceWorkShift DESC
-""")
-    List<Object[]> getTopStaffAttendance(@Param("month") int month, @Param("year") int year);
+    // Trang đầu của danh sách chấm công phân trang theo khoá (keyset), cùng thứ tự với getAllWorkShiftAttendanceByFilter
+    @Query("SELECT wsa FROM WorkShiftAssignment wsa " +
+            "JOIN FETCH wsa.employee e " +
+            "JOIN FETCH wsa.workShift ws " +
+            "LEFT JOIN FETCH wsa.attendance a " +
+            LISTING_FILTER +
+            LISTING_ORDER)
+    List<WorkShiftAssignment> findAttendanceListingFirst(@Param("employeeIds") Collection<Long> employeeIds,
+                                                         @Param("employeeName") String employeeName,
+                                                         @Param("date") LocalDate date,
+                                                         @Param("status") AttendanceStatus status,
+                                                         Pageable pageable);
 
-    @Query("""
-        SELECT 
-            wsa.dateAssign,
-            COUNT(CASE WHEN a.status = 'PRESENT' THEN 1 END),
-            COUNT(CASE WHEN a.status IS NULL THEN 1 END),
-            COUNT(CASE WHEN a.status = 'LATE' THEN 1 END),
-            COUNT(CASE WHEN a.status = 'LEAVE' THEN 1 END),
-            COUNT(wsa.id)
-        FROM WorkShiftAssignment wsa
-        LEFT JOIN wsa.attendance a
-        WHERE (wsa.dateAssign < CURRENT_DATE 
-               OR (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.endTime < CURRENT_TIMESTAMP))
-          AND EXTRACT(MONTH FROM wsa.dateAssign) = :month
-          AND EXTRACT(YEAR FROM wsa.dateAssign) = :year
-        GROUP BY wsa.dateAssign
-        ORDER BY wsa.dateAssign
-        """)
-    List<Object[]> getStatisticByWeekInMonth(@Param("month") int month, @Param("year") int year);
+    // Các trang sau bắt đầu ngay sau (dateAssign, endTime, id) của dòng cuối trang trước nên không phải bỏ qua dòng nào
+    @Query("SELECT wsa FROM WorkShiftAssignment wsa " +
+            "JOIN FETCH wsa.employee e " +
+            "JOIN FETCH wsa.workShift ws " +
+            "LEFT JOIN FETCH wsa.attendance a " +
+            LISTING_FILTER +
+            "AND wsa.dateAssign <= :cursorDate " +
+            "AND (wsa.dateAssign < :cursorDate " +
+            "     OR ws.endTime < :cursorEndTime " +
+            "     OR (ws.endTime = :cursorEndTime AND wsa.id < :cursorId)) " +
+            LISTING_ORDER)
+    List<WorkShiftAssignment> findAttendanceListingAfter(@Param("employeeIds") Collection<Long> employeeIds,
+                                                         @Param("employeeName") String employeeName,
+                                                         @Param("date") LocalDate date,
+                                                         @Param("status") AttendanceStatus status,
+                                                         @Param("cursorDate") LocalDate cursorDate,
+                                                         @Param("cursorEndTime") LocalTime cursorEndTime,
+                                                         @Param("cursorId") Long cursorId,
+                                                         Pageable pageable);
 
-    @Query("SELECT wsa " +
-            "FROM WorkShiftAssignment wsa " +
-            "WHERE (:month IS NULL OR FUNCTION('MONTH', wsa.dateAssign) = :month) " +
-            "AND (:year IS NULL OR FUNCTION('YEAR', wsa.dateAssign) = :year) " +
-            "AND wsa.attendance IS NOT NULL")
+    @Query("SELECT COUNT(wsa) FROM WorkShiftAssignment wsa " +
+            "JOIN wsa.employee e " +
+            "LEFT JOIN wsa.attendance a " +
+            LISTING_FILTER)
+    long countAttendanceListing(@Param("employeeIds") Collection<Long> employeeIds,
+                                @Param("employeeName") String employeeName,
+                                @Param("date") LocalDate date,
+                                @Param("status") AttendanceStatus status);
 
-    List<WorkShiftAssignment> getAllWorkShiftAttendanceByMonthAndYear(@Param("month") int month,
-                                                                      @Param("year") int year);
+    boolean existsByWorkShiftAndDateAssignAndEmployee(WorkShift workShift, LocalDate dateAssign, Employee employee);
 
+    Optional<WorkShiftAssignment> findByWorkShiftAndDateAssignAndEmployee(WorkShift workShift, LocalDate dateAssign, Employee employee);
 
-    @Query("SELECT wsa " +
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT new com.attendance.fpt.model.response.AttendanceExportResponse(" +
+            "  CASE WHEN a.status = com.attendance.fpt.enums.AttendanceStatus.ABSENT THEN '" + AttendanceExportResponse.TYPE_ABSENT + "' " +
+            "       WHEN lr.id IS NOT NULL THEN '" + AttendanceExportResponse.TYPE_LEAVE + "' " +
+            "       ELSE '" + AttendanceExportResponse.TYPE_ATTENDED + "' END, " +
+            "  e.fullName, e.phone, d.name, ws.name, wsa.dateAssign, ws.startTime, ws.endTime, ws.isPartTime, " +
+            "  a.checkInTime, a.checkOutTime, a.totalHours, lr.reason, rb.fullName, lr.responseNote) " +
             "FROM WorkShiftAssignment wsa " +
-            "LEFT JOIN wsa.attendance a " +
-            "WHERE (:month IS NULL OR FUNCTION('MONTH', wsa.dateAssign) = :month) " +
-            "AND (:year IS NULL OR FUNCTION('YEAR', wsa.dateAssign) = :year) " +
-            "AND ( " +
-            "     (wsa.dateAssign < CURRENT_DATE) " +
-            "     OR " +
-            "     (wsa.dateAssign = CURRENT_DATE AND wsa.workShift.startTime <= CURRENT TIME) " +
-            ") " +
-            "AND a.id IS NULL")
-    List<WorkShiftAssignment> getAllWorkShiftAttendanceAbsentByMonthAndYear(@Param("month") int month,
-                                                                            @Param("year") int year);
+            "JOIN wsa.employee e " +
+            "JOIN wsa.workShift ws " +
+            "JOIN wsa.attendance a " +
+            "LEFT JOIN e.department d " +
+            "LEFT JOIN a.leaveRequest lr " +
+            "LEFT JOIN lr.responseBy rb " +
+            "WHERE wsa.dateAssign >= :fromDate " +
+            "AND wsa.dateAssign < :toDate")
+    Stream<AttendanceExportResponse> streamExportByDateAssignRange(@Param("fromDate") LocalDate fromDate,
+                                                                  @Param("toDate") LocalDate toDate);
 
     @Modifying
     @Transactional
     @Query("UPDATE WorkShiftAssignment wsa SET wsa.locked = true " +
-            "WHERE FUNCTION('MONTH', wsa.dateAssign) = :month " +
-            "AND FUNCTION('YEAR', wsa.dateAssign) = :year")
-    void lockAllWorkShiftAssignmentForMonthAndYear(@Param("month") int month,@Param("year") int year);
+            "WHERE wsa.dateAssign >= :fromDate " +
+            "AND wsa.dateAssign < :toDate")
+    void lockAllWorkShiftAssignmentByDateAssignRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
 
     @Query("""
     SELECT wsa 
     FROM WorkShiftAssignment wsa
     LEFT JOIN FETCH wsa.attendance a
-    WHERE EXTRACT(YEAR FROM wsa.dateAssign) = :year
-      AND wsa.employee.id = :employeeId
+    WHERE wsa.employee.id = :employeeId
+      AND wsa.dateAssign >= :fromDate
+      AND wsa.dateAssign < :toDate
 """)
-    List<WorkShiftAssignment> getAssignmentsByYear(@Param("employeeId") Long employeeId, @Param("year") int year);
+    List<WorkShiftAssignment> getAssignmentsByDateAssignRange(@Param("employeeId") Long employeeId,
+                                                              @Param("fromDate") LocalDate fromDate,
+                                                              @Param("toDate") LocalDate toDate);
 
     @Query("""
-    SELECT wsa FROM WorkShiftAssignment wsa
+    SELECT new com.attendance.fpt.model.response.ShiftReminderResponse(wsa.id, e.email, ws.startTime)
+    FROM WorkShiftAssignment wsa
+    JOIN wsa.employee e
+    JOIN wsa.workShift ws
     LEFT JOIN wsa.attendance a
-    WHERE a IS NULL
+    WHERE a.id IS NULL
       AND wsa.dateAssign = CURRENT_DATE
-      AND wsa.workShift.startTime BETWEEN :nowTime AND :fifteenMinutesLaterTime
+      AND ws.startTime BETWEEN :nowTime AND :fifteenMinutesLaterTime
       AND wsa.reminderSent = false
 """)
-    List<WorkShiftAssignment> findUpcomingShiftsWithoutCheckIn(
+    List<ShiftReminderResponse> findUpcomingShiftsWithoutCheckIn(
             @Param("nowTime") LocalTime nowTime,
             @Param("fifteenMinutesLaterTime") LocalTime fifteenMinutesLaterTime
     );
 
+    @Modifying
+    @Query("UPDATE WorkShiftAssignment wsa SET wsa.reminderSent = true WHERE wsa.id IN :ids")
+    int markReminderSent(@Param("ids") List<Long> ids);
+
     @Query("""
     SELECT 
         COUNT(wsa.id),
@@ -261,9 +265,11 @@ public interface WorkShiftAssignmentRepository extends JpaRepository<WorkShiftAs
     FROM WorkShiftAssignment wsa
     LEFT JOIN wsa.attendance a
     WHERE wsa.employee.id = :employeeId
-      AND EXTRACT(YEAR FROM wsa.dateAssign) = :year
-      AND EXTRACT(MONTH FROM wsa.dateAssign) = :month
+      AND wsa.dateAssign >= :fromDate
+      AND wsa.dateAssign < :toDate
 """)
-    Object getStatisticOverallEmployeeByMonthAndYear(@Param("employeeId") Long employeeId, @Param("month") int month, @Param("year") int year);
+    Object getStatisticOverallEmployeeByDateAssignRange(@Param("employeeId") Long employeeId,
+                                                        @Param("fromDate") LocalDate fromDate,
+                                                        @Param("toDate") LocalDate toDate);
 
 }
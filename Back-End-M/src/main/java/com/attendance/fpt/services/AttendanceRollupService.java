@@ -0,0 +1,15 @@
+package com.attendance.fpt.services;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+
+import java.time.LocalDate;
+
+public interface AttendanceRollupService {
+    void refresh(Long employeeId, LocalDate date);
+
+    void refresh(WorkShiftAssignment workShiftAssignment);
+
+    void reconcile(LocalDate fromDate, LocalDate toDate);
+
+    void reconcileRecentDays();
+}
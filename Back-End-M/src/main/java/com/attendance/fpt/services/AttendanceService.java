@@ -4,6 +4,7 @@ import com.attendance.fpt.model.request.AttendanceUpdateRequest;
 import com.attendance.fpt.model.request.CheckInRequest;
 import com.attendance.fpt.model.request.CheckOutRequest;
 import com.attendance.fpt.model.response.AttendanceWorkShiftResponse;
+import com.attendance.fpt.model.response.ResponseWithCursor;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import org.springframework.web.bind.annotation.RequestParam;
 
@@ -17,6 +18,9 @@ public interface AttendanceService {
     AttendanceWorkShiftResponse checkIn(CheckInRequest request);
     AttendanceWorkShiftResponse checkOut(CheckOutRequest checkOutRequest );
     ResponseWithPagination<List<AttendanceWorkShiftResponse>> getAllAttendances(String employeeName, LocalDate date, String status , int page, int limit);
+    ResponseWithCursor<List<AttendanceWorkShiftResponse>> scrollAttendances(String employeeName, LocalDate date, String status,
+                                                                            String cursor, int limit, boolean includeTotal);
+    long countAttendances(String employeeName, LocalDate date, String status);
     List<AttendanceWorkShiftResponse> getRecentCheckers();
 
 
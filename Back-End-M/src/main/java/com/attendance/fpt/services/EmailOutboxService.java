@@ -0,0 +1,14 @@
+package com.attendance.fpt.services;
+
+import com.attendance.fpt.enums.EmailCategory;
+import java.util.List;
+
+public interface EmailOutboxService {
+    void enqueue(EmailCategory category, String to, String subject, String html);
+
+    void enqueueAll(EmailCategory category, List<String> recipients, String subject, String html);
+
+    void dispatchPending();
+
+    int drainBatch();
+}
@@ -6,4 +6,6 @@ public interface EmailService {
     void sendApprovalEmail(String to, String message, boolean isApproved);
 
     void sendReminderEmail(String to, String message);
+
+    String renderReminderEmail(String message);
 }
@@ -1,7 +1,9 @@
 package com.attendance.fpt.services;
 
 import com.attendance.fpt.model.request.LeaveRequestAddRequest;
+import com.attendance.fpt.model.request.LeaveRequestBulkApproveRequest;
 import com.attendance.fpt.model.request.LeaveRequestHandleRequest;
+import com.attendance.fpt.model.response.LeaveRequestApprovalResultResponse;
 import com.attendance.fpt.model.response.LeaveRequestResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 
@@ -13,6 +15,7 @@ public interface LeaveRequestService {
     void recallLeaveRequest(Long id);
     void rejectLeaveRequest(Long id, LeaveRequestHandleRequest leaveRequestHandleRequest);
     void approveLeaveRequest(Long id, LeaveRequestHandleRequest leaveRequestHandleRequest);
+    List<LeaveRequestApprovalResultResponse> approveLeaveRequests(LeaveRequestBulkApproveRequest request);
     ResponseWithPagination<List<LeaveRequestResponse>> getAllLeaveRequestsByEmployee(int page, int limit);
     List<LeaveRequestResponse> getPendingLeaveRequests();
     ResponseWithPagination<List<LeaveRequestResponse>> getAllLeaveRequests(
@@ -0,0 +1,31 @@
+package com.attendance.fpt.services;
+
+import com.attendance.fpt.model.response.NotificationResponse;
+
+/**
+ * Kênh phát sự kiện thông báo tới các kết nối đang mở. Bản mặc định chỉ chuyển thẳng vào NotificationHub
+ * của node hiện tại; khi chạy nhiều node có thể thay bằng bản dùng message broker (Redis pub/sub, Kafka...)
+ * miễn là mỗi node nhận sự kiện đều gọi NotificationHub.deliver.
+ */
+public interface NotificationBroker {
+    void publish(Event event);
+
+    enum Type {
+        CREATED, READ, ALL_READ
+    }
+
+    record Event(Type type, Long employeeId, NotificationResponse notification) {
+
+        public static Event created(Long employeeId, NotificationResponse notification) {
+            return new Event(Type.CREATED, employeeId, notification);
+        }
+
+        public static Event read(Long employeeId) {
+            return new Event(Type.READ, employeeId, null);
+        }
+
+        public static Event allRead(Long employeeId) {
+            return new Event(Type.ALL_READ, employeeId, null);
+        }
+    }
+}
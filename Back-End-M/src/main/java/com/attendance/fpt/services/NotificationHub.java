@@ -0,0 +1,17 @@
+package com.attendance.fpt.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.OptionalLong;
+
+public interface NotificationHub {
+    SseEmitter subscribe(Long employeeId);
+
+    void deliver(NotificationBroker.Event event);
+
+    OptionalLong unreadCount(Long employeeId);
+
+    void heartbeat();
+
+    int connectionCount();
+}
@@ -3,12 +3,22 @@ package com.attendance.fpt.services;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.model.response.NotificationResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface NotificationService {
     void sendNotification(Employee employee, String message);
 
+    void sendNotifications(Collection<Long> employeeIds, String template, Object... params);
+
+    void sendNotificationsToDepartment(Long departmentId, String template, Object... params);
+
+    void sendNotificationsToAllStaff(String template, Object... params);
+
+    void dispatchPendingBroadcasts();
+
     ResponseWithPagination<List<NotificationResponse>> getAllNotifications(int page, int limit);
 
     long countUnreadNotificationsByEmployee();
@@ -16,4 +26,6 @@ public interface NotificationService {
     void updateNotificationToRead(Long notificationId);
 
     void updateAllNotificationsToReadByEmployee();
+
+    SseEmitter subscribe();
 }
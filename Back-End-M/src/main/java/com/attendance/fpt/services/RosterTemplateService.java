@@ -0,0 +1,22 @@
+package com.attendance.fpt.services;
+
+import com.attendance.fpt.model.request.RosterTemplateExpandRequest;
+import com.attendance.fpt.model.request.RosterTemplateRequest;
+import com.attendance.fpt.model.response.RosterTemplateExpandResponse;
+import com.attendance.fpt.model.response.RosterTemplateResponse;
+
+import java.util.List;
+
+public interface RosterTemplateService {
+    List<RosterTemplateResponse> getAllRosterTemplates();
+
+    RosterTemplateResponse getRosterTemplate(Long id);
+
+    RosterTemplateResponse addRosterTemplate(RosterTemplateRequest request);
+
+    RosterTemplateResponse updateRosterTemplate(Long id, RosterTemplateRequest request);
+
+    void deleteRosterTemplate(Long id);
+
+    RosterTemplateExpandResponse expandRosterTemplate(Long id, RosterTemplateExpandRequest request);
+}
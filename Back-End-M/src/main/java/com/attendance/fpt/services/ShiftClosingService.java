@@ -0,0 +1,5 @@
+package com.attendance.fpt.services;
+
+public interface ShiftClosingService {
+    int closeEndedShifts();
+}
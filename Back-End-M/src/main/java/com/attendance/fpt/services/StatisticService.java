@@ -15,6 +15,8 @@ public interface StatisticService {
 
     List<TopStaffAttendanceResponse> getTopFiveStaffAttendanceByMonth(int month,int year);
 
+    ResponseWithPagination<List<TopStaffAttendanceResponse>> getStaffLeaderboardByMonth(int month, int year, int page, int limit);
+
     List<OverallStatisticMonthResponse> getOverallByMonth(int month, int year);
 
     List<LeaveOverallResponse> getLeaveOverallStatisticsByMonth(int month, int year);
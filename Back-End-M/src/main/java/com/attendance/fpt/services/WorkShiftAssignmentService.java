@@ -3,6 +3,7 @@ package com.attendance.fpt.services;
 import com.attendance.fpt.model.request.WorkShiftAssignmentListRequest;
 import com.attendance.fpt.model.request.WorkShiftAssignmentRequest;
 import com.attendance.fpt.model.response.WorkShiftAssignmentResponse;
+import com.attendance.fpt.model.response.WorkShiftAssignmentResultResponse;
 
 import java.util.List;
 
@@ -10,6 +11,8 @@ public interface WorkShiftAssignmentService {
     List<WorkShiftAssignmentResponse> getAllAssignments( Long employeeId, Long workShiftId, Long month, Long year, Long departmentId);
     List<WorkShiftAssignmentResponse> addListAssignments(WorkShiftAssignmentListRequest request);
 
+    List<WorkShiftAssignmentResultResponse> addBulkAssignments(WorkShiftAssignmentListRequest request);
+
     void deleteAssignment(Long employeeId, Long workShiftAssignmentId);
 
 } 
\ No newline at end of file
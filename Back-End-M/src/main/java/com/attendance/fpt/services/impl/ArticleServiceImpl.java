@@ -10,6 +10,7 @@ import com.attendance.fpt.model.response.ArticleResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.repositories.ArticleRepository;
 import com.attendance.fpt.services.ArticleService;
+import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.utils.SecurityUtil;
 import com.attendance.fpt.utils.StringUtil;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +33,7 @@ import java.util.stream.Collectors;
 public class ArticleServiceImpl implements ArticleService {
     private final ArticleRepository articleRepository;
     private final SecurityUtil securityUtil;
+    private final NotificationService notificationService;
 
     @Override
     public ArticleResponse createArticle(ArticleRequest articleRequest) {
@@ -50,7 +52,11 @@ public class ArticleServiceImpl implements ArticleService {
                 .employee(employee)
                 .build();
 
-        return ArticleConverter.convertEntityToResponse(articleRepository.save(article));
+        article = articleRepository.save(article);
+        if (Boolean.TRUE.equals(article.getIsActive())) {
+            notifyPublished(article);
+        }
+        return ArticleConverter.convertEntityToResponse(article);
     }
 
     @Override
@@ -95,10 +101,19 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional
     public void updateArticleStatus(Long id, Boolean isActive) {
         Article article = findById(id);
+        boolean published = !Boolean.TRUE.equals(article.getIsActive()) && Boolean.TRUE.equals(isActive);
         article.setIsActive(isActive);
         articleRepository.save(article);
+        if (published) {
+            notifyPublished(article);
+        }
+    }
+
+    private void notifyPublished(Article article) {
+        notificationService.sendNotificationsToAllStaff("Có bài viết mới: {0}", article.getTitle());
     }
 
     private Article findById(Long id){
@@ -0,0 +1,141 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+import com.attendance.fpt.repositories.AttendanceDailyRollupRepository;
+import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+@Slf4j(topic = "ATTENDANCE-ROLLUP")
+public class AttendanceRollupServiceImpl implements AttendanceRollupService {
+
+    private final AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+    private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.statistics.rollup.reconcile-days:7}")
+    private int reconcileDays;
+
+    @Value("${app.statistics.rollup.max-attempts:3}")
+    private int maxAttempts;
+
+    public AttendanceRollupServiceImpl(AttendanceDailyRollupRepository attendanceDailyRollupRepository,
+                                       WorkShiftAssignmentRepository workShiftAssignmentRepository,
+                                       PlatformTransactionManager transactionManager) {
+        this.attendanceDailyRollupRepository = attendanceDailyRollupRepository;
+        this.workShiftAssignmentRepository = workShiftAssignmentRepository;
+        // Tính lại sau khi transaction nghiệp vụ đã commit nên luôn mở transaction mới
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Ghi nhận (nhân viên, ngày) cần tính lại; các khoá được gom lại và tính một lần sau khi transaction
+    // nghiệp vụ commit, trong transaction riêng có thử lại, nên lỗi khi tính tổng hợp (deadlock, hết thời gian chờ khoá)
+    // không bao giờ làm rollback thao tác chấm công; sai lệch còn sót được job đối soát sửa lại
+    @Override
+    public void refresh(Long employeeId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recompute(Map.of(employeeId, Set.of(date)));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Long, Set<LocalDate>> pending = (Map<Long, Set<LocalDate>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Set<LocalDate>> keys = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recompute(keys);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AttendanceRollupServiceImpl.this);
+                }
+            });
+            pending = keys;
+        }
+        pending.computeIfAbsent(employeeId, id -> new TreeSet<>()).add(date);
+    }
+
+    @Override
+    public void refresh(WorkShiftAssignment workShiftAssignment) {
+        refresh(workShiftAssignment.getEmployee().getId(), workShiftAssignment.getDateAssign());
+    }
+
+    // Tính lại toàn bộ các ngày trong khoảng [fromDate, toDate), mỗi ngày một transaction để không giữ khoá lâu
+    @Override
+    public void reconcile(LocalDate fromDate, LocalDate toDate) {
+        for (LocalDate date = fromDate; date.isBefore(toDate); date = date.plusDays(1)) {
+            LocalDate day = date;
+            transactionTemplate.executeWithoutResult(status -> {
+                attendanceDailyRollupRepository.upsertByDateAssignRange(day, day.plusDays(1));
+                attendanceDailyRollupRepository.deleteOrphansByDateAssignRange(day, day.plusDays(1));
+            });
+        }
+    }
+
+    // Đối soát các ngày gần đây để sửa những thay đổi không đi qua service (sửa tay trong database, đổi phòng ban...)
+    @Override
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        reconcile(today.minusDays(reconcileDays), today.plusDays(1));
+        log.info("Reconciled attendance rollups for the last {} days", reconcileDays);
+    }
+
+    // Lần đầu triển khai bảng tổng hợp còn trống thì dựng lại từ toàn bộ lịch sử phân ca
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (attendanceDailyRollupRepository.count() > 0) {
+            return;
+        }
+        LocalDate first = workShiftAssignmentRepository.findFirstDateAssign();
+        LocalDate last = workShiftAssignmentRepository.findLastDateAssign();
+        if (first == null || last == null) {
+            return;
+        }
+        reconcile(first, last.plusDays(1));
+        log.info("Backfilled attendance rollups from {} to {}", first, last);
+    }
+
+    private void recompute(Map<Long, Set<LocalDate>> keys) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> keys.forEach((employeeId, dates) -> {
+                    attendanceDailyRollupRepository.upsertByEmployeeAndDates(employeeId, dates);
+                    attendanceDailyRollupRepository.deleteOrphansByEmployeeAndDates(employeeId, dates);
+                }));
+                return;
+            } catch (TransientDataAccessException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Failed to recompute attendance rollups for {} after {} attempts", keys, attempt, e);
+                    return;
+                }
+                log.warn("Retrying attendance rollup recompute for {} (attempt {}): {}", keys, attempt, e.getMessage());
+            } catch (RuntimeException e) {
+                log.error("Failed to recompute attendance rollups for {}", keys, e);
+                return;
+            }
+        }
+    }
+}
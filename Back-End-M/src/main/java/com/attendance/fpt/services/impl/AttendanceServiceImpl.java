@@ -1,5 +1,12 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.AttendanceListingCountCache;
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
+import com.attendance.fpt.cache.LocationGrid;
+import com.attendance.fpt.cache.LocationIndex;
+import com.attendance.fpt.cache.ShiftAssignmentIndex;
 import com.attendance.fpt.converter.AttendanceWorkShiftConverter;
 import com.attendance.fpt.entity.*;
 import com.attendance.fpt.enums.AttendanceStatus;
@@ -9,15 +16,21 @@ import com.attendance.fpt.model.request.AttendanceUpdateRequest;
 import com.attendance.fpt.model.request.CheckInRequest;
 import com.attendance.fpt.model.request.CheckOutRequest;
 import com.attendance.fpt.model.response.AttendanceWorkShiftResponse;
+import com.attendance.fpt.model.response.ResponseWithCursor;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.repositories.AttendanceRepository;
 import com.attendance.fpt.repositories.EmployeeRepository;
 import com.attendance.fpt.repositories.LocationRepository;
 import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.AttendanceService;
 import com.attendance.fpt.services.UploadService;
+import com.attendance.fpt.utils.AttendanceCursor;
+import com.attendance.fpt.utils.DateUtil;
+import com.attendance.fpt.utils.GeoUtil;
 import com.attendance.fpt.utils.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +44,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -42,6 +56,12 @@ public class AttendanceServiceImpl implements AttendanceService {
     private final LocationRepository locationRepository;
     private final SecurityUtil securityUtil;
     private final UploadService uploadService;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceListingCountCache attendanceListingCountCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final ShiftAssignmentIndex shiftAssignmentIndex;
+    private final LocationIndex locationIndex;
+    private final EmployeeSearchIndex employeeSearchIndex;
 
     @Override
     public List<AttendanceWorkShiftResponse> getAttendanceAndShiftAssignmentByEmployee(Long month, Long year) {
@@ -56,26 +76,17 @@ public class AttendanceServiceImpl implements AttendanceService {
             throw new IllegalArgumentException("Invalid input parameters");
         }
 
-        List<WorkShiftAssignment> workShiftAssignments =
-                workShiftAssignmentRepository.findAllByEmployeeAndMonthAndYear(employee.getId(), month, year);
-        List<Attendance> attendances = attendanceRepository.findAllByEmployeeAndMonthAndYear(employee.getId(), month, year);
-
-        if (workShiftAssignments.isEmpty() && attendances.isEmpty()) {
-            return List.of();
-        }
-
-        return workShiftAssignments.stream()
-                .map(assignment -> {
-                    Attendance attendance = attendances.stream()
-                            .filter(a -> a.getWorkShiftAssignment().getId().equals(assignment.getId()))
-                            .findFirst()
-                            .orElse(null);
-
-                    if (attendance == null) return AttendanceWorkShiftConverter.toResponseNoHaveAttendance(assignment);
-                    return AttendanceWorkShiftConverter.toResponseHaveAttendance(assignment, attendance);
-                })
-                .toList();
-
+        LocalDate fromDate = DateUtil.firstDayOfMonth(month, year);
+        LocalDate toDate = DateUtil.firstDayOfNextMonth(month, year);
+
+        return attendanceCalendarCache.get(employee.getId(), fromDate, () ->
+                // Phân công, ca, chấm công và địa điểm được lấy trong cùng một câu truy vấn
+                workShiftAssignmentRepository.findAllByEmployeeAndDateAssignRange(employee.getId(), fromDate, toDate)
+                        .stream()
+                        .map(assignment -> assignment.getAttendance() == null
+                                ? AttendanceWorkShiftConverter.toResponseNoHaveAttendance(assignment)
+                                : AttendanceWorkShiftConverter.toResponseHaveAttendance(assignment, assignment.getAttendance()))
+                        .toList());
     }
 
     @Transactional
@@ -83,35 +94,18 @@ public class AttendanceServiceImpl implements AttendanceService {
     public AttendanceWorkShiftResponse checkIn(CheckInRequest request) {
         Employee employee = securityUtil.getCurrentUser();
 
-        Location location = locationRepository.findById(request.getLocationId())
-                .orElseThrow(() -> new RuntimeException("Location not found"));
-
-        // Kiểm tra vị trí
-        if (location.getLatitude() != null && location.getLongitude() != null) {
-            double distance = calculateDistance(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    location.getLatitude(),
-                    location.getLongitude()
-            );
-
-            if (distance > location.getRadius()) {
-                throw new RuntimeException(
-                        String.format("Bạn đang ở cách địa điểm %s khoảng %.0fm, vượt quá bán kính cho phép (%dm)",
-                                location.getName(),
-                                distance,
-                                location.getRadius()
-                        )
-                );
-            }
-        }
+        Location location = resolveCheckInLocation(request);
 
         LocalDateTime now = LocalDateTime.now();
         LocalTime currentTime = now.toLocalTime();
 
-        // Tìm ca làm việc hiện tại của nhân viên
-        WorkShiftAssignment currentShift = workShiftAssignmentRepository
-                .findCurrentShiftAssignment(employee.getId(), now.toLocalDate(), currentTime)
+        // Tìm ca làm việc hiện tại của nhân viên: tra chỉ mục trong bộ nhớ rồi lấy theo khoá chính,
+        // không thấy thì truy vấn lại database
+        WorkShiftAssignment currentShift = shiftAssignmentIndex
+                .findCurrentAssignmentId(employee.getId(), now.toLocalDate(), currentTime)
+                .flatMap(workShiftAssignmentRepository::findById)
+                .or(() -> workShiftAssignmentRepository
+                        .findCurrentShiftAssignment(employee.getId(), now.toLocalDate(), currentTime))
                 .orElseThrow(() -> new ResourceNotFoundException("No active shift found"));
 
         if (currentShift.getAttendance() != null) {
@@ -147,7 +141,17 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .image(request.getFile())
                 .build();
 
-        return AttendanceWorkShiftConverter.toResponseHaveAttendance(attendance.getWorkShiftAssignment(), attendanceRepository.save(attendance));
+        // Hai request check-in đồng thời cùng vượt qua kiểm tra ở trên thì unique constraint sẽ chặn request sau
+        Attendance saved;
+        try {
+            saved = attendanceRepository.saveAndFlush(attendance);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConflictException("Bạn đã chấm công vào ca làm việc này rồi");
+        }
+
+        attendanceCalendarCache.evict(currentShift);
+        attendanceRollupService.refresh(currentShift);
+        return AttendanceWorkShiftConverter.toResponseHaveAttendance(attendance.getWorkShiftAssignment(), saved);
     }
 
     @Transactional
@@ -168,6 +172,8 @@ public class AttendanceServiceImpl implements AttendanceService {
         double totalHours = calculateTotalHours(attendance.getCheckInTime(), now);
         attendance.setTotalHours(totalHours);
 
+        attendanceCalendarCache.evict(attendance.getWorkShiftAssignment());
+        attendanceRollupService.refresh(attendance.getWorkShiftAssignment());
         return AttendanceWorkShiftConverter.toResponseHaveAttendance(attendance.getWorkShiftAssignment(), attendanceRepository.save(attendance));
     }
 
@@ -182,19 +188,14 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .and(Sort.by("workShift.endTime").descending());
 
         Pageable pageable = PageRequest.of(page - 1, limit, sort);
-        Page<WorkShiftAssignment> wsa;
-        if (status != null && status.equals("ABSENT")){
-             wsa = workShiftAssignmentRepository.getAllWorkShiftAttendanceByFilterAndAbsent(
-                    employeeName,
-                    date,
-                    pageable);
-        } else {
-            wsa = workShiftAssignmentRepository.getAllWorkShiftAttendanceByFilter(
-                    employeeName,
-                    date,
-                    status != null ? AttendanceStatus.valueOf(status.toUpperCase()) : null,
-                    pageable);
-        }
+        // Vắng mặt đã được job đóng ca ghi thành bản ghi ABSENT nên lọc bằng điều kiện bằng trên trạng thái như các loại khác
+        EmployeeSearchIndex.Filter employees = matchEmployees(employeeName);
+        Page<WorkShiftAssignment> wsa = workShiftAssignmentRepository.getAllWorkShiftAttendanceByFilter(
+                employees.ids(),
+                employees.keyword(),
+                date,
+                status != null ? AttendanceStatus.valueOf(status.toUpperCase()) : null,
+                pageable);
 
 
         List<AttendanceWorkShiftResponse> rs = new ArrayList<>();
@@ -218,6 +219,65 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .build();
     }
 
+    private static final int MAX_SCROLL_LIMIT = 100;
+
+    // Phân trang theo khoá: mỗi trang chỉ đọc limit + 1 dòng kể từ con trỏ và không chạy COUNT,
+    // nên trang thứ 5000 tốn như trang đầu
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseWithCursor<List<AttendanceWorkShiftResponse>> scrollAttendances(String employeeName,
+                                                                                   LocalDate date,
+                                                                                   String status,
+                                                                                   String cursor,
+                                                                                   int limit,
+                                                                                   boolean includeTotal) {
+        if (limit < 1 || limit > MAX_SCROLL_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SCROLL_LIMIT);
+        }
+        AttendanceStatus attendanceStatus = status != null ? AttendanceStatus.valueOf(status.toUpperCase()) : null;
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        EmployeeSearchIndex.Filter employees = matchEmployees(employeeName);
+
+        List<WorkShiftAssignment> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = workShiftAssignmentRepository.findAttendanceListingFirst(employees.ids(), employees.keyword(), date, attendanceStatus, pageable);
+        } else {
+            AttendanceCursor after = AttendanceCursor.decode(cursor);
+            rows = workShiftAssignmentRepository.findAttendanceListingAfter(employees.ids(), employees.keyword(), date, attendanceStatus,
+                    after.dateAssign(), after.endTime(), after.id(), pageable);
+        }
+
+        boolean hasNext = rows.size() > limit;
+        List<WorkShiftAssignment> page = hasNext ? rows.subList(0, limit) : rows;
+        List<AttendanceWorkShiftResponse> data = page.stream()
+                .map(workShiftAssignment -> workShiftAssignment.getAttendance() == null
+                        ? AttendanceWorkShiftConverter.toResponseNoHaveAttendance(workShiftAssignment)
+                        : AttendanceWorkShiftConverter.toResponseHaveAttendance(workShiftAssignment, workShiftAssignment.getAttendance()))
+                .toList();
+
+        return ResponseWithCursor.<List<AttendanceWorkShiftResponse>>builder()
+                .data(data)
+                .limit(limit)
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? AttendanceCursor.of(page.get(page.size() - 1)).encode() : null)
+                .totalItem(includeTotal ? countAttendances(employeeName, date, status) : null)
+                .build();
+    }
+
+    @Override
+    public long countAttendances(String employeeName, LocalDate date, String status) {
+        AttendanceStatus attendanceStatus = status != null ? AttendanceStatus.valueOf(status.toUpperCase()) : null;
+        return attendanceListingCountCache.get(employeeName, date, attendanceStatus, () -> {
+            EmployeeSearchIndex.Filter employees = matchEmployees(employeeName);
+            return workShiftAssignmentRepository.countAttendanceListing(employees.ids(), employees.keyword(), date, attendanceStatus);
+        });
+    }
+
+    // Danh sách chấm công lọc theo tên hoặc email nhân viên
+    private EmployeeSearchIndex.Filter matchEmployees(String employeeName) {
+        return employeeSearchIndex.match(employeeName, EmployeeTrigramIndex.Field.NAME, EmployeeTrigramIndex.Field.EMAIL);
+    }
+
     @Override
     public List<AttendanceWorkShiftResponse> getRecentCheckers() {
         List<Attendance> recentAttendances = attendanceRepository.findRecentCheckers();
@@ -312,6 +372,8 @@ public class AttendanceServiceImpl implements AttendanceService {
                 .orElseThrow(() -> new ResourceNotFoundException("Location not found"));
         attendance.setLocation(location);
 
+        attendanceCalendarCache.evict(workShiftAssignment);
+        attendanceRollupService.refresh(workShiftAssignment);
         return AttendanceWorkShiftConverter.toResponseHaveAttendance(attendance.getWorkShiftAssignment(), attendanceRepository.save(attendance));
     }
 
@@ -331,17 +393,44 @@ public class AttendanceServiceImpl implements AttendanceService {
         return java.time.Duration.between(checkIn, checkOut).toMinutes() / 60.0;
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
+    // Không truyền locationId thì tự tìm địa điểm gần nhất có vùng geofence chứa toạ độ của nhân viên
+    private Location resolveCheckInLocation(CheckInRequest request) {
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required for check-in");
+        }
+
+        if (request.getLocationId() == null) {
+            LocationGrid.Match match = locationIndex.findNearestContaining(request.getLatitude(), request.getLongitude())
+                    .orElseThrow(() -> new IllegalArgumentException("Bạn không ở trong phạm vi của địa điểm chấm công nào"));
+            return locationRepository.getReferenceById(match.location().id());
+        }
 
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        Optional<LocationGrid.Entry> cached = locationIndex.get(request.getLocationId());
+        if (cached.isPresent()) {
+            LocationGrid.Entry entry = cached.get();
+            checkInsideGeofence(request, entry.name(), entry.latitude(), entry.longitude(), entry.radius());
+            return locationRepository.getReferenceById(entry.id());
+        }
+
+        Location location = locationRepository.findById(request.getLocationId())
+                .orElseThrow(() -> new RuntimeException("Location not found"));
+        if (location.getLatitude() != null && location.getLongitude() != null) {
+            checkInsideGeofence(request, location.getName(), location.getLatitude(), location.getLongitude(), location.getRadius());
+        }
+        return location;
+    }
 
-        return R * c * 1000;
+    private void checkInsideGeofence(CheckInRequest request, String name, double latitude, double longitude, long radius) {
+        double distance = GeoUtil.distanceMeters(request.getLatitude(), request.getLongitude(), latitude, longitude);
+        if (distance > radius) {
+            throw new RuntimeException(
+                    String.format("Bạn đang ở cách địa điểm %s khoảng %.0fm, vượt quá bán kính cho phép (%dm)",
+                            name,
+                            distance,
+                            radius
+                    )
+            );
+        }
     }
 
 }
@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.PrincipalCache;
 import com.attendance.fpt.config.jwt.JwtUtil;
 import com.attendance.fpt.converter.EmployeeConverter;
 import com.attendance.fpt.converter.LoginResponseConverter;
@@ -34,6 +35,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final JwtUtil jwtUtil;
     private final SecurityUtil securityUtil;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     @Override
     public LoginResponse login(LoginRequest loginRequest) {
@@ -90,6 +92,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         String passwordEncode = passwordEncoder.encode(changePasswordRequest.getNewPassword());
         account.setPassword(passwordEncode);
         accountRepository.save(account);
+        principalCache.evict(account.getUsername());
     }
 
     @Override
@@ -110,6 +113,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         account.setPassword(passwordEncode);
         account.setFirstLogin(false);
         accountRepository.save(account);
+        principalCache.evict(account.getUsername());
         return EmployeeConverter.toResponse(employee);
     }
 
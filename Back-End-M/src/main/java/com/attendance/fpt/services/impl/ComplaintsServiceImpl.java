@@ -1,5 +1,7 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
 import com.attendance.fpt.converter.ComplaintsConverter;
 import com.attendance.fpt.entity.Complaint;
 import com.attendance.fpt.entity.Employee;
@@ -35,6 +37,7 @@ public class ComplaintsServiceImpl implements ComplaintsService {
     private final ComplaintsRepository complaintsRepository;
     private final SecurityUtil securityUtil;
     private final NotificationService notificationService;
+    private final EmployeeSearchIndex employeeSearchIndex;
 
     @Override
     @Transactional
@@ -104,8 +107,10 @@ public class ComplaintsServiceImpl implements ComplaintsService {
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
 
 
+        EmployeeSearchIndex.Filter employees = employeeSearchIndex.match(employeeName, EmployeeTrigramIndex.Field.NAME);
         Page<Complaint> complaints = complaintsRepository.findAllWithFilters(
-                employeeName,
+                employees.ids(),
+                employees.keyword(),
                 createdDate,
                 date,
                 departmentId,
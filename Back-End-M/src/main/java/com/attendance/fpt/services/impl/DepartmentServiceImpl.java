@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.EmployeeSearchIndex;
 import com.attendance.fpt.entity.Department;
 import com.attendance.fpt.exceptions.custom.ConflictException;
 import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
@@ -18,6 +19,7 @@ import java.util.List;
 public class DepartmentServiceImpl implements DepartmentService {
 
      private final DepartmentRepository departmentRepository;
+     private final EmployeeSearchIndex employeeSearchIndex;
 
     @Override
     @Transactional
@@ -53,6 +55,8 @@ public class DepartmentServiceImpl implements DepartmentService {
         department.setName(departmentRequest.getName());
 
         departmentRepository.save(department);
+        // Tên phòng ban nằm trong chỉ mục tìm kiếm nhân viên
+        employeeSearchIndex.reload();
         return new DepartmentResponse(department.getId(), department.getName());
     }
 
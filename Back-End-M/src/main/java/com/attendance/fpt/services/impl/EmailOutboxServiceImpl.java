@@ -0,0 +1,280 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.entity.EmailOutbox;
+import com.attendance.fpt.enums.EmailCategory;
+import com.attendance.fpt.enums.EmailOutboxStatus;
+import com.attendance.fpt.repositories.EmailOutboxRepository;
+import com.attendance.fpt.services.EmailOutboxService;
+import com.attendance.fpt.utils.TransactionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Service
+@Slf4j(topic = "EMAIL-OUTBOX")
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final String CATEGORY_TAG = "category";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final TaskExecutor mailExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final Map<EmailCategory, Counter> sentCounters;
+    private final Map<EmailCategory, Counter> retriedCounters;
+    private final Map<EmailCategory, Counter> failedCounters;
+    private final Map<EmailCategory, Timer> latencyTimers;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.batch-interval-ms:1000}")
+    private long batchIntervalMs;
+
+    @Value("${app.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.mail.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    public EmailOutboxServiceImpl(EmailOutboxRepository emailOutboxRepository,
+                                  JavaMailSender mailSender,
+                                  @Qualifier("mailExecutor") TaskExecutor mailExecutor,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.mailExecutor = mailExecutor;
+        // Worker có thể được gọi từ afterCommit của transaction nghiệp vụ nên luôn mở transaction mới
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Gắn tag category để tách được số liệu của từng luồng, ví dụ độ trễ nhắc ca với email OTP
+        this.sentCounters = perCategory(category -> meterRegistry.counter("mail.outbox.sent", CATEGORY_TAG, category.name()));
+        this.retriedCounters = perCategory(category -> meterRegistry.counter("mail.outbox.retried", CATEGORY_TAG, category.name()));
+        this.failedCounters = perCategory(category -> meterRegistry.counter("mail.outbox.failed", CATEGORY_TAG, category.name()));
+        this.latencyTimers = perCategory(category -> meterRegistry.timer("mail.outbox.latency", CATEGORY_TAG, category.name()));
+        meterRegistry.gauge("mail.outbox.pending", pendingCount);
+        meterRegistry.gauge("mail.outbox.active.workers", activeWorkers);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(EmailCategory category, String to, String subject, String html) {
+        enqueueAll(category, List.of(to), subject, html);
+    }
+
+    // Email được ghi vào outbox trong cùng transaction nghiệp vụ, rollback thì email cũng không được gửi
+    @Override
+    @Transactional
+    public void enqueueAll(EmailCategory category, List<String> recipients, String subject, String html) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        List<EmailOutbox> rows = new ArrayList<>(recipients.size());
+        for (String to : recipients) {
+            rows.add(EmailOutbox.builder()
+                    .recipient(to)
+                    .category(category)
+                    .subject(subject)
+                    .body(html)
+                    .build());
+        }
+        emailOutboxRepository.saveAll(rows);
+        TransactionUtil.afterCommit(this::dispatchPending);
+    }
+
+    // Khởi động worker còn thiếu, mỗi worker gửi liên tục cho đến khi outbox hết email đến hạn
+    @Override
+    public void dispatchPending() {
+        for (int i = 0; i < workers; i++) {
+            int active = activeWorkers.get();
+            if (active >= workers || !activeWorkers.compareAndSet(active, active + 1)) {
+                return;
+            }
+            try {
+                mailExecutor.execute(this::drainLoop);
+            } catch (TaskRejectedException e) {
+                activeWorkers.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (drainBatch() >= batchSize) {
+                // Giới hạn tốc độ gửi giữa các lô để không vượt quá hạn mức của SMTP server
+                Thread.sleep(batchIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Lỗi khi xử lý outbox email: {}", e.getMessage());
+        } finally {
+            activeWorkers.decrementAndGet();
+            pendingCount.set(emailOutboxRepository.countByStatus(EmailOutboxStatus.PENDING));
+        }
+    }
+
+    @Override
+    public int drainBatch() {
+        List<EmailOutbox> batch = claimBatch();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, String> errors = send(batch);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (EmailOutbox row : batch) {
+            if (!errors.containsKey(row.getId())) {
+                sentIds.add(row.getId());
+                latencyTimers.get(categoryOf(row)).record(Duration.between(row.getCreatedAt(), now));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                emailOutboxRepository.markSent(sentIds, EmailOutboxStatus.SENT, now);
+            }
+            for (EmailOutbox row : batch) {
+                if (errors.containsKey(row.getId())) {
+                    scheduleRetry(row, errors.get(row.getId()), now);
+                }
+            }
+        });
+        for (EmailOutbox row : batch) {
+            if (!errors.containsKey(row.getId())) {
+                sentCounters.get(categoryOf(row)).increment();
+            }
+        }
+        return batch.size();
+    }
+
+    // Lấy lô email đến hạn và đẩy nextAttemptAt ra sau một khoảng lease; nếu worker chết giữa chừng
+    // thì hết lease email sẽ được worker khác gửi lại
+    private List<EmailOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> batch = emailOutboxRepository.findDueForUpdate(
+                    EmailOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+            batch.forEach(row -> row.setNextAttemptAt(leaseUntil));
+            return batch;
+        });
+    }
+
+    // Gửi cả lô qua một kết nối SMTP, trả về lỗi theo id của email gửi thất bại
+    private Map<Long, String> send(List<EmailOutbox> batch) {
+        Map<Long, String> errors = new HashMap<>();
+        Map<MimeMessage, Long> idByMessage = new HashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (EmailOutbox row : batch) {
+            try {
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, EmailServiceImpl.UTF_8_ENCODING);
+                helper.setPriority(1);
+                helper.setSubject(row.getSubject());
+                helper.setFrom(fromEmail);
+                helper.setTo(row.getRecipient());
+                helper.setText(row.getBody(), true);
+                messages.add(mimeMessage);
+                idByMessage.put(mimeMessage, row.getId());
+            } catch (MessagingException exception) {
+                errors.put(row.getId(), "Không thể tạo email: " + exception.getMessage());
+            }
+        }
+
+        if (messages.isEmpty()) {
+            return errors;
+        }
+
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+        } catch (MailSendException exception) {
+            if (exception.getFailedMessages().isEmpty()) {
+                idByMessage.values().forEach(id -> errors.put(id, exception.getMessage()));
+            } else {
+                exception.getFailedMessages().forEach((message, cause) ->
+                        errors.put(idByMessage.get(message), cause.getMessage()));
+            }
+        } catch (MailException exception) {
+            idByMessage.values().forEach(id -> errors.put(id, exception.getMessage()));
+        }
+        if (!errors.isEmpty()) {
+            log.error("Gửi lỗi {}/{} email trong lô", errors.size(), batch.size());
+        }
+        return errors;
+    }
+
+    // Thử lại theo cấp số nhân: base, 2*base, 4*base... tối đa backoffMaxSeconds; quá maxAttempts thì dừng hẳn
+    private void scheduleRetry(EmailOutbox row, String error, LocalDateTime now) {
+        int attempts = row.getAttempts() + 1;
+        String lastError = error == null ? null : error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH));
+        if (attempts >= maxAttempts) {
+            emailOutboxRepository.markAttemptFailed(row.getId(), EmailOutboxStatus.FAILED, attempts, now, lastError);
+            failedCounters.get(categoryOf(row)).increment();
+            log.error("Email {} đến {} bị hủy sau {} lần thử: {}", row.getId(), row.getRecipient(), attempts, lastError);
+            return;
+        }
+        long delay = Math.min(backoffBaseSeconds << Math.min(attempts - 1, 30), backoffMaxSeconds);
+        emailOutboxRepository.markAttemptFailed(row.getId(), EmailOutboxStatus.PENDING, attempts, now.plusSeconds(delay), lastError);
+        retriedCounters.get(categoryOf(row)).increment();
+    }
+
+    private static EmailCategory categoryOf(EmailOutbox row) {
+        return row.getCategory() != null ? row.getCategory() : EmailCategory.GENERAL;
+    }
+
+    private static <M> Map<EmailCategory, M> perCategory(Function<EmailCategory, M> factory) {
+        Map<EmailCategory, M> meters = new EnumMap<>(EmailCategory.class);
+        for (EmailCategory category : EmailCategory.values()) {
+            meters.put(category, factory.apply(category));
+        }
+        return meters;
+    }
+}
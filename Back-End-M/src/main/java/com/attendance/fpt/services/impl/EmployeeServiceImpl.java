@@ -1,5 +1,8 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
+import com.attendance.fpt.cache.PrincipalCache;
 import com.attendance.fpt.converter.EmployeeConverter;
 import com.attendance.fpt.entity.Account;
 import com.attendance.fpt.entity.Department;
@@ -29,6 +32,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,6 +46,8 @@ public class EmployeeServiceImpl implements EmployeeService {
     private final SecurityUtil securityUtil;
     private final PasswordEncoder passwordEncoder;
     private final UploadService uploadService;
+    private final PrincipalCache principalCache;
+    private final EmployeeSearchIndex employeeSearchIndex;
 
     @Override
     @Transactional
@@ -99,6 +105,7 @@ public class EmployeeServiceImpl implements EmployeeService {
 
         employee.setAccount(account);
         employee.setLeaveBalance(leaveBalances);
+        employeeSearchIndex.reload();
         return EmployeeConverter.toResponse(employee);
     }
 
@@ -130,11 +137,16 @@ public class EmployeeServiceImpl implements EmployeeService {
         employee.setActive(employeeAddRequest.isActive());
 
         Account account = employee.getAccount();
+        String oldUsername = account.getUsername();
         account.setUsername(employeeAddRequest.getEmail());
         account.setRole(Role.valueOf(employeeAddRequest.getRole()));
 
         accountRepository.save(account);
         employeeRepository.save(employee);
+        // Username, quyền hoặc trạng thái hoạt động có thể đã thay đổi
+        principalCache.evict(oldUsername);
+        principalCache.evict(account.getUsername());
+        employeeSearchIndex.reload();
         return EmployeeConverter.toResponse(employee);
     }
 
@@ -149,7 +161,9 @@ public class EmployeeServiceImpl implements EmployeeService {
         employee.setAddress(employeeProfileRequest.getAddress());
         employee.setDob(employeeProfileRequest.getDob());
 
-        return EmployeeConverter.toResponse(employeeRepository.save(employee));
+        employee = employeeRepository.save(employee);
+        employeeSearchIndex.reload();
+        return EmployeeConverter.toResponse(employee);
     }
 
     @Override
@@ -175,8 +189,15 @@ public class EmployeeServiceImpl implements EmployeeService {
             String departmentName
     ) {
         Pageable pageable = PageRequest.of(page - 1, limit);
+        // Mỗi ô lọc khớp trên đúng trường của nó, nhân viên phải thoả mọi ô đã nhập;
+        // ô nào khớp quá nhiều nhân viên thì lọc bằng LIKE thay cho danh sách id
+        EmployeeSearchIndex.Filter byName = employeeSearchIndex.match(name, EmployeeTrigramIndex.Field.NAME);
+        EmployeeSearchIndex.Filter byEmail = employeeSearchIndex.match(email, EmployeeTrigramIndex.Field.EMAIL);
+        EmployeeSearchIndex.Filter byPhone = employeeSearchIndex.match(phone, EmployeeTrigramIndex.Field.PHONE);
+        Set<Long> employeeIds = intersect(byName.ids(), intersect(byEmail.ids(), byPhone.ids()));
         Page<Employee> employeePage = employeeRepository.findAllWithFilters(
-                name, email, phone, role != null ? Role.valueOf(role) : null, status, departmentName, pageable
+                employeeIds, byName.keyword(), byEmail.keyword(), byPhone.keyword(),
+                role != null ? Role.valueOf(role) : null, status, departmentName, pageable
         );
 
         List<EmployeeResponse> employeeResponses = employeePage.getContent().stream()
@@ -192,6 +213,16 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .build();
     }
 
+    private static Set<Long> intersect(Set<Long> first, Set<Long> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second != null) {
+            first.retainAll(second);
+        }
+        return first;
+    }
+
     @Override
     public EmployeeResponse getProfile() {
         Employee employee = securityUtil.getCurrentUser();
@@ -1,5 +1,7 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
 import com.attendance.fpt.converter.ComplaintsConverter;
 import com.attendance.fpt.converter.LeaveBalanceConverter;
 import com.attendance.fpt.entity.Attendance;
@@ -24,6 +26,7 @@ import java.util.List;
 public class LeaveBalanceServiceImpl implements LeaveBalanceService {
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final SecurityUtil securityUtil;
+    private final EmployeeSearchIndex employeeSearchIndex;
     @Override
     public List<LeaveBalanceResponse> getLeaveBalanceByEmployee() {
         Employee employee = securityUtil.getCurrentUser();
@@ -46,7 +49,9 @@ public class LeaveBalanceServiceImpl implements LeaveBalanceService {
                 .and(Sort.by("lb.employee.email").ascending())
                 .and(Sort.by("lb.leaveType.name").ascending());
         Pageable pageable = PageRequest.of(page - 1, limit, sort);
-        Page<LeaveBalance> leaveBalances = leaveBalanceRepository.getAllLeaveBalanceByFilter( employeeName, year,
+        EmployeeSearchIndex.Filter employees = employeeSearchIndex.match(employeeName, EmployeeTrigramIndex.Field.NAME);
+        Page<LeaveBalance> leaveBalances = leaveBalanceRepository.getAllLeaveBalanceByFilter(
+                employees.ids(), employees.keyword(), year,
                 departmentId,leaveBalanceType ,pageable);
 
 
@@ -1,33 +1,46 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.EmployeeTrigramIndex;
 import com.attendance.fpt.converter.LeaveRequestConverter;
 import com.attendance.fpt.entity.*;
-import com.attendance.fpt.enums.AttendanceStatus;
 import com.attendance.fpt.enums.LeaveRequestStatus;
 import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
 import com.attendance.fpt.model.request.LeaveRequestAddRequest;
+import com.attendance.fpt.model.request.LeaveRequestBulkApproveRequest;
 import com.attendance.fpt.model.request.LeaveRequestHandleRequest;
 import com.attendance.fpt.model.response.*;
 import com.attendance.fpt.repositories.*;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.EmailService;
 import com.attendance.fpt.services.LeaveRequestService;
 import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.utils.SecurityUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j(topic = "LEAVE-REQUEST-SERVICE")
 public class LeaveRequestServiceImpl implements LeaveRequestService {
 
     private final LeaveRequestRepository leaveRequestRepository;
@@ -39,6 +52,10 @@ public class LeaveRequestServiceImpl implements LeaveRequestService {
     private final SecurityUtil securityUtil;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EmployeeSearchIndex employeeSearchIndex;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     @Transactional
@@ -157,60 +174,97 @@ public class LeaveRequestServiceImpl implements LeaveRequestService {
         LeaveRequest leaveRequest = leaveRequestRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Leave request not found"));
 
+        approve(leaveRequest, employee, leaveRequestHandleRequest.getResponseNote());
+        notifyApproved(leaveRequest, leaveRequestHandleRequest.getResponseNote());
+    }
+
+    // Duyệt nhiều đơn, mỗi đơn cùng thông báo của nó trong một transaction riêng nên đơn lỗi (kể cả lỗi từ DB)
+    // chỉ rollback phần của nó, các đơn còn lại vẫn được duyệt. Không dùng savepoint trong một transaction chung vì
+    // lỗi ném qua repository đã đánh dấu cả transaction rollback-only
+    @Override
+    @Transactional(readOnly = true)
+    public List<LeaveRequestApprovalResultResponse> approveLeaveRequests(LeaveRequestBulkApproveRequest request) {
+        Employee employee = securityUtil.getCurrentUser();
+        TransactionTemplate itemTransaction = new TransactionTemplate(transactionManager);
+        itemTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<Long> ids = request.getIds().stream().distinct().toList();
+        Map<Long, LeaveRequest> leaveRequestById = leaveRequestRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(LeaveRequest::getId, Function.identity()));
+
+        List<LeaveRequestApprovalResultResponse> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            LeaveRequest leaveRequest = leaveRequestById.get(id);
+            if (leaveRequest == null) {
+                results.add(failed(id, "Leave request not found"));
+                continue;
+            }
+            int approvedDays;
+            try {
+                approvedDays = itemTransaction.execute(status -> {
+                    int days = approve(leaveRequest, employee, request.getResponseNote());
+                    notifyApproved(leaveRequest, request.getResponseNote());
+                    return days;
+                });
+            } catch (IllegalStateException | ResourceNotFoundException e) {
+                results.add(failed(id, e.getMessage()));
+                continue;
+            } catch (DataAccessException e) {
+                log.warn("Lỗi khi duyệt đơn nghỉ phép {}", id, e);
+                results.add(failed(id, "Could not approve leave request"));
+                continue;
+            }
+            results.add(LeaveRequestApprovalResultResponse.builder()
+                    .leaveRequestId(id)
+                    .success(true)
+                    .approvedDays(approvedDays)
+                    .message("Approved")
+                    .build());
+        }
+        return results;
+    }
+
+    // Duyệt đơn bằng các câu lệnh theo tập hợp: chuyển trạng thái có điều kiện, INSERT ... SELECT chấm công nghỉ phép
+    // cho toàn bộ phân ca và trừ phép bằng một câu UPDATE nguyên tử; trả về số ngày phép đã trừ
+    private int approve(LeaveRequest leaveRequest, Employee responseBy, String responseNote) {
         if (leaveRequest.getStatus() != LeaveRequestStatus.PENDING) {
             throw new IllegalStateException("Cannot approve a non-pending leave request");
         }
 
-        if ( leaveRequest.getStartDate().isBefore(LocalDate.now()) ){
-            throw  new IllegalStateException("Cannot approve leave request with date start before today");
+        if (leaveRequest.getStartDate().isBefore(LocalDate.now())) {
+            throw new IllegalStateException("Cannot approve leave request with date start before today");
         }
 
-        List<WorkShiftAssignment> wss = workShiftAssignmentRepository.findByEmployee_IdAndDateAssignBetweenAndWorkShift_IdAndAttendanceIsNull(
-                leaveRequest.getEmployee().getId(),
-                leaveRequest.getStartDate(),
-                leaveRequest.getEndDate(),
-                leaveRequest.getWorkShift().getId()
-        );
+        int updated = leaveRequestRepository.updateStatusIfCurrent(leaveRequest.getId(), LeaveRequestStatus.PENDING,
+                LeaveRequestStatus.APPROVED, LocalDateTime.now(), responseNote, responseBy);
+        if (updated == 0) {
+            throw new IllegalStateException("Cannot approve a non-pending leave request");
+        }
 
-        if (wss.isEmpty()) {
+        Long employeeId = leaveRequest.getEmployee().getId();
+        int totalDays = attendanceRepository.insertLeaveForRequest(leaveRequest.getId(), employeeId,
+                leaveRequest.getWorkShift().getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        if (totalDays == 0) {
             throw new ResourceNotFoundException("No work shift assignments found for the employee during the leave period");
         }
 
-
-        List<Attendance> attendanceRecords = wss.stream()
-                .map(assignment -> {
-                    Attendance attendance = new Attendance();
-                    attendance.setWorkShiftAssignment(assignment);
-                    attendance.setStatus(AttendanceStatus.LEAVE);
-                    attendance.setEmployee(leaveRequest.getEmployee());
-                    attendance.setLeaveRequest(leaveRequest);
-                    return attendance;
-                })
-                .collect(Collectors.toList());
-
-        attendanceRepository.saveAll(attendanceRecords);
-
-        int totalDays = wss.size();
-        LeaveBalance leaveBalance = leaveBalanceRepository.findByEmployee_IdAndLeaveType_IdAndYear(
-                leaveRequest.getEmployee().getId(),
-                leaveRequest.getLeaveType().getId(),
-                leaveRequest.getStartDate().getYear()
-        ).orElseThrow(() -> new ResourceNotFoundException("Leave balance not found"));
-
-        if (leaveBalance.getRemainingDay() - totalDays < 0) {
+        Long leaveTypeId = leaveRequest.getLeaveType().getId();
+        Integer year = leaveRequest.getStartDate().getYear();
+        if (leaveBalanceRepository.consume(employeeId, leaveTypeId, year, totalDays) == 0) {
+            if (!leaveBalanceRepository.existsByEmployee_IdAndLeaveType_IdAndYear(employeeId, leaveTypeId, year)) {
+                throw new ResourceNotFoundException("Leave balance not found");
+            }
             throw new IllegalStateException("Not enough leave balance for this request");
         }
 
-        leaveRequest.setStatus(LeaveRequestStatus.APPROVED);
-        leaveRequest.setResponseDate(LocalDateTime.now());
-        leaveRequest.setResponseNote(leaveRequestHandleRequest.getResponseNote());
-        leaveRequest.setResponseBy(employee);
-        leaveRequestRepository.save(leaveRequest);
-
-        leaveBalance.setUsedDay((leaveBalance.getUsedDay() + totalDays));
-        leaveBalance.setRemainingDay(leaveBalance.getRemainingDay() - totalDays);
-        leaveBalanceRepository.save(leaveBalance);
+        // Chỉ những ngày thực sự có phân ca mới cần làm mới lịch và số liệu tổng hợp
+        for (LocalDate date : attendanceRepository.findDateAssignsByLeaveRequestId(leaveRequest.getId())) {
+            attendanceCalendarCache.evict(employeeId, date);
+            attendanceRollupService.refresh(employeeId, date);
+        }
+        return totalDays;
+    }
 
+    private void notifyApproved(LeaveRequest leaveRequest, String responseNote) {
         notificationService.sendNotification(leaveRequest.getEmployee(),
                 "Đơn xin nghỉ phép của bạn ngày " + leaveRequest.getStartDate() + " đến " +
                         leaveRequest.getEndDate() + " đã được phê duyệt");
@@ -224,8 +278,8 @@ public class LeaveRequestServiceImpl implements LeaveRequestService {
                 + " - " + leaveRequest.getWorkShift().getEndTime()
                 + ".";
 
-        if (leaveRequestHandleRequest.getResponseNote() != null && !leaveRequestHandleRequest.getResponseNote().isBlank()) {
-            message += " Ghi chú từ quản lý: " + leaveRequestHandleRequest.getResponseNote();
+        if (responseNote != null && !responseNote.isBlank()) {
+            message += " Ghi chú từ quản lý: " + responseNote;
         }
 
         emailService.sendApprovalEmail(
@@ -233,7 +287,14 @@ public class LeaveRequestServiceImpl implements LeaveRequestService {
                 message,
                 true
         );
+    }
 
+    private static LeaveRequestApprovalResultResponse failed(Long id, String message) {
+        return LeaveRequestApprovalResultResponse.builder()
+                .leaveRequestId(id)
+                .success(false)
+                .message(message)
+                .build();
     }
 
     @Override
@@ -272,8 +333,9 @@ public class LeaveRequestServiceImpl implements LeaveRequestService {
             Long leaveTypeId,
             String status) {
         Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
+        EmployeeSearchIndex.Filter employees = employeeSearchIndex.match(employeeName, EmployeeTrigramIndex.Field.NAME);
         Page<LeaveRequest> leaveRequestPage = leaveRequestRepository.findAllWithFilters(
-                employeeName, createDate, departmentId, workShiftId,
+                employees.ids(), employees.keyword(), createDate, departmentId, workShiftId,
                 leaveTypeId, status != null ? LeaveRequestStatus.valueOf(status.toUpperCase()) : null, pageable);
 
         List<LeaveRequestResponse> leaveRequestResponses = leaveRequestPage.getContent().stream()
@@ -0,0 +1,17 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.services.NotificationBroker;
+import com.attendance.fpt.services.NotificationHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class LocalNotificationBroker implements NotificationBroker {
+    private final NotificationHub notificationHub;
+
+    @Override
+    public void publish(Event event) {
+        notificationHub.deliver(event);
+    }
+}
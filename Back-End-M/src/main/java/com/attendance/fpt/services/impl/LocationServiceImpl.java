@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.LocationIndex;
 import com.attendance.fpt.converter.LocationConverter;
 import com.attendance.fpt.entity.Location;
 import com.attendance.fpt.exceptions.custom.ConflictException;
@@ -19,6 +20,7 @@ import java.util.List;
 public class LocationServiceImpl implements LocationService {
 
      private final LocationRepository locationRepository;
+     private final LocationIndex locationIndex;
 
     @Override
     @Transactional
@@ -32,7 +34,9 @@ public class LocationServiceImpl implements LocationService {
                 .country(locationRequest.getCountry())
                 .active(locationRequest.isActive())
                 .build();
-        return LocationConverter.toResponse(locationRepository.save(location));
+        LocationResponse response = LocationConverter.toResponse(locationRepository.save(location));
+        locationIndex.reload();
+        return response;
     }
 
     @Override
@@ -75,7 +79,9 @@ public class LocationServiceImpl implements LocationService {
         location.setCountry(locationRequest.getCountry());
         location.setActive(locationRequest.isActive());
 
-        return LocationConverter.toResponse(locationRepository.save(location));
+        LocationResponse response = LocationConverter.toResponse(locationRepository.save(location));
+        locationIndex.reload();
+        return response;
     }
 
     @Override
@@ -88,6 +94,7 @@ public class LocationServiceImpl implements LocationService {
         }
 
         locationRepository.deleteById(id);
+        locationIndex.reload();
         return LocationConverter.toResponse(location);
     }
 }
\ No newline at end of file
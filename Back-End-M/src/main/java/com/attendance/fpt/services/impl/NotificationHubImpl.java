@@ -0,0 +1,268 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.repositories.NotificationCounterRepository;
+import com.attendance.fpt.services.NotificationBroker;
+import com.attendance.fpt.services.NotificationHub;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Giữ các kết nối SSE đang mở theo nhân viên và số thông báo chưa đọc của những nhân viên đang kết nối,
+ * để client nhận thông báo mới qua kết nối thay vì gọi API liên tục.
+ * Mỗi kết nối có hàng đợi giới hạn và được gửi tuần tự trên notificationExecutor; client đọc quá chậm
+ * làm đầy hàng đợi sẽ bị đóng kết nối để tự kết nối lại và lấy lại trạng thái.
+ */
+@Service
+@Slf4j(topic = "NOTIFICATION-HUB")
+public class NotificationHubImpl implements NotificationHub {
+    static final String NOTIFICATION_EVENT = "notification";
+    static final String UNREAD_COUNT_EVENT = "unread-count";
+    private static final Message HEARTBEAT = new Message(null, null);
+
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final TaskExecutor notificationExecutor;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final Counter overflowCounter;
+
+    @Value("${app.notification.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.notification.stream.buffer-size:32}")
+    private int bufferSize;
+
+    @Value("${app.notification.stream.max-connections-per-employee:5}")
+    private int maxConnectionsPerEmployee;
+
+    public NotificationHubImpl(NotificationCounterRepository notificationCounterRepository,
+                               @Qualifier("notificationExecutor") TaskExecutor notificationExecutor,
+                               MeterRegistry meterRegistry) {
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.notificationExecutor = notificationExecutor;
+        this.overflowCounter = meterRegistry.counter("notification.stream.overflow");
+        meterRegistry.gauge("notification.stream.connections", connectionCount);
+    }
+
+    @Override
+    public SseEmitter subscribe(Long employeeId) {
+        Connection connection = new Connection(employeeId, createEmitter());
+        connection.emitter.onCompletion(connection::close);
+        connection.emitter.onTimeout(connection::close);
+        connection.emitter.onError(error -> connection.close());
+
+        List<Connection> evicted = new ArrayList<>();
+        AtomicBoolean created = new AtomicBoolean();
+        Channel channel = channels.compute(employeeId, (id, existing) -> {
+            Channel current = existing;
+            if (current == null) {
+                current = new Channel();
+                created.set(true);
+            }
+            current.connections.addLast(connection);
+            while (current.connections.size() > maxConnectionsPerEmployee) {
+                evicted.add(current.connections.pollFirst());
+            }
+            return current;
+        });
+        connectionCount.incrementAndGet();
+        evicted.forEach(Connection::close);
+
+        // Số chưa đọc chỉ đọc từ DB khi nhân viên mở kết nối đầu tiên, sau đó được cập nhật theo sự kiện.
+        // Kênh được đăng ký trước khi đọc DB để sự kiện đến trong lúc đọc được cộng dồn thay vì bị bỏ qua
+        if (created.get()) {
+            long unread;
+            try {
+                unread = channel.seed(notificationCounterRepository.getUnreadCount(employeeId));
+            } catch (RuntimeException e) {
+                channels.remove(employeeId, channel);
+                channel.connections.forEach(Connection::close);
+                throw e;
+            }
+            broadcast(channel, unread);
+        } else {
+            channel.current().ifPresent(unread -> connection.enqueue(new Message(UNREAD_COUNT_EVENT, unread)));
+        }
+        return connection.emitter;
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    @Override
+    public void deliver(NotificationBroker.Event event) {
+        Channel channel = channels.get(event.employeeId());
+        if (channel == null) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED -> {
+                OptionalLong unread = channel.created();
+                for (Connection connection : channel.connections) {
+                    connection.enqueue(new Message(NOTIFICATION_EVENT, event.notification()));
+                    unread.ifPresent(value -> connection.enqueue(new Message(UNREAD_COUNT_EVENT, value)));
+                }
+            }
+            case READ -> channel.read().ifPresent(unread -> broadcast(channel, unread));
+            case ALL_READ -> channel.allRead().ifPresent(unread -> broadcast(channel, unread));
+        }
+    }
+
+    private void broadcast(Channel channel, long unread) {
+        for (Connection connection : channel.connections) {
+            connection.enqueue(new Message(UNREAD_COUNT_EVENT, unread));
+        }
+    }
+
+    @Override
+    public OptionalLong unreadCount(Long employeeId) {
+        Channel channel = channels.get(employeeId);
+        return channel == null ? OptionalLong.empty() : channel.current();
+    }
+
+    // Gửi comment định kỳ để proxy không cắt kết nối nhàn rỗi và phát hiện sớm client đã rời đi
+    @Override
+    public void heartbeat() {
+        channels.values().forEach(channel -> channel.connections.forEach(connection -> connection.enqueue(HEARTBEAT)));
+    }
+
+    @Override
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    private record Message(String name, Object data) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return name == null ? SseEmitter.event().comment("ping") : SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    // Trước khi có số từ DB, unread chỉ là phần chênh lệch do các sự kiện đến trong lúc chờ đọc;
+    // allRead trong khoảng đó nghĩa là số trong DB không còn ý nghĩa
+    private static final class Channel {
+        private final Deque<Connection> connections = new ConcurrentLinkedDeque<>();
+        private long unread;
+        private boolean seeded;
+        private boolean reset;
+
+        synchronized long seed(long stored) {
+            unread = Math.max(0, reset ? unread : stored + unread);
+            seeded = true;
+            return unread;
+        }
+
+        synchronized OptionalLong created() {
+            unread++;
+            return current();
+        }
+
+        synchronized OptionalLong read() {
+            unread = seeded ? Math.max(0, unread - 1) : unread - 1;
+            return current();
+        }
+
+        synchronized OptionalLong allRead() {
+            unread = 0;
+            reset = true;
+            return current();
+        }
+
+        synchronized OptionalLong current() {
+            return seeded ? OptionalLong.of(unread) : OptionalLong.empty();
+        }
+    }
+
+    private final class Connection {
+        private final Long employeeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(Long employeeId, SseEmitter emitter) {
+            this.employeeId = employeeId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Message message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                overflowCounter.increment();
+                log.warn("Đóng kết nối thông báo của nhân viên {} vì hàng đợi đầy", employeeId);
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // Mỗi kết nối có nhiều nhất một task gửi đang chạy nên các lần gửi trên cùng emitter luôn tuần tự
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                notificationExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while (!closed.get() && (message = buffer.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed.get() && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            channels.computeIfPresent(employeeId, (id, channel) -> {
+                channel.connections.remove(this);
+                return channel.connections.isEmpty() ? null : channel;
+            });
+            connectionCount.decrementAndGet();
+            buffer.clear();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Emitter đã hoàn tất trước đó
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.repositories.NotificationCounterRepository;
+import com.attendance.fpt.repositories.NotificationPartitionRepository;
+import com.attendance.fpt.repositories.NotificationRepository;
+import com.attendance.fpt.services.NotificationRetentionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@Service
+@Slf4j(topic = "NOTIFICATION-RETENTION")
+public class NotificationRetentionServiceImpl implements NotificationRetentionService {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final NotificationPartitionRepository notificationPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notification.retention.read-ttl-days:90}")
+    private int readTtlDays;
+
+    @Value("${app.notification.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.notification.retention.archive:true}")
+    private boolean archive;
+
+    @Value("${app.notification.retention.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${app.notification.retention.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.notification.retention.partitioning.keep-months:12}")
+    private int keepMonths;
+
+    public NotificationRetentionServiceImpl(NotificationRepository notificationRepository,
+                                            NotificationCounterRepository notificationCounterRepository,
+                                            NotificationPartitionRepository notificationPartitionRepository,
+                                            PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.notificationPartitionRepository = notificationPartitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int purgeExpired() {
+        int removed = partitioningEnabled ? rotatePartitions() : 0;
+        removed += purgeReadBefore(LocalDateTime.now().minusDays(readTtlDays));
+        if (removed > 0) {
+            log.info("Removed {} expired notifications", removed);
+        }
+        return removed;
+    }
+
+    // Xoá thông báo đã đọc quá hạn theo từng lô nhỏ, mỗi lô một transaction ngắn để không giữ khoá lâu
+    private int purgeReadBefore(LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int removed;
+        do {
+            removed = transactionTemplate.execute(status -> purgeBatch(cutoff, now));
+            total += removed;
+        } while (removed == batchSize);
+        return total;
+    }
+
+    private int purgeBatch(LocalDateTime cutoff, LocalDateTime now) {
+        List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (archive) {
+            notificationRepository.archiveByIdIn(ids, now);
+        }
+        return notificationRepository.deleteByIdIn(ids);
+    }
+
+    // Thêm trước phân vùng cho các tháng tới và xoá nguyên phân vùng của các tháng quá keepMonths,
+    // kể cả thông báo chưa đọc, thay vì xoá từng dòng
+    private int rotatePartitions() {
+        List<YearMonth> months = notificationPartitionRepository.findMonthPartitions();
+        if (months.isEmpty()) {
+            log.warn("Bảng notifications chưa được phân vùng, bỏ qua việc xoay vòng phân vùng");
+            return 0;
+        }
+        if (notificationPartitionRepository.hasFutureRows()) {
+            log.error("Phân vùng p_future đang có dữ liệu, tách tháng mới sẽ phải chép lại toàn bộ; " +
+                    "cần tạo phân vùng cho các tháng đó bằng tay trước khi job tiếp tục xoay vòng");
+            return 0;
+        }
+
+        YearMonth current = YearMonth.now();
+        YearMonth last = months.get(months.size() - 1);
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            notificationPartitionRepository.addMonthPartition(month);
+        }
+
+        YearMonth oldestKept = current.minusMonths(keepMonths - 1L);
+        int removed = 0;
+        for (YearMonth month : months) {
+            if (!month.isBefore(oldestKept)) {
+                break;
+            }
+            removed += dropPartition(month);
+        }
+        return removed;
+    }
+
+    private int dropPartition(YearMonth month) {
+        // Bảng tách còn sót nghĩa là lần chạy trước dừng giữa chừng, không biết bộ đếm đã được trừ hay chưa
+        if (notificationPartitionRepository.detachedMonthExists(month)) {
+            log.error("Bảng tách của phân vùng {} từ lần chạy trước vẫn còn, bỏ qua cho đến khi được kiểm tra", month);
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // Tách dữ liệu tháng ra trước để markRead đồng thời không làm lệch số đếm hay thay đổi dòng sau khi lưu trữ;
+        // trừ bộ đếm và lưu trữ trong cùng một transaction, DDL do MySQL tự commit nên chạy ngoài transaction
+        notificationPartitionRepository.detachMonthPartition(month);
+        int archived = transactionTemplate.execute(status -> {
+            notificationPartitionRepository.countUnreadByEmployee(month).forEach(notificationCounterRepository::decrement);
+            return archive ? notificationPartitionRepository.archiveDetachedMonth(month, now) : 0;
+        });
+        notificationPartitionRepository.dropDetachedMonth(month);
+        notificationPartitionRepository.dropMonthPartition(month);
+        log.info("Dropped notification partition {} ({} rows archived)", month, archived);
+        return archived;
+    }
+}
@@ -3,27 +3,100 @@ package com.attendance.fpt.services.impl;
 import com.attendance.fpt.converter.NotificationResponseConverter;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.Notification;
+import com.attendance.fpt.entity.NotificationBroadcast;
+import com.attendance.fpt.enums.NotificationBroadcastStatus;
 import com.attendance.fpt.model.response.NotificationResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
+import com.attendance.fpt.repositories.EmployeeRepository;
+import com.attendance.fpt.repositories.NotificationBroadcastRepository;
+import com.attendance.fpt.repositories.NotificationCounterRepository;
 import com.attendance.fpt.repositories.NotificationRepository;
+import com.attendance.fpt.services.NotificationBroker;
+import com.attendance.fpt.services.NotificationHub;
 import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.utils.SecurityUtil;
-import lombok.RequiredArgsConstructor;
+import com.attendance.fpt.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j(topic = "NOTIFICATION-SERVICE")
 public class NotificationServiceImpl implements NotificationService {
+    private static final int MAX_ERROR_LENGTH = 500;
+
     private final NotificationRepository notificationRepository;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final NotificationBroadcastRepository notificationBroadcastRepository;
+    private final EmployeeRepository employeeRepository;
     private final SecurityUtil securityUtil;
+    private final NotificationBroker notificationBroker;
+    private final NotificationHub notificationHub;
+    private final Executor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.notification.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.notification.broadcast.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.notification.broadcast.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.notification.broadcast.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${app.notification.broadcast.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
 
+    public NotificationServiceImpl(NotificationRepository notificationRepository,
+                                   NotificationCounterRepository notificationCounterRepository,
+                                   NotificationBroadcastRepository notificationBroadcastRepository,
+                                   EmployeeRepository employeeRepository,
+                                   SecurityUtil securityUtil,
+                                   NotificationBroker notificationBroker,
+                                   NotificationHub notificationHub,
+                                   @Qualifier("taskExecutor") Executor taskExecutor,
+                                   PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.notificationBroadcastRepository = notificationBroadcastRepository;
+        this.employeeRepository = employeeRepository;
+        this.securityUtil = securityUtil;
+        this.notificationBroker = notificationBroker;
+        this.notificationHub = notificationHub;
+        this.taskExecutor = taskExecutor;
+        // Ghi hàng loạt chạy sau khi transaction nghiệp vụ commit nên luôn mở transaction mới
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Thông báo chỉ được đẩy tới client sau khi transaction nghiệp vụ commit
     @Override
+    @Transactional
     public void sendNotification(Employee employee, String message ) {
         Notification notification = Notification.builder()
                 .employee(employee)
@@ -31,6 +104,161 @@ public class NotificationServiceImpl implements NotificationService {
                 .isRead(false)
                 .build();
         notificationRepository.save(notification);
+        notificationCounterRepository.increment(employee.getId(), 1);
+        NotificationResponse response = NotificationResponseConverter.fromEntity(notification);
+        TransactionUtil.afterCommit(() -> notificationBroker.publish(NotificationBroker.Event.created(employee.getId(), response)));
+    }
+
+    @Override
+    @Transactional
+    public void sendNotifications(Collection<Long> employeeIds, String template, Object... params) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        String recipientIds = new TreeSet<>(employeeIds).stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        enqueueBroadcast(NotificationBroadcast.builder()
+                .recipientIds(recipientIds)
+                .content(MessageFormat.format(template, params))
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public void sendNotificationsToDepartment(Long departmentId, String template, Object... params) {
+        enqueueBroadcast(NotificationBroadcast.builder()
+                .departmentId(departmentId)
+                .content(MessageFormat.format(template, params))
+                .build());
+    }
+
+    @Override
+    @Transactional
+    public void sendNotificationsToAllStaff(String template, Object... params) {
+        enqueueBroadcast(NotificationBroadcast.builder()
+                .content(MessageFormat.format(template, params))
+                .build());
+    }
+
+    // Yêu cầu được ghi trong cùng transaction nghiệp vụ, rollback thì không có thông báo nào được gửi.
+    // Người nhận chỉ được xác định và ghi thông báo sau khi commit, trên thread nền
+    private void enqueueBroadcast(NotificationBroadcast broadcast) {
+        notificationBroadcastRepository.save(broadcast);
+        TransactionUtil.afterCommit(this::dispatchPendingBroadcasts);
+    }
+
+    @Override
+    public void dispatchPendingBroadcasts() {
+        try {
+            taskExecutor.execute(this::drainBroadcasts);
+        } catch (RejectedExecutionException e) {
+            // Job định kỳ sẽ quét lại các yêu cầu còn chờ
+            log.warn("Bỏ qua lượt gửi thông báo hàng loạt vì hàng đợi đầy");
+        }
+    }
+
+    private void drainBroadcasts() {
+        try {
+            NotificationBroadcast broadcast;
+            while ((broadcast = claimBroadcast()) != null) {
+                try {
+                    writeBroadcast(broadcast);
+                } catch (Exception e) {
+                    log.error("Lỗi khi gửi thông báo hàng loạt {}", broadcast.getId(), e);
+                    scheduleRetry(broadcast, e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Lỗi khi xử lý hàng đợi thông báo hàng loạt", e);
+        }
+    }
+
+    // Lấy một yêu cầu đến hạn và đẩy nextAttemptAt ra sau một khoảng lease; nếu node chết giữa chừng
+    // thì hết lease yêu cầu được node khác tiếp tục từ lô đã commit cuối cùng
+    private NotificationBroadcast claimBroadcast() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<NotificationBroadcast> due = notificationBroadcastRepository.findDueForUpdate(
+                    NotificationBroadcastStatus.PENDING, now, PageRequest.of(0, 1));
+            if (due.isEmpty()) {
+                return null;
+            }
+            NotificationBroadcast broadcast = due.get(0);
+            broadcast.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            return broadcast;
+        });
+    }
+
+    // Mỗi lô người nhận được ghi cùng với con trỏ trong một transaction riêng rồi mới đẩy tới các kết nối đang mở,
+    // nên lần thử lại chỉ ghi tiếp cho những người sau lô đã commit
+    private void writeBroadcast(NotificationBroadcast broadcast) {
+        List<Long> recipients = resolveRecipients(broadcast);
+        String content = broadcast.getContent();
+        LocalDateTime createdAt = broadcast.getCreatedAt();
+        long cursor = broadcast.getLastRecipientId();
+        for (int from = 0; from < recipients.size(); from += batchSize) {
+            List<Long> chunk = recipients.subList(from, Math.min(from + batchSize, recipients.size()));
+            long expected = cursor;
+            long last = chunk.get(chunk.size() - 1);
+            List<Long> ids = transactionTemplate.execute(status -> {
+                if (notificationBroadcastRepository.advanceCursor(broadcast.getId(), expected, last,
+                        LocalDateTime.now().plusSeconds(leaseSeconds)) == 0) {
+                    return null;
+                }
+                List<Long> inserted = notificationRepository.batchInsert(chunk, content, createdAt);
+                notificationRepository.batchIncrementUnread(chunk);
+                return inserted;
+            });
+            if (ids == null) {
+                log.warn("Yêu cầu thông báo hàng loạt {} đã được worker khác tiếp tục", broadcast.getId());
+                return;
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                notificationBroker.publish(NotificationBroker.Event.created(chunk.get(i), NotificationResponse.builder()
+                        .id(ids.get(i))
+                        .content(content)
+                        .isRead(false)
+                        .employeeId(chunk.get(i))
+                        .createdAt(createdAt)
+                        .build()));
+            }
+            cursor = last;
+        }
+        transactionTemplate.executeWithoutResult(status -> notificationBroadcastRepository.markSent(
+                broadcast.getId(), NotificationBroadcastStatus.SENT, LocalDateTime.now()));
+    }
+
+    // Người nhận theo thứ tự id tăng dần, bỏ qua những người đã được ghi ở các lần trước
+    private List<Long> resolveRecipients(NotificationBroadcast broadcast) {
+        List<Long> employeeIds;
+        if (broadcast.getRecipientIds() != null) {
+            employeeIds = Arrays.stream(broadcast.getRecipientIds().split(",")).map(Long::valueOf).toList();
+        } else if (broadcast.getDepartmentId() != null) {
+            employeeIds = employeeRepository.findActiveIdsByDepartmentId(broadcast.getDepartmentId());
+        } else {
+            employeeIds = employeeRepository.findActiveIds();
+        }
+        return employeeIds.stream().filter(id -> id > broadcast.getLastRecipientId()).toList();
+    }
+
+    // Thử lại theo cấp số nhân như outbox email; quá maxAttempts thì dừng hẳn
+    private void scheduleRetry(NotificationBroadcast broadcast, Exception e) {
+        int attempts = broadcast.getAttempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        String lastError = error.substring(0, Math.min(error.length(), MAX_ERROR_LENGTH));
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (attempts >= maxAttempts) {
+                notificationBroadcastRepository.markAttemptFailed(broadcast.getId(), NotificationBroadcastStatus.FAILED,
+                        attempts, now, lastError);
+                log.error("Yêu cầu thông báo hàng loạt {} bị hủy sau {} lần thử", broadcast.getId(), attempts);
+                return;
+            }
+            long delay = Math.min(backoffBaseSeconds << Math.min(attempts - 1, 30), backoffMaxSeconds);
+            notificationBroadcastRepository.markAttemptFailed(broadcast.getId(), NotificationBroadcastStatus.PENDING,
+                    attempts, now.plusSeconds(delay), lastError);
+        });
     }
 
     @Override
@@ -51,25 +279,50 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public long countUnreadNotificationsByEmployee() {
         Employee employee = securityUtil.getCurrentUser();
-        return notificationRepository.countByEmployee_IdAndIsRead(employee.getId(),false);
+        // Nhân viên đang mở kết nối thông báo thì đã có sẵn số chưa đọc trong bộ nhớ
+        return notificationHub.unreadCount(employee.getId())
+                .orElseGet(() -> notificationCounterRepository.getUnreadCount(employee.getId()));
     }
 
     @Override
+    @Transactional
     public void updateNotificationToRead(Long notificationId) {
         Employee employee = securityUtil.getCurrentUser();
-        Notification notification = notificationRepository.findByIdAndEmployee_Id(notificationId, employee.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Notification not found or does not belong to the current user"));
-        notification.setIsRead(true);
-        notificationRepository.save(notification);
+        if (notificationRepository.markRead(notificationId, employee.getId()) == 0) {
+            if (!notificationRepository.existsByIdAndEmployee_Id(notificationId, employee.getId())) {
+                throw new IllegalArgumentException("Notification not found or does not belong to the current user");
+            }
+            return;
+        }
+        notificationCounterRepository.decrement(employee.getId(), 1);
+        TransactionUtil.afterCommit(() -> notificationBroker.publish(NotificationBroker.Event.read(employee.getId())));
     }
 
+    // Một câu UPDATE cho toàn bộ thông báo chưa đọc thay vì nạp từng entity rồi cập nhật từng dòng
     @Override
+    @Transactional
     public void updateAllNotificationsToReadByEmployee() {
         Employee employee = securityUtil.getCurrentUser();
-        List<Notification> notifications = notificationRepository.findAllByEmployee_IdAndIsRead(employee.getId(), false);
-        for (Notification notification : notifications) {
-            notification.setIsRead(true);
+        if (notificationRepository.markAllRead(employee.getId()) == 0) {
+            return;
         }
-        notificationRepository.saveAll(notifications);
+        notificationCounterRepository.reset(employee.getId());
+        TransactionUtil.afterCommit(() -> notificationBroker.publish(NotificationBroker.Event.allRead(employee.getId())));
+    }
+
+    // Lần đầu triển khai bảng đếm còn trống thì dựng lại từ các thông báo chưa đọc
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCountersIfEmpty() {
+        if (notificationCounterRepository.count() > 0) {
+            return;
+        }
+        notificationCounterRepository.backfill();
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        Employee employee = securityUtil.getCurrentUser();
+        return notificationHub.subscribe(employee.getId());
     }
 }
@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.PrincipalCache;
 import com.attendance.fpt.entity.Account;
 import com.attendance.fpt.entity.Otp;
 import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
@@ -24,6 +25,7 @@ public class OtpServiceImpl implements OtpService {
     private final EmailService emailService;
     private final AccountRepository accountRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
 
     @Override
     public void sendOtp(String email) {
@@ -78,6 +80,7 @@ public class OtpServiceImpl implements OtpService {
         String encodedPassword = passwordEncoder.encode(request.getNewPassword());
         account.setPassword(encodedPassword);
         accountRepository.save(account);
+        principalCache.evict(account.getUsername());
 
         otpRepository.delete(otp);
     }
@@ -1,5 +1,7 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.ShiftAssignmentIndex;
 import com.attendance.fpt.converter.PartTimeRequestConverter;
 import com.attendance.fpt.entity.*;
 import com.attendance.fpt.enums.EmployeeType;
@@ -12,6 +14,7 @@ import com.attendance.fpt.model.request.PartTimeRequestHandleRequest;
 import com.attendance.fpt.model.response.PartTimeRequestResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.repositories.*;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.EmailService;
 import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.services.PartTimeRequestService;
@@ -37,6 +40,9 @@ public class PartTimeRequestServiceImpl implements PartTimeRequestService {
     private final PartTimeRequestRepository partTimeRequestRepository;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final ShiftAssignmentIndex shiftAssignmentIndex;
     @Override
     public ResponseWithPagination<List<PartTimeRequestResponse>> getAllPartTimeRequests(
             int page,
@@ -159,8 +165,15 @@ public class PartTimeRequestServiceImpl implements PartTimeRequestService {
             throw new ConflictException("Cannot approve part time request for past time.");
         }
 
-        if (!workShiftAssignmentRepository.existsOverlappingAssignments(employee.getId(), partTimeRequest.getDate(),
-                partTimeRequest.getWorkShift().getStartTime(), partTimeRequest.getWorkShift().getEndTime()).isEmpty()) {
+        Long requesterId = partTimeRequest.getEmployee().getId();
+        LocalTime startTime = partTimeRequest.getWorkShift().getStartTime();
+        LocalTime endTime = partTimeRequest.getWorkShift().getEndTime();
+        // Chỉ mục chỉ dùng để trả lời nhanh khi đã thấy trùng; "không trùng" luôn được xác nhận bằng database
+        boolean overlapping = (shiftAssignmentIndex.covers(partTimeRequest.getDate())
+                && shiftAssignmentIndex.overlaps(requesterId, partTimeRequest.getDate(), startTime, endTime))
+                || !workShiftAssignmentRepository.existsOverlappingAssignments(requesterId, partTimeRequest.getDate(),
+                        startTime, endTime).isEmpty();
+        if (overlapping) {
             throw new ConflictException("Work shift assignment overlapping for this date and time");
         }
 
@@ -170,6 +183,9 @@ public class PartTimeRequestServiceImpl implements PartTimeRequestService {
                 .employee(partTimeRequest.getEmployee())
                 .build();
         workShiftAssignmentRepository.save(assignment);
+        attendanceCalendarCache.evict(assignment);
+        attendanceRollupService.refresh(assignment);
+        shiftAssignmentIndex.add(assignment);
 
         partTimeRequest.setResponseDate(LocalDateTime.now());
         partTimeRequest.setResponseBy(employee);
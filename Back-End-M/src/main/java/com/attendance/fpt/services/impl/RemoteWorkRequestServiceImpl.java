@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
 import com.attendance.fpt.converter.RemoteWorkRequestConverter;
 import com.attendance.fpt.entity.*;
 import com.attendance.fpt.enums.AttendanceStatus;
@@ -15,6 +16,7 @@ import com.attendance.fpt.repositories.AttendanceRepository;
 import com.attendance.fpt.repositories.RemoteWorkRequestRepository;
 import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
 import com.attendance.fpt.repositories.WorkShiftRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.EmailService;
 import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.services.RemoteWorkRequestService;
@@ -40,6 +42,8 @@ public class RemoteWorkRequestServiceImpl implements RemoteWorkRequestService {
     private final EmailService emailService;
     private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
 
     @Override
     public ResponseWithPagination<List<RemoteWorkRequestResponse>> getAllRemoteWorkRequests(int page, int size, String employeeName,
@@ -176,6 +180,8 @@ public class RemoteWorkRequestServiceImpl implements RemoteWorkRequestService {
                     .build();
 
             attendanceRepository.save(attendance);
+            attendanceCalendarCache.evict(workShiftAssignment);
+            attendanceRollupService.refresh(workShiftAssignment);
         }
 
         request.setStatus(RemoteWorkRequestStatus.APPROVED);
@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
 import com.attendance.fpt.converter.LeaveRequestConverter;
 import com.attendance.fpt.converter.RevertLeaveRequestConverter;
 import com.attendance.fpt.entity.*;
@@ -14,6 +15,7 @@ import com.attendance.fpt.model.response.LeaveRequestResponse;
 import com.attendance.fpt.model.response.ResponseWithPagination;
 import com.attendance.fpt.model.response.RevertLeaveRequestResponse;
 import com.attendance.fpt.repositories.*;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.EmailService;
 import com.attendance.fpt.services.NotificationService;
 import com.attendance.fpt.services.RevertLeaveRequestService;
@@ -43,6 +45,8 @@ public class RevertLeaveRequestServiceImpl implements RevertLeaveRequestService
     private final SecurityUtil securityUtil;
     private final NotificationService notificationService;
     private final EmailService emailService;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
 
     @Override
     public ResponseWithPagination<List<RevertLeaveRequestResponse>> getAllRevertLeaveRequests(int page, int size, String employeeName, LocalDate createdDate,LocalDate date, Long departmentId, Long workShiftId, String status) {
@@ -156,6 +160,8 @@ public class RevertLeaveRequestServiceImpl implements RevertLeaveRequestService
         workShiftAssignmentRepository.save(workShiftAssignment);
 
         attendanceRepository.delete(attendance);
+        attendanceCalendarCache.evict(workShiftAssignment);
+        attendanceRollupService.refresh(workShiftAssignment);
         LeaveBalance leaveBalance = leaveBalanceRepository.findByEmployee_IdAndLeaveType_IdAndYear(
                 revertLeaveRequest.getEmployee().getId(),
                 attendance.getLeaveRequest().getLeaveType().getId(),
@@ -0,0 +1,220 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.converter.RosterTemplateConverter;
+import com.attendance.fpt.entity.Department;
+import com.attendance.fpt.entity.Employee;
+import com.attendance.fpt.entity.RosterTemplate;
+import com.attendance.fpt.entity.RosterTemplateItem;
+import com.attendance.fpt.entity.WorkShift;
+import com.attendance.fpt.exceptions.custom.ConflictException;
+import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
+import com.attendance.fpt.model.request.RosterTemplateExpandRequest;
+import com.attendance.fpt.model.request.RosterTemplateItemRequest;
+import com.attendance.fpt.model.request.RosterTemplateRequest;
+import com.attendance.fpt.model.request.WorkShiftAssignmentListRequest;
+import com.attendance.fpt.model.request.WorkShiftAssignmentRequest;
+import com.attendance.fpt.model.response.RosterTemplateExpandResponse;
+import com.attendance.fpt.model.response.RosterTemplateResponse;
+import com.attendance.fpt.model.response.WorkShiftAssignmentResultResponse;
+import com.attendance.fpt.repositories.DepartmentRepository;
+import com.attendance.fpt.repositories.EmployeeRepository;
+import com.attendance.fpt.repositories.RosterTemplateRepository;
+import com.attendance.fpt.repositories.WorkShiftRepository;
+import com.attendance.fpt.services.NotificationService;
+import com.attendance.fpt.services.RosterTemplateService;
+import com.attendance.fpt.services.WorkShiftAssignmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class RosterTemplateServiceImpl implements RosterTemplateService {
+    private static final int EXPAND_CHUNK_SIZE = 2000;
+    private static final long MAX_EXPAND_DAYS = 366;
+
+    private final RosterTemplateRepository rosterTemplateRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EmployeeRepository employeeRepository;
+    private final WorkShiftRepository workShiftRepository;
+    private final WorkShiftAssignmentService workShiftAssignmentService;
+    private final NotificationService notificationService;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RosterTemplateResponse> getAllRosterTemplates() {
+        return rosterTemplateRepository.findAll().stream()
+                .map(RosterTemplateConverter::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RosterTemplateResponse getRosterTemplate(Long id) {
+        return RosterTemplateConverter.toResponse(findRosterTemplate(id));
+    }
+
+    @Override
+    @Transactional
+    public RosterTemplateResponse addRosterTemplate(RosterTemplateRequest request) {
+        RosterTemplate rosterTemplate = new RosterTemplate();
+        applyRequest(rosterTemplate, request);
+        return RosterTemplateConverter.toResponse(rosterTemplateRepository.save(rosterTemplate));
+    }
+
+    @Override
+    @Transactional
+    public RosterTemplateResponse updateRosterTemplate(Long id, RosterTemplateRequest request) {
+        RosterTemplate rosterTemplate = findRosterTemplate(id);
+        applyRequest(rosterTemplate, request);
+        return RosterTemplateConverter.toResponse(rosterTemplateRepository.save(rosterTemplate));
+    }
+
+    @Override
+    @Transactional
+    public void deleteRosterTemplate(Long id) {
+        rosterTemplateRepository.delete(findRosterTemplate(id));
+    }
+
+    // Sinh phân ca theo từng lô và ghi qua luồng thêm hàng loạt, mỗi lô commit riêng.
+    // Phân ca đã tồn tại được tính là bỏ qua nên có thể chạy lại cùng khoảng ngày nhiều lần
+    @Override
+    public RosterTemplateExpandResponse expandRosterTemplate(Long id, RosterTemplateExpandRequest request) {
+        if (request.getToDate().isBefore(request.getFromDate())) {
+            throw new IllegalArgumentException("To date must not be before from date");
+        }
+        if (ChronoUnit.DAYS.between(request.getFromDate(), request.getToDate()) >= MAX_EXPAND_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_EXPAND_DAYS + " days");
+        }
+
+        RosterTemplate rosterTemplate = findRosterTemplate(id);
+        List<Long> employeeIds = rosterTemplate.getEmployee() != null
+                ? List.of(rosterTemplate.getEmployee().getId())
+                : employeeRepository.findActiveIdsByDepartmentId(rosterTemplate.getDepartment().getId());
+
+        Map<DayOfWeek, List<Long>> workShiftIdsByDay = new EnumMap<>(DayOfWeek.class);
+        for (RosterTemplateItem item : rosterTemplate.getItems()) {
+            workShiftIdsByDay.computeIfAbsent(item.getDayOfWeek(), day -> new ArrayList<>())
+                    .add(item.getWorkShift().getId());
+        }
+
+        ExpandProgress progress = new ExpandProgress();
+        List<WorkShiftAssignmentRequest> chunk = new ArrayList<>(EXPAND_CHUNK_SIZE);
+        for (LocalDate date = request.getFromDate(); !date.isAfter(request.getToDate()); date = date.plusDays(1)) {
+            List<Long> workShiftIds = workShiftIdsByDay.getOrDefault(date.getDayOfWeek(), List.of());
+            for (Long employeeId : employeeIds) {
+                for (Long workShiftId : workShiftIds) {
+                    chunk.add(WorkShiftAssignmentRequest.builder()
+                            .dateAssign(date)
+                            .employeeId(employeeId)
+                            .workShiftId(workShiftId)
+                            .build());
+                    if (chunk.size() == EXPAND_CHUNK_SIZE) {
+                        writeChunk(chunk, progress);
+                        chunk = new ArrayList<>(EXPAND_CHUNK_SIZE);
+                    }
+                }
+            }
+        }
+        writeChunk(chunk, progress);
+
+        // Chỉ báo cho những nhân viên thực sự có thêm phân ca mới
+        if (!progress.assignedEmployeeIds.isEmpty()) {
+            notificationService.sendNotifications(progress.assignedEmployeeIds, "Lịch làm việc của bạn từ ngày {0} đến ngày {1} đã được cập nhật",
+                    request.getFromDate().toString(), request.getToDate().toString());
+        }
+
+        return RosterTemplateExpandResponse.builder()
+                .total(progress.total)
+                .created(progress.created)
+                .skipped(progress.skipped)
+                .conflicts(progress.conflicts)
+                .build();
+    }
+
+    private static class ExpandProgress {
+        private int total;
+        private int created;
+        private int skipped;
+        private final List<WorkShiftAssignmentResultResponse> conflicts = new ArrayList<>();
+        private final Set<Long> assignedEmployeeIds = new HashSet<>();
+    }
+
+    private void writeChunk(List<WorkShiftAssignmentRequest> chunk, ExpandProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        WorkShiftAssignmentListRequest listRequest = new WorkShiftAssignmentListRequest();
+        listRequest.setWorkShiftAssignments(chunk);
+
+        for (WorkShiftAssignmentResultResponse result : workShiftAssignmentService.addBulkAssignments(listRequest)) {
+            if (result.isSuccess()) {
+                progress.created++;
+                progress.assignedEmployeeIds.add(result.getEmployeeId());
+            } else if (result.isDuplicate()) {
+                progress.skipped++;
+            } else {
+                result.setIndex(progress.total + result.getIndex());
+                progress.conflicts.add(result);
+            }
+        }
+        progress.total += chunk.size();
+    }
+
+    private RosterTemplate findRosterTemplate(Long id) {
+        return rosterTemplateRepository.findWithItemsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Roster template not found"));
+    }
+
+    private void applyRequest(RosterTemplate rosterTemplate, RosterTemplateRequest request) {
+        if ((request.getDepartmentId() == null) == (request.getEmployeeId() == null)) {
+            throw new IllegalArgumentException("Exactly one of department id or employee id is required");
+        }
+
+        Department department = null;
+        Employee employee = null;
+        if (request.getDepartmentId() != null) {
+            department = departmentRepository.findById(request.getDepartmentId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Department not found"));
+        } else {
+            employee = employeeRepository.findById(request.getEmployeeId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
+        }
+
+        Set<Long> workShiftIds = request.getItems().stream()
+                .map(RosterTemplateItemRequest::getWorkShiftId)
+                .collect(Collectors.toSet());
+        Map<Long, WorkShift> workShifts = workShiftRepository.findAllById(workShiftIds).stream()
+                .collect(Collectors.toMap(WorkShift::getId, Function.identity()));
+
+        Set<String> seen = new HashSet<>();
+        List<RosterTemplateItem> items = new ArrayList<>(request.getItems().size());
+        for (RosterTemplateItemRequest itemRequest : request.getItems()) {
+            WorkShift workShift = workShifts.get(itemRequest.getWorkShiftId());
+            if (workShift == null) {
+                throw new ResourceNotFoundException("Work shift not found");
+            }
+            if (!seen.add(itemRequest.getDayOfWeek() + ":" + workShift.getId())) {
+                throw new ConflictException("Work shift is duplicated on " + itemRequest.getDayOfWeek());
+            }
+            items.add(RosterTemplateItem.builder()
+                    .dayOfWeek(itemRequest.getDayOfWeek())
+                    .workShift(workShift)
+                    .rosterTemplate(rosterTemplate)
+                    .build());
+        }
+
+        rosterTemplate.setName(request.getName());
+        rosterTemplate.setDepartment(department);
+        rosterTemplate.setEmployee(employee);
+        rosterTemplate.getItems().clear();
+        rosterTemplate.getItems().addAll(items);
+    }
+}
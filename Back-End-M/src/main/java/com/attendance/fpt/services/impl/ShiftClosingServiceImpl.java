@@ -0,0 +1,97 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.model.response.ShiftAssignmentSlotResponse;
+import com.attendance.fpt.repositories.AttendanceRepository;
+import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
+import com.attendance.fpt.services.ShiftClosingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j(topic = "SHIFT-CLOSING")
+public class ShiftClosingServiceImpl implements ShiftClosingService {
+
+    private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.attendance.close-shift.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.attendance.close-shift.lookback-days:2}")
+    private int lookbackDays;
+
+    public ShiftClosingServiceImpl(WorkShiftAssignmentRepository workShiftAssignmentRepository,
+                                   AttendanceRepository attendanceRepository,
+                                   AttendanceCalendarCache attendanceCalendarCache,
+                                   AttendanceRollupService attendanceRollupService,
+                                   PlatformTransactionManager transactionManager) {
+        this.workShiftAssignmentRepository = workShiftAssignmentRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.attendanceCalendarCache = attendanceCalendarCache;
+        this.attendanceRollupService = attendanceRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Chỉ quét vài ngày gần đây, các ngày cũ hơn đã được đóng từ các lần chạy trước
+    @Override
+    public int closeEndedShifts() {
+        return closeEndedShiftsSince(LocalDate.now().minusDays(lookbackDays));
+    }
+
+    // Khi khởi động đóng toàn bộ ca cũ chưa được ghi nhận, gồm cả dữ liệu có từ trước khi có job đóng ca
+    @EventListener(ApplicationReadyEvent.class)
+    public void closeAllEndedShifts() {
+        LocalDate first = workShiftAssignmentRepository.findFirstDateAssign();
+        if (first == null) {
+            return;
+        }
+        int closed = closeEndedShiftsSince(first);
+        if (closed > 0) {
+            log.info("Closed {} ended shifts without attendance since {}", closed, first);
+        }
+    }
+
+    private int closeEndedShiftsSince(LocalDate fromDate) {
+        // Cố định thời điểm đóng ca cho cả lần chạy để các lô dùng cùng một mốc
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int closed;
+        do {
+            closed = transactionTemplate.execute(status -> closeBatch(fromDate, now));
+            total += closed;
+        } while (closed == batchSize);
+        return total;
+    }
+
+    private int closeBatch(LocalDate fromDate, LocalDateTime now) {
+        List<ShiftAssignmentSlotResponse> slots = workShiftAssignmentRepository.findEndedSlotsWithoutAttendance(
+                fromDate, now.toLocalDate(), now.toLocalTime(), PageRequest.of(0, batchSize));
+        if (slots.isEmpty()) {
+            return 0;
+        }
+
+        attendanceRepository.insertAbsentByWorkShiftAssignmentIds(slots.stream()
+                .map(ShiftAssignmentSlotResponse::getWorkShiftAssignmentId)
+                .toList());
+        for (ShiftAssignmentSlotResponse slot : slots) {
+            attendanceCalendarCache.evict(slot.getEmployeeId(), slot.getDateAssign());
+            attendanceRollupService.refresh(slot.getEmployeeId(), slot.getDateAssign());
+        }
+        return slots.size();
+    }
+}
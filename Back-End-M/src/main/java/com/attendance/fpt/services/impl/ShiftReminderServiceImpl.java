@@ -0,0 +1,72 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.enums.EmailCategory;
+import com.attendance.fpt.model.response.ShiftReminderResponse;
+import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.services.EmailOutboxService;
+import com.attendance.fpt.services.EmailService;
+import com.attendance.fpt.services.ShiftReminderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j(topic = "SHIFT-REMINDER")
+public class ShiftReminderServiceImpl implements ShiftReminderService {
+    private static final String SUBJECT = "Nhắc nhở: Sắp đến ca làm việc của bạn";
+    private static final int UPDATE_CHUNK_SIZE = 500;
+
+    private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
+    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+    private final Counter enqueuedCounter;
+
+    public ShiftReminderServiceImpl(WorkShiftAssignmentRepository workShiftAssignmentRepository,
+                                    EmailService emailService,
+                                    EmailOutboxService emailOutboxService,
+                                    MeterRegistry meterRegistry) {
+        this.workShiftAssignmentRepository = workShiftAssignmentRepository;
+        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
+        // Số đã gửi, lỗi và độ trễ của email nhắc ca nằm ở mail.outbox.* với tag category=SHIFT_REMINDER
+        this.enqueuedCounter = meterRegistry.counter("shift.reminder.enqueued");
+    }
+
+    @Override
+    @Transactional
+    public void remindUpcomingShifts() {
+        LocalTime nowTime = LocalTime.now();
+        List<ShiftReminderResponse> reminders =
+                workShiftAssignmentRepository.findUpcomingShiftsWithoutCheckIn(nowTime, nowTime.plusMinutes(5));
+        if (reminders.isEmpty()) {
+            return;
+        }
+
+        // Đánh dấu đã nhắc bằng câu lệnh UPDATE hàng loạt, cùng transaction với việc ghi email vào outbox
+        List<Long> ids = reminders.stream().map(ShiftReminderResponse::getWorkShiftAssignmentId).toList();
+        for (int i = 0; i < ids.size(); i += UPDATE_CHUNK_SIZE) {
+            workShiftAssignmentRepository.markReminderSent(ids.subList(i, Math.min(i + UPDATE_CHUNK_SIZE, ids.size())));
+        }
+
+        Map<LocalTime, List<String>> recipientsByStartTime = reminders.stream()
+                .collect(Collectors.groupingBy(ShiftReminderResponse::getStartTime, TreeMap::new,
+                        Collectors.mapping(ShiftReminderResponse::getEmail, Collectors.toList())));
+
+        for (Map.Entry<LocalTime, List<String>> entry : recipientsByStartTime.entrySet()) {
+            // Nội dung chỉ phụ thuộc giờ bắt đầu ca nên template được render một lần cho mỗi ca
+            String html = emailService.renderReminderEmail(
+                    "Ca của bạn bắt đầu lúc " + entry.getKey() + ". Đừng quên check-in nhé!");
+            emailOutboxService.enqueueAll(EmailCategory.SHIFT_REMINDER, entry.getValue(), SUBJECT, html);
+        }
+        enqueuedCounter.increment(reminders.size());
+        log.info("Đã đưa {} email nhắc nhở vào outbox cho {} ca", reminders.size(), recipientsByStartTime.size());
+    }
+}
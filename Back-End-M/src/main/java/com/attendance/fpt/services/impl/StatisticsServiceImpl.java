@@ -4,30 +4,36 @@ import com.attendance.fpt.entity.Attendance;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.WorkShiftAssignment;
 import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.enums.LeaveRequestStatus;
 import com.attendance.fpt.model.response.*;
+import com.attendance.fpt.repositories.AttendanceDailyRollupRepository;
 import com.attendance.fpt.repositories.AttendanceRepository;
 import com.attendance.fpt.repositories.LeaveRequestRepository;
 import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
 import com.attendance.fpt.services.StatisticService;
 import com.attendance.fpt.utils.BaseExport;
+import com.attendance.fpt.utils.DateUtil;
 import com.attendance.fpt.utils.SecurityUtil;
+import com.attendance.fpt.utils.TopK;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsServiceImpl implements StatisticService {
 
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceDailyRollupRepository attendanceDailyRollupRepository;
     private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
     private final LeaveRequestRepository leaveRequestRepository;
     private final SecurityUtil securityUtil;
@@ -38,7 +44,8 @@ public class StatisticsServiceImpl implements StatisticService {
         LocalDate endOfWeek = LocalDate.now().with(DayOfWeek.SUNDAY);
 
 
-        List<Object[]> statistic = workShiftAssignmentRepository.getStatisticByDateAssignBetween(startOfWeek, endOfWeek);
+        // Đọc từ bảng tổng hợp theo ngày thay vì gom lại phân ca và chấm công mỗi lần tải dashboard
+        List<Object[]> statistic = attendanceDailyRollupRepository.getStatisticByDateAssignBetween(startOfWeek, endOfWeek);
         Map<LocalDate, AttendanceDailyResponse> dataMap = statistic.stream()
                 .collect(Collectors.toMap(
                         rs -> (LocalDate) rs[0],
@@ -73,7 +80,7 @@ public class StatisticsServiceImpl implements StatisticService {
 
     @Override
     public List<LeaveOverallResponse> getLeaveOverallStatistics() {
-        List<Object[]> statistic = leaveRequestRepository.getLeaveOverallStatistics();
+        List<Object[]> statistic = leaveRequestRepository.getLeaveOverallStatistics(LeaveRequestStatus.APPROVED);
         if (statistic != null && !statistic.isEmpty()) {
             return statistic.stream()
                     .map(rs -> LeaveOverallResponse.builder()
@@ -91,27 +98,41 @@ public class StatisticsServiceImpl implements StatisticService {
         return attendanceRepository.countByDateAndStatus(today, AttendanceStatus.LEAVE);
     }
 
+    // Xếp theo số ca đi làm đúng giờ giảm dần, bằng nhau thì theo mã nhân viên để thứ hạng ổn định giữa các trang
+    private static final Comparator<TopStaffAttendanceResponse> STAFF_RANKING = Comparator
+            .comparing(TopStaffAttendanceResponse::getTotalAttendanceWorkShift, Comparator.reverseOrder())
+            .thenComparing(TopStaffAttendanceResponse::getEmployeeId);
+
     @Override
     public List<TopStaffAttendanceResponse> getTopFiveStaffAttendanceByMonth(int month, int year) {
-        List<Object[]> statistic = workShiftAssignmentRepository.getTopFiveStaffAttendance(month,year);
+        List<TopStaffAttendanceResponse> counters = attendanceDailyRollupRepository.findStaffAttendanceCounters(
+                DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year),
+                LocalDate.now(), LocalTime.now());
+        return TopK.first(counters, 5, STAFF_RANKING);
+    }
 
-        if (statistic != null && !statistic.isEmpty()) {
-            return statistic.stream()
-                    .map(rs -> TopStaffAttendanceResponse.builder()
-                            .employeeId((Long) rs[0])  // Mã nhân viên
-                            .employeeName((String) rs[1])  // Tên nhân viên
-                            .departmentName((String) rs[2])  // Tên phòng ban
-                            .totalWorkShiftAssignment((Long) rs[3])  // Tổng số ca phân công
-                            .totalAttendanceWorkShift((Long) rs[4])  // Tổng số ca đi làm
-                            .totalLateWorkShift((Long) rs[5])  // Tổng số ca đi muộn
-                            .totalAbsentWorkShift((Long) rs[6])  // Tổng số ca vắng
-                            .totalLeaveWorkShift((Long) rs[7])  // Tổng số ca nghỉ phép
-                            .totalWorkingHours((Double) rs[8])  // Tổng số giờ làm
-                            .build())
-                    .collect(Collectors.toList());
+    @Override
+    public ResponseWithPagination<List<TopStaffAttendanceResponse>> getStaffLeaderboardByMonth(int month, int year,
+                                                                                               int page, int limit) {
+        if (page < 1 || limit < 1) {
+            throw new IllegalArgumentException("Page and limit must be greater than 0");
         }
-
-        return Collections.emptyList();
+        List<TopStaffAttendanceResponse> counters = attendanceDailyRollupRepository.findStaffAttendanceCounters(
+                DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year),
+                LocalDate.now(), LocalTime.now());
+
+        // Chỉ giữ page * limit nhân viên đứng đầu trong heap rồi cắt ra trang cần lấy
+        int from = (int) Math.min((long) (page - 1) * limit, counters.size());
+        int to = (int) Math.min((long) page * limit, counters.size());
+        List<TopStaffAttendanceResponse> ranked = TopK.first(counters, to, STAFF_RANKING);
+
+        return ResponseWithPagination.<List<TopStaffAttendanceResponse>>builder()
+                .data(ranked.subList(from, to))
+                .totalItem(counters.size())
+                .totalPage((counters.size() + limit - 1) / limit)
+                .limit(limit)
+                .page(page)
+                .build();
     }
 
     private int getWeekOfMonth(LocalDate date) {
@@ -124,7 +145,9 @@ public class StatisticsServiceImpl implements StatisticService {
 
     @Override
     public List<OverallStatisticMonthResponse> getOverallByMonth(int month, int year) {
-        List<Object[]> rawData = workShiftAssignmentRepository.getStatisticByWeekInMonth(month, year);
+        List<Object[]> rawData = attendanceDailyRollupRepository.getStatisticByWeekInMonth(
+                DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year),
+                LocalDate.now(), LocalTime.now());
         Map<Integer, OverallStatisticMonthResponse> weekMap = new TreeMap<>();
 
         for (Object[] row : rawData) {
@@ -149,7 +172,8 @@ public class StatisticsServiceImpl implements StatisticService {
 
     @Override
     public List<LeaveOverallResponse> getLeaveOverallStatisticsByMonth(int month, int year) {
-        List<Object[]> statistic = leaveRequestRepository.getLeaveOverallStatisticsByMonth(month,year);
+        List<Object[]> statistic = leaveRequestRepository.getLeaveOverallStatisticsByDateAssignRange(
+                DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year));
         if (statistic != null && !statistic.isEmpty()) {
             return statistic.stream()
                     .map(rs -> LeaveOverallResponse.builder()
@@ -161,53 +185,47 @@ public class StatisticsServiceImpl implements StatisticService {
         return List.of();
     }
 
+    private static final String ATTENDANCE_SHEET = "Danh sách chấm công";
+    private static final String LEAVE_SHEET = "Danh sách vắng mặt";
+    private static final String ABSENT_SHEET = "Danh sách vắng mặt không phép";
+
     @Override
+    @Transactional(readOnly = true)
     public void exportStatisticToExcel(int month, int year, HttpServletResponse response) {
-        List<WorkShiftAssignment> statisticAttendance = workShiftAssignmentRepository.getAllWorkShiftAttendanceByMonthAndYear(month,year);
-        List<WorkShiftAssignment> statisticLeave = workShiftAssignmentRepository.getAllWorkShiftAttendanceAbsentByMonthAndYear(month,year);
-
-        List<WorkShiftAssignment> leaveList = new ArrayList<>();
-        List<WorkShiftAssignment> attendanceList = new ArrayList<>();
-
-        for (WorkShiftAssignment ws : statisticAttendance) {
-            if ( ws.getAttendance().getLeaveRequest() != null) {
-                leaveList.add(ws);
-            } else {
-                attendanceList.add(ws);
-            }
-        }
-
         BaseExport export = new BaseExport();
 
         export
-                .addSheet("Danh sách chấm công", attendanceList, WorkShiftAssignment.class,
-                        new String[]{ "employee.fullName", "employee.phone",
-                                "employee.department.name","workShift.name", "dateAssign", "workShift.startTime",
-                                "workShift.endTime", "workShift.isPartTime", "attendance.checkInTime", "attendance.checkOutTime", "attendance.totalHours"})
+                .addSheet(ATTENDANCE_SHEET, AttendanceExportResponse.class,
+                        new String[]{ "employeeName", "employeePhone",
+                                "departmentName","workShiftName", "dateAssign", "startTime",
+                                "endTime", "partTime", "checkInTime", "checkOutTime", "totalHours"})
                 .writeHeaderLine(new String[]{"STT", "Tên nhân viên", "Số điện thoại",
                         "Phòng ban", "Tên ca làm","Ngày phân công", "Thời gian bắt đầu", "Thời gian kết thúc",
-                        "Ca làm bán thời gian",  "Thời gian vào", "Thời gian ra", "Tổng giờ làm"}, "Danh sách chấm công")
-                .writeDataLines("Danh sách chấm công");
+                        "Ca làm bán thời gian",  "Thời gian vào", "Thời gian ra", "Tổng giờ làm"}, ATTENDANCE_SHEET);
         export
-                .addSheet("Danh sách vắng mặt", leaveList, WorkShiftAssignment.class,
-                        new String[]{ "employee.fullName", "employee.phone",
-                                "employee.department.name","workShift.name", "dateAssign", "workShift.startTime",
-                                "workShift.endTime", "workShift.isPartTime", "attendance.leaveRequest.reason",
-                                "attendance.leaveRequest.responseBy.fullName","attendance.leaveRequest.responseNote"})
+                .addSheet(LEAVE_SHEET, AttendanceExportResponse.class,
+                        new String[]{ "employeeName", "employeePhone",
+                                "departmentName","workShiftName", "dateAssign", "startTime",
+                                "endTime", "partTime", "leaveReason",
+                                "responseByName","responseNote"})
                 .writeHeaderLine(new String[]{"STT", "Tên nhân viên", "Số điện thoại",
                         "Phòng ban", "Tên ca làm","Ngày phân công", "Thời gian bắt đầu", "Thời gian kết thúc",
-                        "Ca làm bán thời gian","Lý do nghỉ", "Người duyệt","Lý do duyệt"}, "Danh sách vắng mặt")
-                .writeDataLines("Danh sách vắng mặt");
-
+                        "Ca làm bán thời gian","Lý do nghỉ", "Người duyệt","Lý do duyệt"}, LEAVE_SHEET);
         export
-                .addSheet("Danh sách vắng mặt không phép", statisticLeave, WorkShiftAssignment.class,
-                        new String[]{ "employee.fullName", "employee.phone",
-                                "employee.department.name","workShift.name", "dateAssign", "workShift.startTime",
-                                "workShift.endTime", "workShift.isPartTime"})
+                .addSheet(ABSENT_SHEET, AttendanceExportResponse.class,
+                        new String[]{ "employeeName", "employeePhone",
+                                "departmentName","workShiftName", "dateAssign", "startTime",
+                                "endTime", "partTime"})
                 .writeHeaderLine(new String[]{"STT", "Tên nhân viên", "Số điện thoại",
                         "Phòng ban", "Tên ca làm","Ngày phân công", "Thời gian bắt đầu", "Thời gian kết thúc",
-                        "Ca làm bán thời gian"}, "Danh sách vắng mặt không phép")
-                .writeDataLines("Danh sách vắng mặt không phép");
+                        "Ca làm bán thời gian"}, ABSENT_SHEET);
+
+        // Một lần quét tháng duy nhất, mỗi dòng được đưa vào sheet tương ứng với loại đã phân loại trong SQL
+        try (Stream<AttendanceExportResponse> rows =
+                     workShiftAssignmentRepository.streamExportByDateAssignRange(
+                             DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year))) {
+            rows.forEach(row -> export.writeDataLine(getExportSheetName(row), row));
+        }
 
         try {
             export.export(response);
@@ -216,18 +234,24 @@ public class StatisticsServiceImpl implements StatisticService {
         }
     }
 
+    private static String getExportSheetName(AttendanceExportResponse row) {
+        return switch (row.getType()) {
+            case AttendanceExportResponse.TYPE_LEAVE -> LEAVE_SHEET;
+            case AttendanceExportResponse.TYPE_ABSENT -> ABSENT_SHEET;
+            default -> ATTENDANCE_SHEET;
+        };
+    }
+
     @Override
     public List<OverallStatisticEmployeeYearResponse> getOverallAttendanceEmployeeByYear(int year) {
         Employee employee = securityUtil.getCurrentUser();
-        List<WorkShiftAssignment> assignments = workShiftAssignmentRepository.getAssignmentsByYear(employee.getId(), year);
+        List<WorkShiftAssignment> assignments = workShiftAssignmentRepository.getAssignmentsByDateAssignRange(employee.getId(),
+                DateUtil.firstDayOfYear(year), DateUtil.firstDayOfNextYear(year));
 
         Map<Integer, OverallStatisticEmployeeYearResponse> statsMap = new HashMap<>();
 
         for (WorkShiftAssignment wsa : assignments) {
             int month = wsa.getDateAssign().getMonthValue();
-            LocalDate date = wsa.getDateAssign();
-            LocalTime endTime = wsa.getWorkShift().getEndTime();
-            LocalDateTime endDateTime = LocalDateTime.of(date, endTime);
 
             Attendance attendance = wsa.getAttendance();
 
@@ -247,12 +271,8 @@ public class StatisticsServiceImpl implements StatisticService {
                     case PRESENT -> stat.setPresent(stat.getPresent() + 1);
                     case LATE -> stat.setLate(stat.getLate() + 1);
                     case LEAVE -> stat.setLeave(stat.getLeave() + 1);
+                    case ABSENT -> stat.setAbsent(stat.getAbsent() + 1);
                 }
-            } else {
-                if (LocalDateTime.now().isAfter(endDateTime)) {
-                    stat.setAbsent(stat.getAbsent() + 1);
-                }
-
             }
 
             stat.setTotal(stat.getTotal() + 1);
@@ -281,9 +301,9 @@ public class StatisticsServiceImpl implements StatisticService {
     @Override
     public StatisticOverallEmployeeResponse getOverallEmployee( int month, int year) {
         Employee employee = securityUtil.getCurrentUser();
-        Object[] result = (Object[]) workShiftAssignmentRepository.getStatisticOverallEmployeeByMonthAndYear(
+        Object[] result = (Object[]) workShiftAssignmentRepository.getStatisticOverallEmployeeByDateAssignRange(
                 employee.getId(),
-                month, year
+                DateUtil.firstDayOfMonth(month, year), DateUtil.firstDayOfNextMonth(month, year)
         );
 
         long totalAssigned = ((Number) result[0]).longValue();
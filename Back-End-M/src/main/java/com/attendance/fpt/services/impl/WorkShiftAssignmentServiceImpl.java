@@ -1,6 +1,8 @@
 package com.attendance.fpt.services.impl;
 
 
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.ShiftAssignmentIndex;
 import com.attendance.fpt.converter.WorkShiftAssignmentConverter;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.WorkShift;
@@ -10,18 +12,22 @@ import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
 import com.attendance.fpt.model.request.WorkShiftAssignmentListRequest;
 import com.attendance.fpt.model.request.WorkShiftAssignmentRequest;
 import com.attendance.fpt.model.response.WorkShiftAssignmentResponse;
+import com.attendance.fpt.model.response.WorkShiftAssignmentResultResponse;
 import com.attendance.fpt.repositories.EmployeeRepository;
 import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
 import com.attendance.fpt.repositories.WorkShiftRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
 import com.attendance.fpt.services.WorkShiftAssignmentService;
+import com.attendance.fpt.utils.DateUtil;
+import com.attendance.fpt.utils.ShiftIntervalIndex;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,24 +37,69 @@ public class WorkShiftAssignmentServiceImpl implements WorkShiftAssignmentServic
     private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
     private final WorkShiftRepository workShiftRepository;
     private final EmployeeRepository employeeRepository;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final ShiftAssignmentIndex shiftAssignmentIndex;
 
     @Override
     public List<WorkShiftAssignmentResponse> getAllAssignments( Long employeeId, Long workShiftId, Long month, Long year, Long departmentId) {
-        return workShiftAssignmentRepository.filterAssignments( employeeId, workShiftId, month, year, departmentId).stream()
+        // Thiếu tháng hoặc năm thì không lọc theo ngày
+        boolean byMonth = month != null && year != null;
+        LocalDate fromDate = byMonth ? DateUtil.firstDayOfMonth(month, year) : null;
+        LocalDate toDate = byMonth ? DateUtil.firstDayOfNextMonth(month, year) : null;
+        return workShiftAssignmentRepository.filterAssignments(employeeId, workShiftId, fromDate, toDate, departmentId).stream()
                 .map(WorkShiftAssignmentConverter::toResponse)
                 .collect(Collectors.toList());
     }
 
 
 
+    // Thêm tất cả hoặc không thêm gì: chỉ cần một phân ca lỗi thì ném lỗi đó và không ghi gì xuống DB
     @Override
     @Transactional
     public List<WorkShiftAssignmentResponse> addListAssignments(WorkShiftAssignmentListRequest request) {
-        return request.getWorkShiftAssignments().stream()
-                .map(this::addSingleAssignment)
+        List<AssignmentPlan> plans = planAssignments(request.getWorkShiftAssignments());
+        for (AssignmentPlan plan : plans) {
+            if (plan.error() != null) {
+                throw plan.error();
+            }
+        }
+
+        List<WorkShiftAssignment> assignments = plans.stream().map(AssignmentPlan::assignment).toList();
+        insertAssignments(assignments);
+        return assignments.stream()
+                .map(WorkShiftAssignmentConverter::toResponse)
                 .toList();
     }
 
+    // Thêm từng phân ca độc lập, phân ca lỗi được bỏ qua và trả về kết quả cho từng phần tử
+    @Override
+    @Transactional
+    public List<WorkShiftAssignmentResultResponse> addBulkAssignments(WorkShiftAssignmentListRequest request) {
+        List<AssignmentPlan> plans = planAssignments(request.getWorkShiftAssignments());
+        insertAssignments(plans.stream()
+                .map(AssignmentPlan::assignment)
+                .filter(Objects::nonNull)
+                .toList());
+
+        List<WorkShiftAssignmentResultResponse> results = new ArrayList<>(plans.size());
+        for (int i = 0; i < plans.size(); i++) {
+            AssignmentPlan plan = plans.get(i);
+            WorkShiftAssignmentRequest item = plan.request();
+            results.add(WorkShiftAssignmentResultResponse.builder()
+                    .index(i)
+                    .employeeId(item.getEmployeeId())
+                    .workShiftId(item.getWorkShiftId())
+                    .dateAssign(item.getDateAssign())
+                    .success(plan.error() == null)
+                    .duplicate(plan.duplicate())
+                    .workShiftAssignmentId(plan.assignment() != null ? plan.assignment().getId() : null)
+                    .message(plan.error() != null ? plan.error().getMessage() : "Add shift assignment success")
+                    .build());
+        }
+        return results;
+    }
+
     @Override
     public void deleteAssignment(Long employeeId, Long workShiftAssignmentId) {
         WorkShiftAssignment assignment = workShiftAssignmentRepository.findById(workShiftAssignmentId)
@@ -68,34 +119,120 @@ public class WorkShiftAssignmentServiceImpl implements WorkShiftAssignmentServic
         }
 
         workShiftAssignmentRepository.delete(assignment);
+        attendanceCalendarCache.evict(assignment);
+        attendanceRollupService.refresh(assignment);
+        shiftAssignmentIndex.remove(assignment);
     }
 
 
-    private WorkShiftAssignmentResponse addSingleAssignment( WorkShiftAssignmentRequest request){
-        WorkShift workShift = workShiftRepository.findById(request.getWorkShiftId())
-                .orElseThrow(() -> new ResourceNotFoundException("Work shift not found"));
+    private record AssignmentPlan(WorkShiftAssignmentRequest request, WorkShiftAssignment assignment,
+                                  RuntimeException error, boolean duplicate) {
+    }
+
+    // Kiểm tra toàn bộ danh sách với số truy vấn cố định: nạp ca làm và nhân viên vào map, lấy tất cả
+    // phân ca hiện có của các nhân viên trong khoảng ngày bằng một truy vấn rồi kiểm tra trùng ca trong bộ nhớ
+    private List<AssignmentPlan> planAssignments(List<WorkShiftAssignmentRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
 
-        Employee employee = employeeRepository.findById(request.getEmployeeId())
-                .orElseThrow(() -> new ResourceNotFoundException("Employee not found"));
+        Set<Long> workShiftIds = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (WorkShiftAssignmentRequest item : requests) {
+            if (item.getWorkShiftId() != null) {
+                workShiftIds.add(item.getWorkShiftId());
+            }
+            if (item.getEmployeeId() != null) {
+                employeeIds.add(item.getEmployeeId());
+            }
+            if (item.getDateAssign() != null) {
+                minDate = minDate == null || item.getDateAssign().isBefore(minDate) ? item.getDateAssign() : minDate;
+                maxDate = maxDate == null || item.getDateAssign().isAfter(maxDate) ? item.getDateAssign() : maxDate;
+            }
+        }
+
+        Map<Long, WorkShift> workShifts = workShiftRepository.findAllById(workShiftIds).stream()
+                .collect(Collectors.toMap(WorkShift::getId, Function.identity()));
+        Map<Long, Employee> employees = employeeIds.isEmpty() ? Map.of() :
+                employeeRepository.findAllWithDepartmentByIdIn(employeeIds).stream()
+                        .collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+        ShiftIntervalIndex index = new ShiftIntervalIndex();
+        if (!employees.isEmpty() && minDate != null) {
+            workShiftAssignmentRepository.findIntervalsByEmployeesAndDateAssignRange(
+                            employees.keySet(), minDate, maxDate.plusDays(1))
+                    .forEach(interval -> index.add(interval.getEmployeeId(), interval.getDateAssign(),
+                            interval.getWorkShiftId(), interval.getStartTime(), interval.getEndTime()));
+        }
 
-        if (request.getDateAssign().isBefore(LocalDate.now()) ||
-                (request.getDateAssign().equals(LocalDate.now()) && workShift.getStartTime().isBefore(java.time.LocalTime.now()))) {
+        LocalDate today = LocalDate.now();
+        LocalTime nowTime = LocalTime.now();
+        List<AssignmentPlan> plans = new ArrayList<>(requests.size());
+        for (WorkShiftAssignmentRequest item : requests) {
+            // Đã có đúng phân ca này: đánh dấu trùng lặp để việc chạy lại cùng một yêu cầu không bị coi là xung đột
+            if (index.contains(item.getEmployeeId(), item.getDateAssign(), item.getWorkShiftId())) {
+                plans.add(new AssignmentPlan(item, null,
+                        new ConflictException("Work shift assignment already exists for this date"), true));
+                continue;
+            }
+            try {
+                plans.add(new AssignmentPlan(item, planAssignment(item, workShifts, employees, index, today, nowTime), null, false));
+            } catch (IllegalArgumentException | ResourceNotFoundException | ConflictException e) {
+                plans.add(new AssignmentPlan(item, null, e, false));
+            }
+        }
+        return plans;
+    }
+
+    private WorkShiftAssignment planAssignment(WorkShiftAssignmentRequest request,
+                                               Map<Long, WorkShift> workShifts,
+                                               Map<Long, Employee> employees,
+                                               ShiftIntervalIndex index,
+                                               LocalDate today,
+                                               LocalTime nowTime) {
+        if (request.getDateAssign() == null || request.getWorkShiftId() == null || request.getEmployeeId() == null) {
+            throw new IllegalArgumentException("Date assign, work shift id and employee id are required");
+        }
+
+        WorkShift workShift = workShifts.get(request.getWorkShiftId());
+        if (workShift == null) {
+            throw new ResourceNotFoundException("Work shift not found");
+        }
+
+        Employee employee = employees.get(request.getEmployeeId());
+        if (employee == null) {
+            throw new ResourceNotFoundException("Employee not found");
+        }
+
+        if (request.getDateAssign().isBefore(today) ||
+                (request.getDateAssign().equals(today) && workShift.getStartTime().isBefore(nowTime))) {
             throw new ConflictException("Cannot assign work shift in the past");
         }
 
-        if (!workShiftAssignmentRepository.existsOverlappingAssignments(employee.getId(), request.getDateAssign(),
-                workShift.getStartTime(), workShift.getEndTime()).isEmpty()) {
+        if (index.overlaps(employee.getId(), request.getDateAssign(), workShift.getStartTime(), workShift.getEndTime())) {
             throw new ConflictException("Work shift assignment already exists for this date");
         }
+        // Ghi nhận luôn vào chỉ mục để các phần tử sau trong cùng request cũng bị kiểm tra trùng
+        index.add(employee.getId(), request.getDateAssign(), workShift.getId(), workShift.getStartTime(), workShift.getEndTime());
 
-
-        WorkShiftAssignment assignment = WorkShiftAssignment.builder()
+        return WorkShiftAssignment.builder()
                 .dateAssign(request.getDateAssign())
                 .workShift(workShift)
                 .employee(employee)
                 .build();
-        return WorkShiftAssignmentConverter.toResponse(workShiftAssignmentRepository.save(assignment));
     }
 
-
+    private void insertAssignments(List<WorkShiftAssignment> assignments) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        workShiftAssignmentRepository.batchInsert(assignments);
+        assignments.forEach(assignment -> {
+            attendanceCalendarCache.evict(assignment);
+            attendanceRollupService.refresh(assignment);
+            shiftAssignmentIndex.add(assignment);
+        });
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.attendance.fpt.services.impl;
 
+import com.attendance.fpt.cache.WorkShiftCatalog;
 import com.attendance.fpt.converter.WorkShiftConverter;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.entity.WorkShift;
@@ -25,6 +26,7 @@ public class WorkShiftServiceImpl implements WorkShiftService {
 
     private final WorkShiftRepository workShiftRepository;
     private final SecurityUtil securityUtil;
+    private final WorkShiftCatalog workShiftCatalog;
 
     @Override
     public List<WorkShiftResponse> getAllWorkShifts() {
@@ -41,7 +43,9 @@ public class WorkShiftServiceImpl implements WorkShiftService {
         workShift.setEndTime(LocalTime.parse(workShiftRequest.getEndTime()));
         workShift.setPartTime(workShiftRequest.isPartTime());
         workShift.setActive(workShiftRequest.isActive());
-        return WorkShiftConverter.toResponse(workShiftRepository.save(workShift));
+        WorkShiftResponse response = WorkShiftConverter.toResponse(workShiftRepository.save(workShift));
+        workShiftCatalog.reload();
+        return response;
     }
 
     @Override
@@ -53,6 +57,7 @@ public class WorkShiftServiceImpl implements WorkShiftService {
             throw new ConflictException("Cannot delete work shift with existing assignments");
         }
         workShiftRepository.delete(workShift);
+        workShiftCatalog.reload();
         return WorkShiftConverter.toResponse(workShift);
     }
 
@@ -81,7 +86,9 @@ public class WorkShiftServiceImpl implements WorkShiftService {
     public WorkShiftResponse updateStatus(Long workShiftId) {
         WorkShift workShift = workShiftRepository.findById(workShiftId).orElseThrow(() -> new ResourceNotFoundException("Work shift not found"));
         workShift.setActive(!workShift.isActive());
-        return WorkShiftConverter.toResponse(workShiftRepository.save(workShift));
+        WorkShiftResponse response = WorkShiftConverter.toResponse(workShiftRepository.save(workShift));
+        workShiftCatalog.reload();
+        return response;
     }
 
     @Override
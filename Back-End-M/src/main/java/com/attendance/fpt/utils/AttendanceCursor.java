@@ -0,0 +1,37 @@
+package com.attendance.fpt.utils;
+
+import com.attendance.fpt.entity.WorkShiftAssignment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Vị trí (dateAssign, endTime, id) của dòng cuối trang, được mã hoá base64 để client chỉ gửi lại nguyên chuỗi
+public record AttendanceCursor(LocalDate dateAssign, LocalTime endTime, Long id) {
+    private static final String SEPARATOR = "|";
+
+    public static AttendanceCursor of(WorkShiftAssignment workShiftAssignment) {
+        return new AttendanceCursor(workShiftAssignment.getDateAssign(),
+                workShiftAssignment.getWorkShift().getEndTime(), workShiftAssignment.getId());
+    }
+
+    public String encode() {
+        String raw = dateAssign + SEPARATOR + endTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AttendanceCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new AttendanceCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
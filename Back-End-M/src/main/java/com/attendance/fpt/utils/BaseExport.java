@@ -3,112 +3,125 @@ package com.attendance.fpt.utils;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Component
 public class BaseExport {
-    private final XSSFWorkbook workbook = new XSSFWorkbook();
-    private final Map<String, XSSFSheet> sheetMap = new HashMap<>();
+    // Số dòng giữ trong bộ nhớ cho mỗi sheet, các dòng cũ hơn được ghi xuống file tạm
+    private static final int ROW_ACCESS_WINDOW_SIZE = 200;
+    // Chỉ đo độ rộng cột trên các dòng đầu thay vì autoSizeColumn trên toàn bộ dữ liệu
+    private static final int COLUMN_WIDTH_SAMPLE_ROWS = 500;
+    private static final int MAX_COLUMN_WIDTH_CHARS = 60;
+
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+    private final Map<String, SXSSFSheet> sheetMap = new HashMap<>();
     private final Map<String, ExportSheet> sheetDataMap = new HashMap<>();
+    private CellStyle headerStyle;
+    private CellStyle bodyStyle;
 
     public BaseExport addSheet(String sheetName, List<?> data, Class<?> clazz, String[] fields) {
         sheetDataMap.put(sheetName, new ExportSheet(data, clazz, fields));
         return this;
     }
 
+    public BaseExport addSheet(String sheetName, Class<?> clazz, String[] fields) {
+        return addSheet(sheetName, null, clazz, fields);
+    }
+
     public BaseExport writeHeaderLine(String[] headers, String sheetName) {
-        XSSFSheet sheet = workbook.createSheet(sheetName);
+        SXSSFSheet sheet = workbook.createSheet(sheetName);
         sheetMap.put(sheetName, sheet);
 
         Row row = sheet.createRow(0);
-        CellStyle style = createHeaderStyle();
+        CellStyle style = getHeaderStyle();
 
+        ExportSheet exportSheet = sheetDataMap.get(sheetName);
         for (int i = 0; i < headers.length; i++) {
             createCell(row, i, headers[i], style);
+            if (exportSheet != null) {
+                exportSheet.sampleWidth(i, headers[i]);
+            }
         }
 
         return this;
     }
 
     public BaseExport writeDataLines(String sheetName) {
-        XSSFSheet sheet = sheetMap.get(sheetName);
-        ExportSheet exportSheet = sheetDataMap.get(sheetName);
-
-        if (sheet == null || exportSheet == null) {
-            throw new IllegalArgumentException("Sheet '" + sheetName + "' not initialized properly.");
+        ExportSheet exportSheet = getExportSheet(sheetName);
+        if (exportSheet.data != null) {
+            for (Object data : exportSheet.data) {
+                writeDataLine(sheetName, data);
+            }
         }
+        return this;
+    }
 
-        List<?> dataList = exportSheet.data;
-        Class<?> clazz = exportSheet.clazz;
-        String[] fields = exportSheet.fields;
-
-        CellStyle style = createBodyStyle();
-        int rowCount = 1;
+    public BaseExport writeDataLines(String sheetName, Stream<?> dataStream) {
+        dataStream.forEach(data -> writeDataLine(sheetName, data));
+        return this;
+    }
 
-        for (Object data : dataList) {
-            Row row = sheet.createRow(rowCount);
-            int col = 0;
+    public BaseExport writeDataLine(String sheetName, Object data) {
+        SXSSFSheet sheet = sheetMap.get(sheetName);
+        ExportSheet exportSheet = getExportSheet(sheetName);
 
-            createCell(row, col++, rowCount, style);
+        if (sheet == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not initialized properly.");
+        }
 
-            for (String fieldName : fields) {
-                try {
-                    // Truy cập vào các trường lồng nhau (ví dụ: workShift.name)
-                    Object value = getNestedFieldValue(data, fieldName);
-                    createCell(row, col++, value, style);
-                } catch (Exception e) {
-                    throw new RuntimeException("Error accessing field: " + fieldName, e);
-                }
-            }
+        CellStyle style = getBodyStyle();
+        int rowCount = ++exportSheet.rowCount;
+        Row row = sheet.createRow(rowCount);
+        int col = 0;
 
-            rowCount++;
-        }
+        createCell(row, col, rowCount, style);
+        exportSheet.sampleWidth(col++, rowCount);
 
-        for (int i = 0; i < fields.length + 1; i++) {
-            sheet.autoSizeColumn(i);
+        for (FieldPathAccessor accessor : exportSheet.accessors) {
+            // Truy cập vào các trường lồng nhau (ví dụ: workShift.name) qua accessor đã biên dịch sẵn
+            Object value = accessor.get(data);
+            createCell(row, col, value, style);
+            exportSheet.sampleWidth(col++, value);
         }
 
         return this;
     }
 
-    private Object getNestedFieldValue(Object data, String fieldName) throws Exception {
-        String[] fieldParts = fieldName.split("\\."); // Chia tên trường nếu có dấu "."
-        Object currentObject = data;
-
-        for (String field : fieldParts) {
-            Field declaredField = currentObject.getClass().getDeclaredField(field);
-            declaredField.setAccessible(true);
-
-            // Cập nhật currentObject với giá trị của trường đó
-            currentObject = declaredField.get(currentObject);
-
-            // Nếu trường là null thì không tiếp tục nữa
-            if (currentObject == null) {
-                return null;
-            }
+    private ExportSheet getExportSheet(String sheetName) {
+        ExportSheet exportSheet = sheetDataMap.get(sheetName);
+        if (exportSheet == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not initialized properly.");
         }
-
-        return currentObject;
+        return exportSheet;
     }
 
-
-
     public void export(HttpServletResponse response) throws IOException {
+        sheetMap.forEach((sheetName, sheet) -> {
+            ExportSheet exportSheet = sheetDataMap.get(sheetName);
+            if (exportSheet != null) {
+                exportSheet.applyColumnWidths(sheet);
+            }
+        });
+
         ServletOutputStream outputStream = response.getOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-        outputStream.close();
+        try {
+            workbook.write(outputStream);
+        } finally {
+            // Xoá các file tạm mà SXSSF đã ghi ra đĩa
+            workbook.dispose();
+            workbook.close();
+            outputStream.close();
+        }
     }
 
     private void createCell(Row row, int col, Object value, CellStyle style) {
@@ -133,11 +146,25 @@ public class BaseExport {
         cell.setCellStyle(style);
     }
 
+    private CellStyle getHeaderStyle() {
+        if (headerStyle == null) {
+            headerStyle = createHeaderStyle();
+        }
+        return headerStyle;
+    }
+
+    private CellStyle getBodyStyle() {
+        if (bodyStyle == null) {
+            bodyStyle = createBodyStyle();
+        }
+        return bodyStyle;
+    }
+
     private CellStyle createHeaderStyle() {
         CellStyle style = workbook.createCellStyle();
-        XSSFFont font = workbook.createFont();
+        Font font = workbook.createFont();
         font.setBold(true);
-        font.setFontHeight(13);
+        font.setFontHeightInPoints((short) 13);
         font.setFontName("Times New Roman");
         style.setFont(font);
         style.setBorderBottom(BorderStyle.THIN);
@@ -148,8 +175,8 @@ public class BaseExport {
 
     private CellStyle createBodyStyle() {
         CellStyle style = workbook.createCellStyle();
-        XSSFFont font = workbook.createFont();
-        font.setFontHeight(13);
+        Font font = workbook.createFont();
+        font.setFontHeightInPoints((short) 13);
         font.setFontName("Times New Roman");
         style.setFont(font);
         style.setBorderBottom(BorderStyle.THIN);
@@ -161,12 +188,34 @@ public class BaseExport {
     private static class ExportSheet {
         List<?> data;
         Class<?> clazz;
-        String[] fields;
+        FieldPathAccessor[] accessors;
+        int rowCount;
+        int[] columnWidths;
 
         ExportSheet(List<?> data, Class<?> clazz, String[] fields) {
             this.data = data;
             this.clazz = clazz;
-            this.fields = fields;
+            this.accessors = new FieldPathAccessor[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                this.accessors[i] = FieldPathAccessor.of(clazz, fields[i]);
+            }
+            this.columnWidths = new int[fields.length + 1];
+        }
+
+        void sampleWidth(int col, Object value) {
+            if (rowCount > COLUMN_WIDTH_SAMPLE_ROWS || col >= columnWidths.length || value == null) {
+                return;
+            }
+            int length = value instanceof LocalDateTime || value instanceof LocalDate
+                    ? 16
+                    : value.toString().length();
+            columnWidths[col] = Math.max(columnWidths[col], Math.min(length, MAX_COLUMN_WIDTH_CHARS));
+        }
+
+        void applyColumnWidths(SXSSFSheet sheet) {
+            for (int i = 0; i < columnWidths.length; i++) {
+                sheet.setColumnWidth(i, (columnWidths[i] + 3) * 256);
+            }
         }
     }
 }
@@ -23,4 +23,25 @@ public class DateUtil {
         }
         return dateTime.format(DATE_TIME_FORMATTER);
     }
+
+    // Ngày đầu tháng, dùng làm cận dưới (bao gồm) của khoảng [firstDayOfMonth, firstDayOfNextMonth)
+    // để điều kiện lọc theo tháng vẫn dùng được index trên cột ngày
+    public static LocalDate firstDayOfMonth(long month, long year) {
+        if (month < 1 || month > 12 || year < 1900) {
+            throw new IllegalArgumentException("Invalid month or year");
+        }
+        return LocalDate.of((int) year, (int) month, 1);
+    }
+
+    public static LocalDate firstDayOfNextMonth(long month, long year) {
+        return firstDayOfMonth(month, year).plusMonths(1);
+    }
+
+    public static LocalDate firstDayOfYear(long year) {
+        return firstDayOfMonth(1, year);
+    }
+
+    public static LocalDate firstDayOfNextYear(long year) {
+        return firstDayOfYear(year).plusYears(1);
+    }
 }
@@ -0,0 +1,102 @@
+package com.attendance.fpt.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chuỗi truy cập đã biên dịch cho một đường dẫn trường (ví dụ: employee.department.name).
+ * Mỗi cặp (class, path) chỉ được phân giải một lần rồi dùng lại cho mọi dòng, mọi sheet.
+ */
+public final class FieldPathAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final Map<Class<?>, Map<String, FieldPathAccessor>> CACHE = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final MethodHandle[] steps;
+
+    private FieldPathAccessor(String path, MethodHandle[] steps) {
+        this.path = path;
+        this.steps = steps;
+    }
+
+    public static FieldPathAccessor of(Class<?> clazz, String path) {
+        return CACHE.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(path, p -> compile(clazz, p));
+    }
+
+    public Object get(Object target) {
+        Object current = target;
+        try {
+            for (MethodHandle step : steps) {
+                // Nếu giá trị trung gian là null thì không tiếp tục nữa
+                if (current == null) {
+                    return null;
+                }
+                current = (Object) step.invokeExact(current);
+            }
+            return current;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error accessing field: " + path, e);
+        }
+    }
+
+    private static FieldPathAccessor compile(Class<?> clazz, String path) {
+        String[] parts = path.split("\\.");
+        MethodHandle[] steps = new MethodHandle[parts.length];
+        Class<?> currentType = clazz;
+
+        for (int i = 0; i < parts.length; i++) {
+            Method getter = findGetter(currentType, parts[i]);
+            try {
+                if (getter != null) {
+                    steps[i] = MethodHandles.publicLookup().unreflect(getter).asType(GETTER_TYPE);
+                    currentType = getter.getReturnType();
+                } else {
+                    Field field = findField(currentType, parts[i]);
+                    MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+                    steps[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                    currentType = field.getType();
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot access field '" + parts[i] + "' of " + currentType.getName(), e);
+            }
+        }
+
+        return new FieldPathAccessor(path, steps);
+    }
+
+    private static Method findGetter(Class<?> type, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = type.getMethod(prefix + suffix);
+                if (method.getReturnType() != void.class
+                        && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // Thử tiền tố tiếp theo hoặc truy cập trực tiếp vào trường
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                return c.getDeclaredField(name);
+            } catch (NoSuchFieldException ignored) {
+                // Tìm tiếp ở lớp cha
+            }
+        }
+        throw new IllegalArgumentException("Field '" + name + "' not found in " + type.getName());
+    }
+}
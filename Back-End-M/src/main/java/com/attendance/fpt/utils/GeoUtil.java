@@ -0,0 +1,32 @@
+package com.attendance.fpt.utils;
+
+public class GeoUtil {
+    public static final double EARTH_RADIUS_METERS = 6_371_000;
+    public static final double METERS_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    // Khoảng cách theo công thức haversine, đơn vị mét
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_METERS * c;
+    }
+
+    // Nửa chiều cao (độ vĩ) của hình chữ nhật bao quanh vòng tròn bán kính radiusMeters
+    public static double latitudeDelta(double radiusMeters) {
+        return radiusMeters / METERS_PER_DEGREE_LATITUDE;
+    }
+
+    // Nửa chiều rộng (độ kinh) của hình chữ nhật bao quanh vòng tròn bán kính radiusMeters tại vĩ độ latitude
+    public static double longitudeDelta(double latitude, double radiusMeters) {
+        double cos = Math.cos(Math.toRadians(latitude));
+        if (cos < 1e-6) {
+            return 180;
+        }
+        return Math.min(180, radiusMeters / (METERS_PER_DEGREE_LATITUDE * cos));
+    }
+}
@@ -1,9 +1,11 @@
 package com.attendance.fpt.utils;
 
+import com.attendance.fpt.cache.AccountPrincipal;
 import com.attendance.fpt.entity.Account;
 import com.attendance.fpt.entity.Employee;
 import com.attendance.fpt.exceptions.custom.ResourceNotFoundException;
 import com.attendance.fpt.repositories.AccountRepository;
+import com.attendance.fpt.repositories.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -15,9 +17,15 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecurityUtil {
     private final AccountRepository accountRepository;
+    private final EmployeeRepository employeeRepository;
 
     public Employee getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Principal đã được filter nạp sẵn cho request, chỉ lấy tham chiếu theo id,
+        // nhân viên chỉ được truy vấn khi thực sự đọc đến các trường khác ngoài id
+        if (authentication != null && authentication.getPrincipal() instanceof AccountPrincipal principal) {
+            return employeeRepository.getReferenceById(principal.getEmployeeId());
+        }
         if (authentication != null && authentication.getPrincipal() instanceof UserDetails userDetails) {
             Account account = accountRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new ResourceNotFoundException("Account not found with username: " + userDetails.getUsername()));
@@ -0,0 +1,50 @@
+package com.attendance.fpt.utils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Chỉ mục khoảng giờ làm theo (nhân viên, ngày) để kiểm tra trùng ca trong bộ nhớ,
+// cùng điều kiện với existsOverlappingAssignments: start < endKhác && end > startKhác
+public class ShiftIntervalIndex {
+    private final Map<Long, Map<LocalDate, List<Interval>>> intervals = new HashMap<>();
+
+    private record Interval(Long workShiftId, LocalTime startTime, LocalTime endTime) {
+    }
+
+    public boolean overlaps(Long employeeId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        for (Interval interval : sameDay(employeeId, date)) {
+            if (interval.startTime().isBefore(endTime) && interval.endTime().isAfter(startTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Nhân viên đã được phân đúng ca này trong ngày
+    public boolean contains(Long employeeId, LocalDate date, Long workShiftId) {
+        for (Interval interval : sameDay(employeeId, date)) {
+            if (interval.workShiftId().equals(workShiftId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void add(Long employeeId, LocalDate date, Long workShiftId, LocalTime startTime, LocalTime endTime) {
+        intervals.computeIfAbsent(employeeId, id -> new HashMap<>())
+                .computeIfAbsent(date, d -> new ArrayList<>(2))
+                .add(new Interval(workShiftId, startTime, endTime));
+    }
+
+    private List<Interval> sameDay(Long employeeId, LocalDate date) {
+        Map<LocalDate, List<Interval>> byDate = intervals.get(employeeId);
+        if (byDate == null) {
+            return List.of();
+        }
+        return byDate.getOrDefault(date, List.of());
+    }
+}
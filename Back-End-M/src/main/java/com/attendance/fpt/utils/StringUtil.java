@@ -10,4 +10,13 @@ public class StringUtil {
         text = text.replaceAll("\\s+", "-");
         return text;
     }
+
+    // Bỏ dấu tiếng Việt (kể cả đ/Đ mà stripAccents không xử lý), chuyển chữ thường và gộp khoảng trắng để so khớp khi tìm kiếm
+    public static String foldForSearch(String text) {
+        if (text == null) {
+            return "";
+        }
+        text = StringUtils.stripAccents(text).replace('đ', 'd').replace('Đ', 'D');
+        return text.toLowerCase().replaceAll("\\s+", " ").trim();
+    }
 }
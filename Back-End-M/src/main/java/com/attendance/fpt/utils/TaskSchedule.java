@@ -1,17 +1,23 @@
 package com.attendance.fpt.utils;
 
-import com.attendance.fpt.entity.WorkShiftAssignment;
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.cache.ShiftAssignmentIndex;
 import com.attendance.fpt.repositories.OtpRepository;
 import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
-import com.attendance.fpt.services.EmailService;
+import com.attendance.fpt.services.AttendanceRollupService;
+import com.attendance.fpt.services.EmailOutboxService;
+import com.attendance.fpt.services.NotificationHub;
+import com.attendance.fpt.services.NotificationRetentionService;
+import com.attendance.fpt.services.NotificationService;
+import com.attendance.fpt.services.ShiftClosingService;
+import com.attendance.fpt.services.ShiftReminderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -19,7 +25,16 @@ public class TaskSchedule {
 
     private final OtpRepository otpRepository;
     private final WorkShiftAssignmentRepository workShiftAssignmentRepository;
-    private final EmailService emailService;
+    private final ShiftReminderService shiftReminderService;
+    private final EmailOutboxService emailOutboxService;
+    private final AttendanceCalendarCache attendanceCalendarCache;
+    private final ShiftAssignmentIndex shiftAssignmentIndex;
+    private final AttendanceRollupService attendanceRollupService;
+    private final ShiftClosingService shiftClosingService;
+    private final NotificationHub notificationHub;
+    private final NotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
+    private final EmployeeSearchIndex employeeSearchIndex;
 
     @Scheduled(fixedRate = 300000)
     @Transactional
@@ -45,28 +60,61 @@ public class TaskSchedule {
             currentMonth = currentMonth - 1;  // Giảm tháng đi 1 để lấy tháng trước
         }
 
-        workShiftAssignmentRepository.lockAllWorkShiftAssignmentForMonthAndYear(currentMonth, currentYear);
+        workShiftAssignmentRepository.lockAllWorkShiftAssignmentByDateAssignRange(
+                DateUtil.firstDayOfMonth(currentMonth, currentYear), DateUtil.firstDayOfNextMonth(currentMonth, currentYear));
+        attendanceCalendarCache.evictAll();
         System.out.printf("Attendance records locked for month %d, year %d at %s%n", currentMonth, currentYear, LocalDateTime.now());
     }
 
     @Scheduled(fixedRate = 240000)
-    @Transactional
     public void remindUpcomingCheckIn() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalTime nowTime = now.toLocalTime();
-        LocalTime fiveMinutesLaterTime = nowTime.plusMinutes(5);
+        shiftReminderService.remindUpcomingShifts();
+    }
+
+    // Ghi nhận vắng mặt cho các ca vừa kết thúc mà nhân viên không chấm công
+    @Scheduled(fixedDelayString = "${app.attendance.close-shift.interval-ms:60000}")
+    public void closeEndedShifts() {
+        shiftClosingService.closeEndedShifts();
+    }
 
-        List<WorkShiftAssignment> upcomingAssignments =
-                workShiftAssignmentRepository.findUpcomingShiftsWithoutCheckIn(nowTime, fiveMinutesLaterTime);
+    // Dời cửa sổ hôm qua/hôm nay/ngày mai của chỉ mục phân ca sang ngày mới
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rebuildShiftAssignmentIndex() {
+        shiftAssignmentIndex.rebuild();
+    }
 
-        for (WorkShiftAssignment assignment : upcomingAssignments) {
-            String message = "Ca của bạn bắt đầu lúc " + assignment.getWorkShift().getStartTime()
-                    + ". Đừng quên check-in nhé!";
-            emailService.sendReminderEmail(assignment.getEmployee().getEmail(), message);
+    // Chỉ mục tìm kiếm nhân viên chỉ được nạp lại khi ghi trên node này, dựng lại định kỳ để nhận thay đổi từ node khác
+    @Scheduled(fixedDelayString = "${app.employee-search.refresh-ms:300000}")
+    public void refreshEmployeeSearchIndex() {
+        employeeSearchIndex.refresh();
+    }
 
-            assignment.setReminderSent(true);
-            workShiftAssignmentRepository.save(assignment);
-        }
+    // Đối soát bảng tổng hợp chấm công của những ngày gần đây với dữ liệu gốc
+    @Scheduled(cron = "${app.statistics.rollup.reconcile-cron:0 30 0 * * *}")
+    public void reconcileAttendanceRollups() {
+        attendanceRollupService.reconcileRecentDays();
+    }
+
+    // Quét lại outbox để gửi email đến hạn thử lại hoặc bị bỏ sót khi worker dừng giữa chừng
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:30000}")
+    public void dispatchEmailOutbox() {
+        emailOutboxService.dispatchPending();
+    }
+
+    // Tiếp tục các yêu cầu thông báo hàng loạt bị lỗi giữa chừng hoặc bị bỏ sót khi node dừng
+    @Scheduled(fixedDelayString = "${app.notification.broadcast.poll-interval-ms:30000}")
+    public void dispatchNotificationBroadcasts() {
+        notificationService.dispatchPendingBroadcasts();
+    }
+
+    @Scheduled(fixedRateString = "${app.notification.stream.heartbeat-ms:25000}")
+    public void sendNotificationHeartbeat() {
+        notificationHub.heartbeat();
+    }
+
+    @Scheduled(cron = "${app.notification.retention.cron:0 15 1 * * *}")
+    public void purgeExpiredNotifications() {
+        notificationRetentionService.purgeExpired();
     }
 
 }
\ No newline at end of file
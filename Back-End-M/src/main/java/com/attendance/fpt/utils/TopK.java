@@ -0,0 +1,34 @@
+package com.attendance.fpt.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Lấy k phần tử đứng đầu theo comparator bằng heap có kích thước tối đa k: O(n log k) thay vì sắp xếp cả danh sách
+public class TopK {
+
+    private TopK() {
+    }
+
+    // Kết quả đã được sắp xếp theo thứ tự của comparator, phần tử đứng đầu nằm ở vị trí 0
+    public static <T> List<T> first(Iterable<T> items, int k, Comparator<? super T> order) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // Đỉnh heap là phần tử xếp cuối trong k phần tử đang giữ, bị thay khi gặp phần tử tốt hơn
+        Comparator<? super T> reversed = order.reversed();
+        PriorityQueue<T> heap = new PriorityQueue<>(k + 1, reversed);
+        for (T item : items) {
+            if (heap.size() < k) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+-- Chuyển bảng notifications sang phân vùng theo tháng trên MySQL 8. Chạy một lần trong giờ bảo trì
+-- (ALTER dựng lại toàn bộ bảng), sau đó bật app.notification.retention.partitioning.enabled=true
+-- để job dọn dẹp tự thêm phân vùng cho các tháng tới và xoá phân vùng của các tháng đã hết hạn.
+--
+-- Bảng phân vùng không hỗ trợ khoá ngoại và mọi khoá chính/unique phải chứa cột phân vùng,
+-- nên phải bỏ khoá ngoại tới employees và đưa created_at vào khoá chính.
+-- Với ddl-auto=update Hibernate sẽ thử tạo lại khoá ngoại khi khởi động và chỉ ghi log lỗi, không ảnh hưởng ứng dụng.
+
+-- Tên khoá ngoại do Hibernate sinh nên tra trong information_schema
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE
+           WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'notifications'
+             AND COLUMN_NAME = 'employee_id' AND REFERENCED_TABLE_NAME IS NOT NULL
+           LIMIT 1);
+SET @sql = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE notifications DROP FOREIGN KEY ', @fk));
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+UPDATE notifications SET created_at = NOW(6) WHERE created_at IS NULL;
+ALTER TABLE notifications MODIFY created_at DATETIME(6) NOT NULL;
+ALTER TABLE notifications DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+-- Tạo một phân vùng cho mỗi tháng từ tháng cũ nhất đang có dữ liệu đến 3 tháng tới
+-- (khớp app.notification.retention.partitioning.months-ahead), để p_future rỗng và job chỉ phải
+-- tách các tháng mới từ một phân vùng không có dữ liệu
+SET SESSION group_concat_max_len = 1000000;
+SET @first_month = DATE_FORMAT(COALESCE((SELECT MIN(created_at) FROM notifications), CURDATE()), '%Y-%m-01');
+SET @last_month = DATE_FORMAT(CURDATE() + INTERVAL 3 MONTH, '%Y-%m-01');
+
+SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                           ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ''')')
+                    ORDER BY month_start SEPARATOR ', ')
+INTO @partitions
+FROM (
+    WITH RECURSIVE months (month_start) AS (
+        SELECT CAST(@first_month AS DATE)
+        UNION ALL
+        SELECT month_start + INTERVAL 1 MONTH FROM months WHERE month_start < @last_month
+    )
+    SELECT month_start FROM months
+) AS partition_months;
+
+SET @sql = CONCAT('ALTER TABLE notifications PARTITION BY RANGE COLUMNS (created_at) (', @partitions,
+                  ', PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,48 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.repositories.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class EmployeeSearchIndexTest {
+
+    private EmployeeRepository employeeRepository;
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        when(employeeRepository.findAllSearchEntries()).thenReturn(List.of(
+                new EmployeeTrigramIndex.Entry(1L, "Nguyễn Văn An", "an@fpt.test", null, null),
+                new EmployeeTrigramIndex.Entry(2L, "Nguyễn Thị Bình", "binh@fpt.test", null, null),
+                new EmployeeTrigramIndex.Entry(3L, "Trần Minh", "minh@fpt.test", null, null)));
+        employeeSearchIndex = new EmployeeSearchIndex(employeeRepository);
+        ReflectionTestUtils.setField(employeeSearchIndex, "maxIds", 1);
+    }
+
+    @Test
+    void match_fallsBackToKeywordWhenTooManyEmployeesMatch() {
+        assertEquals(EmployeeSearchIndex.Filter.NONE, employeeSearchIndex.match(" ", EmployeeTrigramIndex.Field.NAME));
+        assertEquals(new EmployeeSearchIndex.Filter(Set.of(3L), null),
+                employeeSearchIndex.match("tran", EmployeeTrigramIndex.Field.NAME));
+        assertEquals(new EmployeeSearchIndex.Filter(null, "nguyen"),
+                employeeSearchIndex.match(" nguyen ", EmployeeTrigramIndex.Field.NAME));
+    }
+
+    @Test
+    void refresh_reloadsOnlyAfterFirstUse() {
+        employeeSearchIndex.refresh();
+        verify(employeeRepository, never()).findAllSearchEntries();
+
+        employeeSearchIndex.match("tran", EmployeeTrigramIndex.Field.NAME);
+        employeeSearchIndex.refresh();
+        verify(employeeRepository, times(2)).findAllSearchEntries();
+    }
+}
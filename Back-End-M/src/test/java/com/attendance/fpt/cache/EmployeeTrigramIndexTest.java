@@ -0,0 +1,108 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.utils.StringUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeTrigramIndexTest {
+
+    private static final String[] LAST_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Võ", "Đặng", "Bùi"};
+    private static final String[] MIDDLE_NAMES = {"Văn", "Thị", "Minh", "Đức", "Ngọc", "Quốc"};
+    private static final String[] FIRST_NAMES = {"An", "Bình", "Cường", "Dũng", "Hà", "Hương", "Khoa", "Linh", "Nam", "Tâm", "Thảo", "Vy"};
+
+    @Test
+    void search_ignoresDiacriticsAndCaseAndRespectsFields() {
+        EmployeeTrigramIndex index = EmployeeTrigramIndex.of(List.of(
+                new EmployeeTrigramIndex.Entry(1L, "Nguyễn Văn Đức", "duc.nv@fpt.test", "0901234567", "Kế toán"),
+                new EmployeeTrigramIndex.Entry(2L, "Trần Thị Hoa", "hoa.tt@fpt.test", "0912345678", "Nhân sự"),
+                new EmployeeTrigramIndex.Entry(3L, "Lê Minh", "minh.le@fpt.test", null, null)));
+
+        assertEquals(Set.of(1L), index.search("duc", EmployeeTrigramIndex.Field.NAME));
+        assertEquals(Set.of(1L), index.search("VĂN ĐỨC", EmployeeTrigramIndex.Field.NAME));
+        assertEquals(Set.of(2L), index.search("nhan su", EmployeeTrigramIndex.Field.DEPARTMENT));
+        assertEquals(Set.of(1L, 2L), index.search("09", EmployeeTrigramIndex.Field.PHONE));
+        assertEquals(Set.of(3L), index.search("minh.le@", EmployeeTrigramIndex.Field.NAME, EmployeeTrigramIndex.Field.EMAIL));
+        assertTrue(index.search("minh.le@", EmployeeTrigramIndex.Field.NAME).isEmpty());
+        assertEquals(Set.of(1L, 2L, 3L), index.search("fpt"));
+        assertTrue(index.search("không có").isEmpty());
+    }
+
+    @Test
+    void search_matchesBruteForceScan() {
+        Random random = new Random(42);
+        List<EmployeeTrigramIndex.Entry> entries = randomEntries(random, 300);
+        EmployeeTrigramIndex index = EmployeeTrigramIndex.of(entries);
+
+        for (String query : randomQueries(random, 100)) {
+            assertEquals(bruteForce(entries, query), index.search(query, EmployeeTrigramIndex.Field.NAME), query);
+        }
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstBruteForceScan() {
+        Random random = new Random(42);
+        List<EmployeeTrigramIndex.Entry> entries = randomEntries(random, 10_000);
+        EmployeeTrigramIndex index = EmployeeTrigramIndex.of(entries);
+        List<String> queries = randomQueries(random, 500);
+
+        long indexStart = System.nanoTime();
+        for (String query : queries) {
+            index.search(query, EmployeeTrigramIndex.Field.NAME);
+        }
+        long indexNanos = System.nanoTime() - indexStart;
+
+        long scanStart = System.nanoTime();
+        for (String query : queries) {
+            bruteForce(entries, query);
+        }
+        long scanNanos = System.nanoTime() - scanStart;
+
+        System.out.printf("Employee search over %d employees, %d queries: index %d ms, full scan %d ms%n",
+                entries.size(), queries.size(), indexNanos / 1_000_000, scanNanos / 1_000_000);
+    }
+
+    private static List<EmployeeTrigramIndex.Entry> randomEntries(Random random, int count) {
+        List<EmployeeTrigramIndex.Entry> entries = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            String name = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+                    + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)] + " "
+                    + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + i;
+            entries.add(new EmployeeTrigramIndex.Entry(i, name, "employee" + i + "@fpt.test",
+                    "09" + (10_000_000 + i), "Phòng " + (i % 20)));
+        }
+        return entries;
+    }
+
+    // Truy vấn 1-2 ký tự, tên có dấu, số và chuỗi không khớp
+    private static List<String> randomQueries(Random random, int count) {
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            queries.add(switch (i % 5) {
+                case 0 -> FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                case 1 -> "đức " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].toLowerCase();
+                case 2 -> String.valueOf(random.nextInt(300));
+                case 3 -> FIRST_NAMES[random.nextInt(FIRST_NAMES.length)].substring(0, 2);
+                default -> "xyz" + i;
+            });
+        }
+        return queries;
+    }
+
+    private static Set<Long> bruteForce(List<EmployeeTrigramIndex.Entry> entries, String query) {
+        String needle = StringUtil.foldForSearch(query);
+        Set<Long> matches = new HashSet<>();
+        for (EmployeeTrigramIndex.Entry entry : entries) {
+            if (StringUtil.foldForSearch(entry.fullName()).contains(needle)) {
+                matches.add(entry.id());
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,36 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.exceptions.custom.ConflictException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyCacheTest {
+
+    private final IdempotencyCache idempotencyCache = new IdempotencyCache();
+
+    @Test
+    void execute_replaysFirstResultForSameKeyAndUser() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = idempotencyCache.execute("check-in", "employee", "key-1", () -> "result-" + calls.incrementAndGet());
+        String second = idempotencyCache.execute("check-in", "employee", "key-1", () -> "result-" + calls.incrementAndGet());
+        String otherUser = idempotencyCache.execute("check-in", "other", "key-1", () -> "result-" + calls.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals("result-2", otherUser);
+    }
+
+    @Test
+    void execute_allowsRetryAfterFailure() {
+        assertThrows(ConflictException.class, () -> idempotencyCache.execute("check-in", "employee", "key-2", () -> {
+            throw new ConflictException("No active shift found");
+        }));
+
+        assertEquals("ok", idempotencyCache.execute("check-in", "employee", "key-2", () -> "ok"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.Location;
+import com.attendance.fpt.utils.GeoUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocationGridTest {
+
+    @Test
+    void findNearestContaining_picksClosestOverlappingGeofence() {
+        LocationGrid grid = LocationGrid.of(List.of(
+                location(1L, 10.7769, 106.7009, 500),
+                location(2L, 10.7780, 106.7020, 300),
+                location(3L, 21.0285, 105.8542, 200)));
+
+        assertEquals(2L, grid.findNearestContaining(10.7779, 106.7019).orElseThrow().location().id());
+        assertEquals(1L, grid.findNearestContaining(10.7750, 106.6990).orElseThrow().location().id());
+        assertTrue(grid.findNearestContaining(16.0544, 108.2022).isEmpty());
+    }
+
+    @Test
+    void findNearestContaining_matchesBruteForceScan() {
+        Random random = new Random(42);
+        List<Location> locations = randomLocations(random, 500);
+        LocationGrid grid = LocationGrid.of(locations);
+
+        for (double[] point : randomPoints(random, locations, 300)) {
+            assertEquals(bruteForce(locations, point[0], point[1]),
+                    grid.findNearestContaining(point[0], point[1]).map(match -> match.location().id()));
+        }
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstBruteForceScan() {
+        Random random = new Random(42);
+        List<Location> locations = randomLocations(random, 10_000);
+        LocationGrid grid = LocationGrid.of(locations);
+        List<double[]> points = randomPoints(random, locations, 2_000);
+
+        long gridStart = System.nanoTime();
+        for (double[] point : points) {
+            grid.findNearestContaining(point[0], point[1]);
+        }
+        long gridNanos = System.nanoTime() - gridStart;
+
+        long scanStart = System.nanoTime();
+        for (double[] point : points) {
+            bruteForce(locations, point[0], point[1]);
+        }
+        long scanNanos = System.nanoTime() - scanStart;
+
+        System.out.printf("LocationGrid: %d queries over %d locations, grid %.1f ms, brute force %.1f ms%n",
+                points.size(), locations.size(), gridNanos / 1e6, scanNanos / 1e6);
+    }
+
+    private List<Location> randomLocations(Random random, int count) {
+        List<Location> locations = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            locations.add(location(i, 8.5 + random.nextDouble() * 14.5, 102.5 + random.nextDouble() * 7,
+                    50 + random.nextInt(950)));
+        }
+        return locations;
+    }
+
+    // Một nửa số điểm nằm gần một địa điểm có sẵn để có cả trường hợp khớp và không khớp
+    private List<double[]> randomPoints(Random random, List<Location> locations, int count) {
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Location near = locations.get(random.nextInt(locations.size()));
+            points.add(i % 2 == 0
+                    ? new double[]{near.getLatitude() + (random.nextDouble() - 0.5) * 0.01,
+                    near.getLongitude() + (random.nextDouble() - 0.5) * 0.01}
+                    : new double[]{8.5 + random.nextDouble() * 14.5, 102.5 + random.nextDouble() * 7});
+        }
+        return points;
+    }
+
+    private Optional<Long> bruteForce(List<Location> locations, double latitude, double longitude) {
+        Long nearestId = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Location location : locations) {
+            double distance = GeoUtil.distanceMeters(latitude, longitude, location.getLatitude(), location.getLongitude());
+            if (distance <= location.getRadius() && distance < nearestDistance) {
+                nearestId = location.getId();
+                nearestDistance = distance;
+            }
+        }
+        return Optional.ofNullable(nearestId);
+    }
+
+    private Location location(Long id, double latitude, double longitude, long radius) {
+        return Location.builder()
+                .id(id)
+                .name("Địa điểm " + id)
+                .latitude(latitude)
+                .longitude(longitude)
+                .radius(radius)
+                .active(true)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.Employee;
+import com.attendance.fpt.entity.WorkShift;
+import com.attendance.fpt.entity.WorkShiftAssignment;
+import com.attendance.fpt.model.response.ShiftAssignmentSlotResponse;
+import com.attendance.fpt.repositories.WorkShiftAssignmentRepository;
+import com.attendance.fpt.repositories.WorkShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShiftAssignmentIndexTest {
+
+    private final LocalDate today = LocalDate.now();
+
+    private WorkShiftAssignmentRepository workShiftAssignmentRepository;
+    private ShiftAssignmentIndex shiftAssignmentIndex;
+    private WorkShift morning;
+
+    @BeforeEach
+    void setUp() {
+        morning = new WorkShift();
+        morning.setId(1L);
+        morning.setStartTime(LocalTime.of(8, 0));
+        morning.setEndTime(LocalTime.of(12, 0));
+        WorkShiftRepository workShiftRepository = mock(WorkShiftRepository.class);
+        when(workShiftRepository.findAll()).thenReturn(List.of(morning));
+
+        workShiftAssignmentRepository = mock(WorkShiftAssignmentRepository.class);
+        shiftAssignmentIndex = new ShiftAssignmentIndex(workShiftAssignmentRepository, new WorkShiftCatalog(workShiftRepository));
+    }
+
+    @Test
+    void rebuild_keepsChangesCommittedWhileSnapshotIsLoading() {
+        WorkShiftAssignment added = assignment(10L, 100L);
+        WorkShiftAssignment removed = assignment(11L, 101L);
+
+        // Snapshot đọc trước khi phân ca 10 được thêm và trước khi phân ca 11 bị xoá;
+        // hai thay đổi đó commit trong lúc rebuild vẫn đang chạy
+        when(workShiftAssignmentRepository.findSlotsByDateAssignRange(any(), any())).thenAnswer(invocation -> {
+            shiftAssignmentIndex.add(added);
+            shiftAssignmentIndex.remove(removed);
+            return List.of(new ShiftAssignmentSlotResponse(11L, 101L, today, 1L));
+        });
+        shiftAssignmentIndex.rebuild();
+
+        assertTrue(shiftAssignmentIndex.overlaps(100L, today, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        assertFalse(shiftAssignmentIndex.overlaps(101L, today, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    void add_isIdempotentWhenSnapshotAlreadyContainsTheAssignment() {
+        WorkShiftAssignment assignment = assignment(10L, 100L);
+        when(workShiftAssignmentRepository.findSlotsByDateAssignRange(any(), any())).thenAnswer(invocation -> {
+            shiftAssignmentIndex.add(assignment);
+            return List.of(new ShiftAssignmentSlotResponse(10L, 100L, today, 1L));
+        });
+        shiftAssignmentIndex.rebuild();
+
+        shiftAssignmentIndex.remove(assignment);
+        assertEquals(Optional.empty(), shiftAssignmentIndex.findCurrentAssignmentId(100L, today, LocalTime.of(9, 0)));
+    }
+
+    private WorkShiftAssignment assignment(Long id, Long employeeId) {
+        Employee employee = Employee.builder().id(employeeId).build();
+        return WorkShiftAssignment.builder().id(id).employee(employee).workShift(morning).dateAssign(today).build();
+    }
+}
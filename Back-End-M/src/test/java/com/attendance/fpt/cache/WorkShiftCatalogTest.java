@@ -0,0 +1,52 @@
+package com.attendance.fpt.cache;
+
+import com.attendance.fpt.entity.WorkShift;
+import com.attendance.fpt.repositories.WorkShiftRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkShiftCatalogTest {
+
+    private WorkShiftCatalog workShiftCatalog;
+
+    @BeforeEach
+    void setUp() {
+        WorkShiftRepository workShiftRepository = mock(WorkShiftRepository.class);
+        when(workShiftRepository.findAll()).thenReturn(List.of(
+                workShift(1L, "07:00", "17:00"),
+                workShift(2L, "08:00", "12:00"),
+                workShift(3L, "13:00", "17:00"),
+                workShift(4L, "18:00", "22:00")));
+        workShiftCatalog = new WorkShiftCatalog(workShiftRepository);
+    }
+
+    @Test
+    void findCoveringShiftIds_includesLongShiftStartedBeforeShorterOnes() {
+        assertEquals(Set.of(1L, 2L), workShiftCatalog.findCoveringShiftIds(LocalTime.of(9, 0)));
+        assertEquals(Set.of(1L), workShiftCatalog.findCoveringShiftIds(LocalTime.of(12, 30)));
+        assertEquals(Set.of(1L, 3L), workShiftCatalog.findCoveringShiftIds(LocalTime.of(17, 0)));
+    }
+
+    @Test
+    void findCoveringShiftIds_returnsEmptyOutsideAllShifts() {
+        assertEquals(Set.of(), workShiftCatalog.findCoveringShiftIds(LocalTime.of(6, 59)));
+        assertEquals(Set.of(), workShiftCatalog.findCoveringShiftIds(LocalTime.of(17, 30)));
+        assertEquals(Set.of(), workShiftCatalog.findCoveringShiftIds(LocalTime.of(23, 0)));
+    }
+
+    private WorkShift workShift(Long id, String startTime, String endTime) {
+        WorkShift workShift = new WorkShift();
+        workShift.setId(id);
+        workShift.setStartTime(LocalTime.parse(startTime));
+        workShift.setEndTime(LocalTime.parse(endTime));
+        return workShift;
+    }
+}
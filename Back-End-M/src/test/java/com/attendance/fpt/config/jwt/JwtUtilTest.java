@@ -0,0 +1,129 @@
+package com.attendance.fpt.config.jwt;
+
+import com.attendance.fpt.entity.Account;
+import com.attendance.fpt.enums.TokenType;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String ACCESS_SECRET = secret('a');
+    private static final String REFRESH_SECRET = secret('r');
+
+    private JwtUtil jwtUtil;
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = jwtUtil(60_000);
+        account = Account.builder().id(1L).username("nhanvien@fpt.test").build();
+    }
+
+    @Test
+    void parseClaims_returnsSameClaimsFromCache() {
+        String token = jwtUtil.generateAccessToken(account);
+
+        Claims first = jwtUtil.parseClaims(token, TokenType.ACCESS_TOKEN);
+        Claims second = jwtUtil.parseClaims(token, TokenType.ACCESS_TOKEN);
+
+        assertSame(first, second);
+        assertEquals("nhanvien@fpt.test", jwtUtil.getUserNameFromJwtToken(token, TokenType.ACCESS_TOKEN));
+        assertEquals(1, second.get("id", Integer.class));
+    }
+
+    @Test
+    void parseClaims_rejectsExpiredTokenOnCacheMiss() throws InterruptedException {
+        String expired = jwtUtil(-1_000).generateAccessToken(account);
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(expired, TokenType.ACCESS_TOKEN));
+
+        // exp của JWT tính theo giây nên token hết hạn trong khoảng 1-2 giây; mục cache hết hạn cùng lúc
+        String shortLived = jwtUtil(2_000).generateAccessToken(account);
+        jwtUtil.parseClaims(shortLived, TokenType.ACCESS_TOKEN);
+        Thread.sleep(2_100);
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(shortLived, TokenType.ACCESS_TOKEN));
+    }
+
+    @Test
+    void parseClaims_doesNotAcceptRefreshTokenAsAccessToken() {
+        String refreshToken = jwtUtil.generateRefreshToken(account);
+
+        // Token đã được xác thực và cache dưới loại REFRESH_TOKEN vẫn phải bị từ chối khi dùng làm access token
+        assertEquals("nhanvien@fpt.test", jwtUtil.parseClaims(refreshToken, TokenType.REFRESH_TOKEN).getSubject());
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(refreshToken, TokenType.ACCESS_TOKEN));
+        assertThrows(JwtException.class, () -> jwtUtil.validateJwtToken(refreshToken, TokenType.ACCESS_TOKEN));
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkFilterPath() {
+        int accounts = 500;
+        int requests = 50_000;
+        JwtUtil jwtUtil = jwtUtil(3_600_000);
+        String[] tokens = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            tokens[i] = jwtUtil.generateAccessToken(Account.builder().id((long) i).username("user" + i + "@fpt.test").build());
+        }
+        JwtParser sharedParser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(ACCESS_SECRET))).build();
+
+        // Trước đây: mỗi request giải mã secret, dựng parser và xác thực token hai lần (validate rồi đọc subject)
+        long start = System.nanoTime();
+        int sink = 0;
+        for (int i = 0; i < requests; i++) {
+            String token = tokens[i % accounts];
+            freshParser().parseClaimsJws(token);
+            sink += freshParser().parseClaimsJws(token).getBody().getSubject().length();
+        }
+        long freshNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += sharedParser.parseClaimsJws(tokens[i % accounts]).getBody().getSubject().length();
+        }
+        long sharedNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            sink += jwtUtil.parseClaims(tokens[i % accounts], TokenType.ACCESS_TOKEN).getSubject().length();
+        }
+        long cachedNanos = System.nanoTime() - start;
+
+        System.out.printf("JwtUtil: %d requests over %d tokens, fresh parser x2 %.1f ms, shared parser %.1f ms, cached claims %.1f ms [%d]%n",
+                requests, accounts, freshNanos / 1e6, sharedNanos / 1e6, cachedNanos / 1e6, sink);
+    }
+
+    private static JwtParser freshParser() {
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(ACCESS_SECRET))).build();
+    }
+
+    private static JwtUtil jwtUtil(int accessExpirationMs) {
+        JwtUtil jwtUtil = new JwtUtil();
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("jwtAccessSecret", ACCESS_SECRET);
+        fields.put("jwtRefreshSecret", REFRESH_SECRET);
+        fields.put("jwtAccessExpirationMs", accessExpirationMs);
+        fields.put("jwtRefreshExpirationMs", 600_000);
+        fields.forEach((name, value) -> ReflectionTestUtils.setField(jwtUtil, name, value));
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static String secret(char seed) {
+        return Base64.getEncoder().encodeToString(String.valueOf(seed).repeat(64).getBytes());
+    }
+}
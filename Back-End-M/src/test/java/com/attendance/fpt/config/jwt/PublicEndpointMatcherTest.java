@@ -0,0 +1,102 @@
+package com.attendance.fpt.config.jwt;
+
+import com.attendance.fpt.constraints.Endpoints;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublicEndpointMatcherTest {
+
+    private final PublicEndpointMatcher matcher = new PublicEndpointMatcher();
+
+    @Test
+    void matches_exactPublicEndpoints() {
+        assertTrue(matcher.matches("/api/v1/auth/login"));
+        assertTrue(matcher.matches("/api/v1/auth/refresh-token"));
+        assertTrue(matcher.matches("/api/v1/auth/change-password-first-login"));
+        assertTrue(matcher.matches("/api/v1/auth/forgot-password"));
+    }
+
+    @Test
+    void matches_singleSegmentWildcard() {
+        assertTrue(matcher.matches("/api/v1/otp/send"));
+        assertTrue(matcher.matches("/api/v1/otp/reset-password"));
+
+        assertFalse(matcher.matches("/api/v1/otp"));
+        assertFalse(matcher.matches("/api/v1/otp/"));
+        assertFalse(matcher.matches("/api/v1/otp/send/extra"));
+    }
+
+    @Test
+    void doesNotMatch_protectedEndpoints() {
+        assertFalse(matcher.matches("/api/v1/auth/logout"));
+        assertFalse(matcher.matches("/api/v1/auth/login/extra"));
+        assertFalse(matcher.matches("/api/v1/employees/profile"));
+        assertFalse(matcher.matches("/api/v1/otpx/send"));
+        assertFalse(matcher.matches((String) null));
+    }
+
+    @Test
+    void matches_anyPathWildcard() {
+        PublicEndpointMatcher anyPath = new PublicEndpointMatcher("/public/**");
+
+        assertTrue(anyPath.matches("/public"));
+        assertTrue(anyPath.matches("/public/a"));
+        assertTrue(anyPath.matches("/public/a/b"));
+        assertFalse(anyPath.matches("/publicity"));
+    }
+
+    @Test
+    void matches_servletRequestUri() {
+        assertTrue(matcher.matches(new MockHttpServletRequest("POST", "/api/v1/auth/login")));
+        assertFalse(matcher.matches(new MockHttpServletRequest("GET", "/api/v1/attendances")));
+    }
+
+    @Test
+    void rejects_unsupportedPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> new PublicEndpointMatcher("/api/*/login"));
+        assertThrows(IllegalArgumentException.class, () -> new PublicEndpointMatcher("/api/{id}"));
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstRegexAnyMatch() {
+        String[] paths = {
+                "/api/v1/auth/login", "/api/v1/auth/refresh-token", "/api/v1/otp/send",
+                "/api/v1/attendances", "/api/v1/employees/profile", "/api/v1/requests/42/approve",
+                "/api/v1/notifications/unread", "/api/v1/shifts/today"
+        };
+        int requests = 2_000_000;
+
+        // Trước đây AuthTokenFilter biên dịch lại từng mẫu thành regex trên mỗi request.
+        // Số lần khớp khác nhau vì regex hiểu "/otp/*" là "/otp" kèm 0..n dấu "/" nên bỏ sót "/api/v1/otp/send"
+        long start = System.nanoTime();
+        int regexHits = 0;
+        for (int i = 0; i < requests; i++) {
+            String path = paths[i % paths.length];
+            if (Arrays.stream(Endpoints.PUBLIC_ENDPOINT).anyMatch(path::matches)) {
+                regexHits++;
+            }
+        }
+        long regexNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int matcherHits = 0;
+        for (int i = 0; i < requests; i++) {
+            if (matcher.matches(paths[i % paths.length])) {
+                matcherHits++;
+            }
+        }
+        long matcherNanos = System.nanoTime() - start;
+
+        System.out.printf("PublicEndpointMatcher: %d requests, regex anyMatch %.1f ms (%d hits), matcher %.1f ms (%d hits)%n",
+                requests, regexNanos / 1e6, regexHits, matcherNanos / 1e6, matcherHits);
+    }
+}
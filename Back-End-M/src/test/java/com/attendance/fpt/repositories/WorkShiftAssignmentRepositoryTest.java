@@ -0,0 +1,248 @@
+package com.attendance.fpt.repositories;
+
+import com.attendance.fpt.entity.*;
+import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.model.response.AssignedShiftIntervalResponse;
+import com.attendance.fpt.model.response.AttendanceExportResponse;
+import com.attendance.fpt.utils.AttendanceCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:fpt;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(WorkShiftAssignmentRepositoryTest.StreamingFetchSizeConfig.class)
+class WorkShiftAssignmentRepositoryTest {
+
+    @Autowired
+    private WorkShiftAssignmentRepository workShiftAssignmentRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate monthStart = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+
+    @BeforeEach
+    void setUp() {
+        Department department = new Department();
+        department.setName("Kỹ thuật");
+        entityManager.persist(department);
+
+        Employee manager = entityManager.persist(Employee.builder()
+                .fullName("Quản lý").email("manager@fpt.test").department(department).build());
+
+        WorkShift workShift = new WorkShift();
+        workShift.setName("Ca sáng");
+        workShift.setStartTime(LocalTime.of(8, 0));
+        workShift.setEndTime(LocalTime.of(12, 0));
+        entityManager.persist(workShift);
+
+        for (int i = 0; i < 5; i++) {
+            Employee employee = entityManager.persist(Employee.builder()
+                    .fullName("Nhân viên " + i).email("employee" + i + "@fpt.test").department(department).build());
+
+            // Ngày 1: đi làm, ngày 2: nghỉ phép, ngày 3: vắng không phép (đã được đóng ca)
+            WorkShiftAssignment attended = persistAssignment(employee, workShift, monthStart);
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(attended)
+                    .checkInTime(LocalDateTime.of(monthStart, LocalTime.of(8, 0)))
+                    .checkOutTime(LocalDateTime.of(monthStart, LocalTime.of(12, 0)))
+                    .status(AttendanceStatus.PRESENT).totalHours(4).build());
+
+            WorkShiftAssignment leave = persistAssignment(employee, workShift, monthStart.plusDays(1));
+            LeaveRequest leaveRequest = entityManager.persist(LeaveRequest.builder()
+                    .employee(employee).responseBy(manager).reason("Việc gia đình").build());
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(leave).leaveRequest(leaveRequest)
+                    .status(AttendanceStatus.LEAVE).build());
+
+            WorkShiftAssignment absent = persistAssignment(employee, workShift, monthStart.plusDays(2));
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(absent).status(AttendanceStatus.ABSENT).build());
+
+            // Phân ca chưa có bản ghi chấm công (chưa được đóng ca) không được đưa vào file export
+            persistAssignment(employee, workShift, monthStart.plusDays(3));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void streamExportByDateAssignRange_classifiesAllRowsInSingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<AttendanceExportResponse> rows;
+        try (Stream<AttendanceExportResponse> stream = workShiftAssignmentRepository
+                .streamExportByDateAssignRange(monthStart, monthStart.plusMonths(1))) {
+            rows = stream.toList();
+        }
+
+        // Ghi lại các trường mà export đọc, nếu có lazy load thì số câu lệnh sẽ tăng
+        rows.forEach(row -> List.of(row.getEmployeeName(), row.getDepartmentName(), row.getWorkShiftName(),
+                String.valueOf(row.getResponseByName())));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Map<String, Long> countByType = rows.stream()
+                .collect(Collectors.groupingBy(AttendanceExportResponse::getType, Collectors.counting()));
+        assertEquals(Map.of(
+                AttendanceExportResponse.TYPE_ATTENDED, 5L,
+                AttendanceExportResponse.TYPE_LEAVE, 5L,
+                AttendanceExportResponse.TYPE_ABSENT, 5L), countByType);
+        assertEquals("Quản lý", rows.stream()
+                .filter(row -> AttendanceExportResponse.TYPE_LEAVE.equals(row.getType()))
+                .findFirst().orElseThrow().getResponseByName());
+    }
+
+    @Test
+    void batchInsert_assignsGeneratedIdsVisibleToIntervalQuery() {
+        Employee employee = entityManager.getEntityManager()
+                .createQuery("SELECT e FROM Employee e WHERE e.email = 'employee0@fpt.test'", Employee.class)
+                .getSingleResult();
+        WorkShift workShift = entityManager.getEntityManager()
+                .createQuery("SELECT w FROM WorkShift w", WorkShift.class)
+                .getSingleResult();
+        LocalDate date = monthStart.plusDays(10);
+
+        List<WorkShiftAssignment> assignments = List.of(
+                WorkShiftAssignment.builder().employee(employee).workShift(workShift).dateAssign(date).build(),
+                WorkShiftAssignment.builder().employee(employee).workShift(workShift).dateAssign(date.plusDays(1)).build());
+        workShiftAssignmentRepository.batchInsert(assignments);
+
+        assertTrue(assignments.stream().allMatch(assignment -> assignment.getId() != null));
+        List<AssignedShiftIntervalResponse> intervals = workShiftAssignmentRepository
+                .findIntervalsByEmployeesAndDateAssignRange(List.of(employee.getId()), date, date.plusDays(2));
+        assertEquals(2, intervals.size());
+        assertEquals(LocalTime.of(8, 0), intervals.get(0).getStartTime());
+    }
+
+    @Test
+    void attendanceListing_keysetPagesMatchFullOrdering() {
+        List<Long> expected = workShiftAssignmentRepository
+                .findAttendanceListingFirst(null, null, null, null, PageRequest.of(0, 1000))
+                .stream().map(WorkShiftAssignment::getId).toList();
+
+        List<Long> walked = new ArrayList<>();
+        List<WorkShiftAssignment> page = workShiftAssignmentRepository
+                .findAttendanceListingFirst(null, null, null, null, PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            page.forEach(assignment -> walked.add(assignment.getId()));
+            AttendanceCursor cursor = AttendanceCursor.decode(AttendanceCursor.of(page.get(page.size() - 1)).encode());
+            page = workShiftAssignmentRepository.findAttendanceListingAfter(null, null, null, null,
+                    cursor.dateAssign(), cursor.endTime(), cursor.id(), PageRequest.of(0, 3));
+        }
+
+        assertEquals(20, expected.size());
+        assertEquals(expected, walked);
+        Long employeeId = entityManager.getEntityManager()
+                .createQuery("SELECT e.id FROM Employee e WHERE e.email LIKE 'employee1@%'", Long.class)
+                .getSingleResult();
+        assertEquals(4, workShiftAssignmentRepository.countAttendanceListing(List.of(employeeId, -1L), null, null, null));
+        assertEquals(0, workShiftAssignmentRepository.countAttendanceListing(List.of(), null, null, null));
+        assertEquals(5, workShiftAssignmentRepository.countAttendanceListing(null, null, null, AttendanceStatus.ABSENT));
+        // Quay về LIKE khi chỉ mục khớp quá nhiều nhân viên
+        assertEquals(4, workShiftAssignmentRepository.countAttendanceListing(null, "EMPLOYEE1@", null, null));
+    }
+
+    @Test
+    void filterAssignments_withoutMonthBoundsReturnsAllAssignments() {
+        assertEquals(10, workShiftAssignmentRepository
+                .filterAssignments(null, null, monthStart, monthStart.plusDays(2), null).size());
+        assertEquals(20, workShiftAssignmentRepository.filterAssignments(null, null, null, null, null).size());
+    }
+
+    private WorkShiftAssignment persistAssignment(Employee employee, WorkShift workShift, LocalDate date) {
+        return entityManager.persist(WorkShiftAssignment.builder()
+                .employee(employee).workShift(workShift).dateAssign(date).build());
+    }
+
+    /**
+     * H2 không chấp nhận fetch size Integer.MIN_VALUE (giá trị bật chế độ streaming của MySQL),
+     * nên trong test bỏ qua các giá trị fetch size âm.
+     */
+    @TestConfiguration
+    static class StreamingFetchSizeConfig {
+        @Bean
+        static BeanPostProcessor ignoreNegativeFetchSize() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return wrap(Connection.class, super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static <T> T wrap(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().equals("setFetchSize") && (int) args[0] < 0) {
+                    return null;
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof Statement statement && method.getName().startsWith("prepare")) {
+                        return wrap(method.getReturnType().asSubclass(Statement.class), statement);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.entity.*;
+import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.model.response.TopStaffAttendanceResponse;
+import com.attendance.fpt.repositories.AttendanceDailyRollupRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:rollup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(AttendanceRollupServiceImpl.class)
+class AttendanceRollupServiceImplTest {
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @Autowired
+    private AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDate monthStart = LocalDate.now().minusMonths(1).withDayOfMonth(1);
+    private Long employeeId;
+    private Long absentAssignmentId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Department department = new Department();
+            department.setName("Kỹ thuật");
+            entityManager.persist(department);
+
+            Employee employee = Employee.builder()
+                    .fullName("Nhân viên").email("employee@fpt.test").department(department).build();
+            entityManager.persist(employee);
+            employeeId = employee.getId();
+
+            WorkShift workShift = new WorkShift();
+            workShift.setName("Ca sáng");
+            workShift.setStartTime(LocalTime.of(8, 0));
+            workShift.setEndTime(LocalTime.of(12, 0));
+            entityManager.persist(workShift);
+
+            // Ngày 1: đi làm 4 giờ, ngày 2: nghỉ phép, ngày 3: vắng
+            WorkShiftAssignment attended = persistAssignment(employee, workShift, monthStart);
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(attended).status(AttendanceStatus.PRESENT)
+                    .checkInTime(LocalDateTime.of(monthStart, LocalTime.of(8, 0)))
+                    .checkOutTime(LocalDateTime.of(monthStart, LocalTime.of(12, 0)))
+                    .totalHours(4).build());
+
+            WorkShiftAssignment leave = persistAssignment(employee, workShift, monthStart.plusDays(1));
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(leave).status(AttendanceStatus.LEAVE).build());
+
+            WorkShiftAssignment absent = persistAssignment(employee, workShift, monthStart.plusDays(2));
+            entityManager.persist(Attendance.builder()
+                    .employee(employee).workShiftAssignment(absent).status(AttendanceStatus.ABSENT).build());
+            absentAssignmentId = absent.getId();
+        });
+        attendanceRollupService.reconcile(monthStart, monthStart.plusMonths(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        List.of("attendances", "attendance_daily_rollups", "shift_assignments", "employees", "work_shifts", "departments")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void reconcile_buildsRollupsReadByMonthlyStatistics() {
+        List<Object[]> days = getStatisticByWeekInMonth(monthStart, monthStart.plusMonths(1));
+
+        assertEquals(3, days.size());
+        assertCounts(days.get(0), 1, 0, 0, 0);
+        assertCounts(days.get(1), 0, 0, 0, 1);
+        assertCounts(days.get(2), 0, 1, 0, 0);
+
+        TopStaffAttendanceResponse staff = attendanceDailyRollupRepository
+                .findStaffAttendanceCounters(monthStart, monthStart.plusMonths(1), LocalDate.now(), LocalTime.now()).get(0);
+        assertEquals("Kỹ thuật", staff.getDepartmentName());
+        assertEquals(3L, staff.getTotalWorkShiftAssignment());
+        assertEquals(4.0, staff.getTotalWorkingHours());
+    }
+
+    @Test
+    void refresh_recomputesTouchedDayWhenBusinessTransactionCommits() {
+        transactionTemplate.executeWithoutResult(status -> {
+            WorkShiftAssignment assignment = entityManager.find(WorkShiftAssignment.class, absentAssignmentId);
+            Attendance attendance = assignment.getAttendance();
+            attendance.setStatus(AttendanceStatus.LATE);
+            attendance.setTotalHours(3);
+            attendanceRollupService.refresh(assignment);
+        });
+
+        assertCounts(dayOf(monthStart.plusDays(2)), 0, 0, 1, 0);
+    }
+
+    @Test
+    void refresh_isDiscardedWhenBusinessTransactionRollsBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            WorkShiftAssignment assignment = entityManager.find(WorkShiftAssignment.class, absentAssignmentId);
+            assignment.getAttendance().setStatus(AttendanceStatus.LATE);
+            attendanceRollupService.refresh(employeeId, assignment.getDateAssign());
+            status.setRollbackOnly();
+        });
+
+        assertCounts(dayOf(monthStart.plusDays(2)), 0, 1, 0, 0);
+    }
+
+    private Object[] dayOf(LocalDate date) {
+        return getStatisticByWeekInMonth(date, date.plusDays(1)).get(0);
+    }
+
+    private List<Object[]> getStatisticByWeekInMonth(LocalDate fromDate, LocalDate toDate) {
+        return attendanceDailyRollupRepository.getStatisticByWeekInMonth(fromDate, toDate, LocalDate.now(), LocalTime.now());
+    }
+
+    // Thứ tự cột: ngày, có mặt, vắng, đi muộn, nghỉ phép, tổng
+    private void assertCounts(Object[] row, long present, long absent, long late, long leave) {
+        assertEquals(present, ((Number) row[1]).longValue());
+        assertEquals(absent, ((Number) row[2]).longValue());
+        assertEquals(late, ((Number) row[3]).longValue());
+        assertEquals(leave, ((Number) row[4]).longValue());
+        assertEquals(1L, ((Number) row[5]).longValue());
+    }
+
+    private WorkShiftAssignment persistAssignment(Employee employee, WorkShift workShift, LocalDate date) {
+        WorkShiftAssignment assignment = WorkShiftAssignment.builder()
+                .employee(employee).workShift(workShift).dateAssign(date).build();
+        entityManager.persist(assignment);
+        return assignment;
+    }
+}
@@ -0,0 +1,126 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.entity.EmailOutbox;
+import com.attendance.fpt.enums.EmailCategory;
+import com.attendance.fpt.enums.EmailOutboxStatus;
+import com.attendance.fpt.repositories.EmailOutboxRepository;
+import com.attendance.fpt.services.EmailOutboxService;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "spring.mail.username=noreply@fpt.test",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({EmailOutboxServiceImpl.class, EmailOutboxServiceImplTest.MailConfig.class})
+class EmailOutboxServiceImplTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void enqueuedEmailsAreDeliveredAfterCommitAndMarkedSent() throws Exception {
+        emailOutboxService.enqueueAll(EmailCategory.SHIFT_REMINDER,
+                List.of("a@fpt.test", "b@fpt.test", "c@fpt.test"), "Tiêu đề", "<p>Xin chào</p>");
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Tiêu đề", received[0].getSubject());
+
+        List<EmailOutbox> rows = emailOutboxRepository.findAll();
+        assertTrue(rows.stream().allMatch(row -> row.getStatus() == EmailOutboxStatus.SENT && row.getSentAt() != null
+                && row.getCategory() == EmailCategory.SHIFT_REMINDER));
+        assertEquals(3, meterRegistry.get("mail.outbox.sent").tag("category", "SHIFT_REMINDER").counter().count());
+        assertEquals(3, meterRegistry.get("mail.outbox.latency").tag("category", "SHIFT_REMINDER").timer().count());
+        assertEquals(0, meterRegistry.get("mail.outbox.sent").tag("category", "OTP").counter().count());
+    }
+
+    @Test
+    void failedDeliveryIsRescheduledWithBackoff() {
+        greenMail.stop();
+        emailOutboxService.enqueue(EmailCategory.OTP, "a@fpt.test", "Tiêu đề", "<p>Xin chào</p>");
+
+        EmailOutbox row = emailOutboxRepository.findAll().get(0);
+        assertEquals(EmailOutboxStatus.PENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertNotNull(row.getLastError());
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+        assertEquals(1, meterRegistry.get("mail.outbox.retried").tag("category", "OTP").counter().count());
+
+        // Chưa đến hạn thử lại nên worker không lấy lại email này
+        greenMail.start();
+        assertEquals(0, emailOutboxService.drainBatch());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @TestConfiguration
+    static class MailConfig {
+
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+            mailSender.setPort(ServerSetupTest.SMTP.getPort());
+            return mailSender;
+        }
+
+        // Worker chạy ngay trên thread gọi để kiểm tra kết quả một cách tuần tự
+        @Bean
+        TaskExecutor mailExecutor() {
+            return new SyncTaskExecutor();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.cache.EmployeeSearchIndex;
+import com.attendance.fpt.entity.*;
+import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.enums.LeaveRequestStatus;
+import com.attendance.fpt.model.request.LeaveRequestBulkApproveRequest;
+import com.attendance.fpt.model.request.LeaveRequestHandleRequest;
+import com.attendance.fpt.model.response.LeaveRequestApprovalResultResponse;
+import com.attendance.fpt.repositories.AttendanceRepository;
+import com.attendance.fpt.repositories.LeaveBalanceRepository;
+import com.attendance.fpt.repositories.LeaveRequestRepository;
+import com.attendance.fpt.services.EmailService;
+import com.attendance.fpt.services.LeaveRequestService;
+import com.attendance.fpt.services.NotificationService;
+import com.attendance.fpt.utils.SecurityUtil;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:leave;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LeaveRequestServiceImpl.class, AttendanceRollupServiceImpl.class, AttendanceCalendarCache.class,
+        LeaveRequestServiceImplTest.MockConfig.class})
+class LeaveRequestServiceImplTest {
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Autowired
+    private LeaveRequestRepository leaveRequestRepository;
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate startDate = LocalDate.now().plusDays(1);
+
+    private Long enoughBalanceRequestId;
+    private Long lowBalanceRequestId;
+    private Long failingRequestId;
+
+    @BeforeEach
+    void setUp() {
+        clearInvocations(emailService);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Employee admin = Employee.builder().fullName("Quản lý").email("admin@fpt.test").build();
+            entityManager.persist(admin);
+            when(securityUtil.getCurrentUser()).thenReturn(admin);
+
+            WorkShift workShift = new WorkShift();
+            workShift.setName("Ca sáng");
+            workShift.setStartTime(LocalTime.of(8, 0));
+            workShift.setEndTime(LocalTime.of(12, 0));
+            entityManager.persist(workShift);
+
+            LeaveType leaveType = new LeaveType();
+            leaveType.setName("Phép năm");
+            leaveType.setMaxDayPerYear(12);
+            leaveType.setActive(true);
+            entityManager.persist(leaveType);
+
+            // Hai đơn cùng xin nghỉ 2 ca; nhân viên thứ hai chỉ còn 1 ngày phép
+            enoughBalanceRequestId = persistPendingRequest("a", 5, workShift, leaveType);
+            lowBalanceRequestId = persistPendingRequest("b", 1, workShift, leaveType);
+            failingRequestId = persistPendingRequest("c", 5, workShift, leaveType);
+        });
+        // Ràng buộc chỉ dùng trong test để câu trừ phép của nhân viên thứ ba lỗi ở tầng DB
+        Long failingEmployeeId = leaveRequestRepository.findById(failingRequestId).orElseThrow().getEmployee().getId();
+        jdbcTemplate.execute("ALTER TABLE leave_balances ADD CONSTRAINT chk_test_consume CHECK (employee_id <> "
+                + failingEmployeeId + " OR used_day = 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("ALTER TABLE leave_balances DROP CONSTRAINT IF EXISTS chk_test_consume");
+        List.of("attendances", "attendance_daily_rollups", "leave_requests", "leave_balances", "shift_assignments",
+                        "leave_types", "employees", "work_shifts")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void approveLeaveRequests_rollsBackOnlyTheFailingItem() {
+        LeaveRequestBulkApproveRequest request = new LeaveRequestBulkApproveRequest();
+        request.setIds(List.of(enoughBalanceRequestId, lowBalanceRequestId, -1L, failingRequestId));
+        request.setResponseNote("Đồng ý");
+
+        List<LeaveRequestApprovalResultResponse> results = leaveRequestService.approveLeaveRequests(request);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(2, results.get(0).getApprovedDays());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Not enough leave balance for this request", results.get(1).getMessage());
+        assertFalse(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertEquals(LeaveRequestStatus.PENDING, leaveRequestRepository.findById(failingRequestId).orElseThrow().getStatus());
+
+        assertEquals(LeaveRequestStatus.APPROVED, leaveRequestRepository.findById(enoughBalanceRequestId).orElseThrow().getStatus());
+        assertEquals(LeaveRequestStatus.PENDING, leaveRequestRepository.findById(lowBalanceRequestId).orElseThrow().getStatus());
+
+        List<Attendance> attendances = attendanceRepository.findAll();
+        assertEquals(2, attendances.size());
+        assertTrue(attendances.stream().allMatch(a -> a.getStatus() == AttendanceStatus.LEAVE
+                && a.getLeaveRequest().getId().equals(enoughBalanceRequestId)));
+
+        assertBalance(enoughBalanceRequestId, 2, 3);
+        assertBalance(lowBalanceRequestId, 0, 1);
+        verify(emailService, times(1)).sendApprovalEmail(eq("a@fpt.test"), any(), eq(true));
+    }
+
+    @Test
+    void approveLeaveRequest_cannotApproveTwice() {
+        LeaveRequestHandleRequest request = new LeaveRequestHandleRequest();
+        request.setResponseNote("Đồng ý");
+
+        leaveRequestService.approveLeaveRequest(enoughBalanceRequestId, request);
+        assertThrows(IllegalStateException.class, () -> leaveRequestService.approveLeaveRequest(enoughBalanceRequestId, request));
+
+        assertEquals(2, attendanceRepository.count());
+        assertBalance(enoughBalanceRequestId, 2, 3);
+    }
+
+    private Long persistPendingRequest(String name, int remainingDay, WorkShift workShift, LeaveType leaveType) {
+        Employee employee = Employee.builder().fullName("Nhân viên " + name).email(name + "@fpt.test").build();
+        entityManager.persist(employee);
+        for (int i = 0; i < 2; i++) {
+            entityManager.persist(WorkShiftAssignment.builder()
+                    .employee(employee).workShift(workShift).dateAssign(startDate.plusDays(i)).build());
+        }
+        entityManager.persist(LeaveBalance.builder()
+                .employee(employee).leaveType(leaveType).year(startDate.getYear())
+                .usedDay(0).remainingDay(remainingDay).build());
+        LeaveRequest leaveRequest = LeaveRequest.builder()
+                .employee(employee).leaveType(leaveType).workShift(workShift)
+                .startDate(startDate).endDate(startDate.plusDays(1))
+                .status(LeaveRequestStatus.PENDING).build();
+        entityManager.persist(leaveRequest);
+        return leaveRequest.getId();
+    }
+
+    private void assertBalance(Long leaveRequestId, int usedDay, int remainingDay) {
+        LeaveRequest leaveRequest = leaveRequestRepository.findById(leaveRequestId).orElseThrow();
+        LeaveBalance leaveBalance = leaveBalanceRepository.findByEmployee_IdAndLeaveType_IdAndYear(
+                leaveRequest.getEmployee().getId(), leaveRequest.getLeaveType().getId(), startDate.getYear()).orElseThrow();
+        assertEquals(usedDay, leaveBalance.getUsedDay());
+        assertEquals(remainingDay, leaveBalance.getRemainingDay());
+    }
+
+    @TestConfiguration
+    static class MockConfig {
+
+        @Bean
+        SecurityUtil securityUtil() {
+            return mock(SecurityUtil.class);
+        }
+
+        @Bean
+        NotificationService notificationService() {
+            return mock(NotificationService.class);
+        }
+
+        @Bean
+        EmailService emailService() {
+            return mock(EmailService.class);
+        }
+
+        @Bean
+        EmployeeSearchIndex employeeSearchIndex() {
+            return mock(EmployeeSearchIndex.class);
+        }
+    }
+}
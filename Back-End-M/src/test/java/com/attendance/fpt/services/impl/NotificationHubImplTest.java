@@ -0,0 +1,118 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.model.response.NotificationResponse;
+import com.attendance.fpt.repositories.NotificationCounterRepository;
+import com.attendance.fpt.services.NotificationBroker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NotificationHubImplTest {
+
+    private final NotificationCounterRepository notificationCounterRepository = mock(NotificationCounterRepository.class);
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    @Test
+    void deliver_pushesNotificationAndTracksUnreadCountWithoutDatabase() {
+        when(notificationCounterRepository.getUnreadCount(1L)).thenReturn(3L);
+        NotificationHubImpl hub = hub(new SyncTaskExecutor(), 32);
+
+        hub.subscribe(1L);
+        hub.subscribe(1L);
+        hub.deliver(NotificationBroker.Event.created(1L, NotificationResponse.builder().id(10L).content("Xin chào").build()));
+        hub.deliver(NotificationBroker.Event.read(1L));
+        hub.deliver(NotificationBroker.Event.created(2L, NotificationResponse.builder().id(11L).build()));
+
+        assertEquals(OptionalLong.of(3L), hub.unreadCount(1L));
+        assertEquals(OptionalLong.empty(), hub.unreadCount(2L));
+        for (RecordingEmitter emitter : emitters) {
+            assertEquals(List.of("unread-count:3", "notification", "unread-count:4", "unread-count:3"), emitter.events);
+        }
+
+        hub.deliver(NotificationBroker.Event.allRead(1L));
+        assertEquals(OptionalLong.of(0L), hub.unreadCount(1L));
+        verify(notificationCounterRepository, times(1)).getUnreadCount(1L);
+    }
+
+    @Test
+    void subscribe_countsEventsDeliveredWhileUnreadCountIsLoading() {
+        NotificationHubImpl hub = hub(new SyncTaskExecutor(), 32);
+        // Thông báo mới commit sau khi DB đã trả về số chưa đọc nhưng trước khi kênh được khởi tạo xong
+        when(notificationCounterRepository.getUnreadCount(1L)).thenAnswer(invocation -> {
+            hub.deliver(NotificationBroker.Event.created(1L, NotificationResponse.builder().id(10L).build()));
+            return 3L;
+        });
+
+        hub.subscribe(1L);
+
+        assertEquals(OptionalLong.of(4L), hub.unreadCount(1L));
+        assertEquals(List.of("notification", "unread-count:4"), emitters.get(0).events);
+    }
+
+    @Test
+    void subscribe_closesSlowConnectionWhenBufferIsFullAndOldestOverLimit() {
+        List<Runnable> pending = new ArrayList<>();
+        NotificationHubImpl hub = hub(pending::add, 2);
+
+        hub.subscribe(1L);
+        hub.deliver(NotificationBroker.Event.created(1L, NotificationResponse.builder().id(10L).build()));
+        // Kết nối chưa gửi được gì nên hàng đợi 2 phần tử bị đầy và kết nối bị đóng
+        assertTrue(emitters.get(0).completed);
+        assertEquals(0, hub.connectionCount());
+        assertEquals(OptionalLong.empty(), hub.unreadCount(1L));
+
+        NotificationHubImpl limited = hub(new SyncTaskExecutor(), 32);
+        for (int i = 0; i < 6; i++) {
+            limited.subscribe(5L);
+        }
+        assertEquals(5, limited.connectionCount());
+        assertTrue(emitters.get(1).completed);
+        assertFalse(emitters.get(2).completed);
+    }
+
+    private NotificationHubImpl hub(TaskExecutor executor, int bufferSize) {
+        NotificationHubImpl hub = new NotificationHubImpl(notificationCounterRepository, executor, new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter createEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(hub, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(hub, "maxConnectionsPerEmployee", 5);
+        return hub;
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            String text = builder.build().stream()
+                    .map(item -> String.valueOf(item.getData()))
+                    .collect(Collectors.joining());
+            String name = text.substring("event:".length(), text.indexOf('\n'));
+            events.add(name.equals(NotificationHubImpl.UNREAD_COUNT_EVENT)
+                    ? name + ":" + text.substring(text.indexOf("data:") + "data:".length()).trim()
+                    : name);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.repositories.NotificationPartitionRepository;
+import com.attendance.fpt.services.NotificationRetentionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:retention;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "app.notification.retention.read-ttl-days=30",
+        "app.notification.retention.batch-size=2",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({NotificationRetentionServiceImpl.class, NotificationPartitionRepository.class})
+class NotificationRetentionServiceImplTest {
+
+    @Autowired
+    private NotificationRetentionService notificationRetentionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notifications_archive");
+        jdbcTemplate.update("DELETE FROM notifications");
+    }
+
+    @Test
+    void purgeExpired_movesOnlyOldReadNotificationsToArchiveInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            insert("cũ đã đọc " + i, true, now.minusDays(40 + i));
+        }
+        insert("cũ chưa đọc", false, now.minusDays(60));
+        insert("mới đã đọc", true, now.minusDays(5));
+
+        assertEquals(5, notificationRetentionService.purgeExpired());
+
+        assertEquals(List.of("cũ chưa đọc", "mới đã đọc"),
+                jdbcTemplate.queryForList("SELECT content FROM notifications ORDER BY content", String.class));
+        assertEquals(5, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications_archive WHERE is_read = true AND archived_at IS NOT NULL", Long.class));
+        assertEquals(0, notificationRetentionService.purgeExpired());
+    }
+
+    private void insert(String content, boolean read, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO notifications (content, is_read, created_at) VALUES (?, ?, ?)",
+                content, read, Timestamp.valueOf(createdAt));
+    }
+}
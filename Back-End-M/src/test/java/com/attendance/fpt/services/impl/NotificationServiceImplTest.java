@@ -0,0 +1,202 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.entity.Employee;
+import com.attendance.fpt.repositories.EmployeeRepository;
+import com.attendance.fpt.repositories.NotificationCounterRepository;
+import com.attendance.fpt.services.NotificationBroker;
+import com.attendance.fpt.services.NotificationHub;
+import com.attendance.fpt.services.NotificationService;
+import com.attendance.fpt.utils.SecurityUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:notification;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "app.notification.batch-size=2",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({NotificationServiceImpl.class, NotificationServiceImplTest.MockConfig.class})
+class NotificationServiceImplTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private SecurityUtil securityUtil;
+
+    @Autowired
+    private NotificationBroker notificationBroker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        employee = employeeRepository.save(Employee.builder().fullName("Nhân viên").email("employee@fpt.test").active(true).build());
+        when(securityUtil.getCurrentUser()).thenReturn(employee);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notification_counters");
+        jdbcTemplate.update("DELETE FROM notifications");
+        jdbcTemplate.update("DELETE FROM notification_broadcasts");
+        jdbcTemplate.update("DELETE FROM employees");
+        reset(notificationBroker);
+    }
+
+    @Test
+    void counterFollowsSendAndReadOperations() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                notificationService.sendNotification(employee, "Thông báo " + i);
+            }
+        });
+        assertEquals(3, notificationService.countUnreadNotificationsByEmployee());
+        verify(notificationBroker, times(3)).publish(any());
+
+        Long firstId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM notifications", Long.class);
+        notificationService.updateNotificationToRead(firstId);
+        notificationService.updateNotificationToRead(firstId);
+        assertEquals(2, notificationService.countUnreadNotificationsByEmployee());
+        assertThrows(IllegalArgumentException.class, () -> notificationService.updateNotificationToRead(firstId + 100));
+
+        notificationService.updateAllNotificationsToReadByEmployee();
+        assertEquals(0, notificationService.countUnreadNotificationsByEmployee());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications WHERE is_read = false", Long.class));
+        verify(notificationBroker, times(5)).publish(any());
+    }
+
+    @Test
+    void broadcastIsWrittenInBatchesAfterCommit() {
+        for (int i = 0; i < 4; i++) {
+            employeeRepository.save(Employee.builder().fullName("Nhân viên " + i).email("staff" + i + "@fpt.test").active(i != 3).build());
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationService.sendNotificationsToAllStaff("Có bài viết mới: {0}", "Nội quy");
+            // Chưa commit nên chưa có thông báo nào được ghi
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Long.class));
+        });
+
+        assertEquals(4, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM notifications WHERE content = 'Có bài viết mới: Nội quy' AND is_read = false", Long.class));
+        assertEquals(1, notificationService.countUnreadNotificationsByEmployee());
+        ArgumentCaptor<NotificationBroker.Event> events = ArgumentCaptor.forClass(NotificationBroker.Event.class);
+        verify(notificationBroker, times(4)).publish(events.capture());
+        assertTrue(events.getAllValues().stream().allMatch(event -> event.notification().getId() != null));
+
+        notificationService.sendNotifications(List.of(employee.getId(), employee.getId()), "Lịch ngày {0}", "2025-01-01");
+        assertEquals(2, notificationService.countUnreadNotificationsByEmployee());
+    }
+
+    @Test
+    void failedBroadcastResumesAfterLastCommittedChunk() {
+        List<Long> staffIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            staffIds.add(employeeRepository.save(Employee.builder().fullName("Nhân viên " + i).email("staff" + i + "@fpt.test").active(true).build()).getId());
+        }
+        long missingId = staffIds.get(1) + 1000;
+
+        // Lô thứ hai chứa một nhân viên không tồn tại nên vi phạm khoá ngoại và bị rollback
+        notificationService.sendNotifications(List.of(missingId, staffIds.get(1), staffIds.get(0), employee.getId()), "Lịch tuần mới");
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Long.class));
+        Map<String, Object> broadcast = jdbcTemplate.queryForMap("SELECT * FROM notification_broadcasts");
+        assertEquals("PENDING", broadcast.get("status"));
+        assertEquals(1, broadcast.get("attempts"));
+        assertEquals(staffIds.get(0), broadcast.get("last_recipient_id"));
+        assertNotNull(broadcast.get("last_error"));
+
+        jdbcTemplate.update("UPDATE notification_broadcasts SET recipient_ids = ?, next_attempt_at = ?",
+                employee.getId() + "," + staffIds.get(0) + "," + staffIds.get(1), LocalDateTime.now().minusSeconds(1));
+        notificationService.dispatchPendingBroadcasts();
+
+        assertEquals("SENT", jdbcTemplate.queryForObject("SELECT status FROM notification_broadcasts", String.class));
+        for (Long employeeId : List.of(employee.getId(), staffIds.get(0), staffIds.get(1))) {
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM notifications WHERE employee_id = ?", Long.class, employeeId));
+            assertEquals(1, notificationCounterRepository.getUnreadCount(employeeId));
+        }
+    }
+
+    @Test
+    void backfillRebuildsCountersFromUnreadNotifications() {
+        jdbcTemplate.update("INSERT INTO notifications (content, is_read, employee_id) VALUES ('a', false, ?), ('b', false, ?), ('c', true, ?)",
+                employee.getId(), employee.getId(), employee.getId());
+
+        ((NotificationServiceImpl) notificationService).backfillCountersIfEmpty();
+
+        assertEquals(2, notificationCounterRepository.getUnreadCount(employee.getId()));
+    }
+
+    @TestConfiguration
+    static class MockConfig {
+
+        @Bean
+        SecurityUtil securityUtil() {
+            return mock(SecurityUtil.class);
+        }
+
+        @Bean
+        NotificationHub notificationHub() {
+            return mock(NotificationHub.class);
+        }
+
+        @Bean
+        NotificationBroker notificationBroker() {
+            return mock(NotificationBroker.class);
+        }
+
+        // Ghi hàng loạt chạy ngay trên thread gọi để kiểm tra kết quả một cách tuần tự
+        @Bean
+        Executor taskExecutor() {
+            return new SyncTaskExecutor();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.attendance.fpt.services.impl;
+
+import com.attendance.fpt.cache.AttendanceCalendarCache;
+import com.attendance.fpt.entity.*;
+import com.attendance.fpt.enums.AttendanceStatus;
+import com.attendance.fpt.repositories.AttendanceDailyRollupRepository;
+import com.attendance.fpt.repositories.AttendanceRepository;
+import com.attendance.fpt.services.AttendanceRollupService;
+import com.attendance.fpt.services.ShiftClosingService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.application.name=fpt",
+        "spring.datasource.url=jdbc:h2:mem:closing;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,MONTH,DAY,VALUE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.enable_lazy_load_no_trans=true",
+        "app.attendance.close-shift.batch-size=2",
+        "logging.level.org.springframework.security=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ShiftClosingServiceImpl.class, AttendanceRollupServiceImpl.class, AttendanceCalendarCache.class})
+class ShiftClosingServiceImplTest {
+
+    @Autowired
+    private ShiftClosingService shiftClosingService;
+
+    @Autowired
+    private AttendanceRollupService attendanceRollupService;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceDailyRollupRepository attendanceDailyRollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate yesterday = LocalDate.now().minusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            WorkShift workShift = new WorkShift();
+            workShift.setName("Ca sáng");
+            workShift.setStartTime(LocalTime.of(8, 0));
+            workShift.setEndTime(LocalTime.of(12, 0));
+            entityManager.persist(workShift);
+
+            // Hôm qua: 3 nhân viên không chấm công (nhiều hơn một lô), 1 nhân viên đã đi làm;
+            // ngày mai: ca chưa diễn ra nên chưa được đóng
+            for (int i = 0; i < 4; i++) {
+                Employee employee = Employee.builder().fullName("Nhân viên " + i).email("employee" + i + "@fpt.test").build();
+                entityManager.persist(employee);
+
+                WorkShiftAssignment assignment = persistAssignment(employee, workShift, yesterday);
+                if (i == 0) {
+                    entityManager.persist(Attendance.builder()
+                            .employee(employee).workShiftAssignment(assignment).status(AttendanceStatus.PRESENT)
+                            .checkInTime(LocalDateTime.of(yesterday, LocalTime.of(8, 0))).build());
+                }
+                persistAssignment(employee, workShift, LocalDate.now().plusDays(1));
+            }
+        });
+        attendanceRollupService.reconcile(yesterday, LocalDate.now().plusDays(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        List.of("attendances", "attendance_daily_rollups", "shift_assignments", "employees", "work_shifts")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+    }
+
+    @Test
+    void closeEndedShifts_recordsAbsenceOnceForEndedShiftsWithoutAttendance() {
+        assertEquals(3, shiftClosingService.closeEndedShifts());
+        assertEquals(0, shiftClosingService.closeEndedShifts());
+
+        Map<AttendanceStatus, Long> countByStatus = attendanceRepository.findAll().stream()
+                .collect(Collectors.groupingBy(Attendance::getStatus, Collectors.counting()));
+        assertEquals(Map.of(AttendanceStatus.PRESENT, 1L, AttendanceStatus.ABSENT, 3L), countByStatus);
+
+        Object[] day = attendanceDailyRollupRepository
+                .getStatisticByWeekInMonth(yesterday, yesterday.plusDays(1), LocalDate.now(), LocalTime.now()).get(0);
+        assertEquals(1L, ((Number) day[1]).longValue());
+        assertEquals(3L, ((Number) day[2]).longValue());
+    }
+
+    private WorkShiftAssignment persistAssignment(Employee employee, WorkShift workShift, LocalDate date) {
+        WorkShiftAssignment assignment = WorkShiftAssignment.builder()
+                .employee(employee).workShift(workShift).dateAssign(date).build();
+        entityManager.persist(assignment);
+        return assignment;
+    }
+}
@@ -0,0 +1,122 @@
+package com.attendance.fpt.utils;
+
+import com.attendance.fpt.entity.Attendance;
+import com.attendance.fpt.entity.Department;
+import com.attendance.fpt.entity.Employee;
+import com.attendance.fpt.enums.AttendanceStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldPathAccessorTest {
+
+    private static final String[] EXPORT_FIELDS = {"employee.fullName", "employee.department.name", "status", "totalHours", "edited"};
+
+    @Test
+    void get_readsNestedPathsLikeTheReflectiveLookup() {
+        for (Attendance attendance : attendances(50)) {
+            for (String path : EXPORT_FIELDS) {
+                assertEquals(reflectiveGet(attendance, path), FieldPathAccessor.of(Attendance.class, path).get(attendance), path);
+            }
+        }
+    }
+
+    @Test
+    void get_stopsAtNullAndFallsBackToFieldsWithoutGetter() {
+        Attendance withoutDepartment = Attendance.builder().employee(Employee.builder().fullName("Nhân viên").build()).build();
+        assertNull(FieldPathAccessor.of(Attendance.class, "employee.department.name").get(withoutDepartment));
+        assertNull(FieldPathAccessor.of(Attendance.class, "employee.fullName").get(new Attendance()));
+
+        assertEquals("ẩn", FieldPathAccessor.of(NoGetter.class, "hidden").get(new NoGetter()));
+        assertSame(FieldPathAccessor.of(Attendance.class, "status"), FieldPathAccessor.of(Attendance.class, "status"));
+        assertThrows(IllegalArgumentException.class, () -> FieldPathAccessor.of(Attendance.class, "employee.missing"));
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstReflectiveLookup() throws Exception {
+        List<Attendance> rows = attendances(200_000);
+        List<FieldPathAccessor> accessors = new ArrayList<>();
+        for (String path : EXPORT_FIELDS) {
+            accessors.add(FieldPathAccessor.of(Attendance.class, path));
+        }
+        int rounds = 5;
+
+        long reflectiveNanos = 0;
+        long accessorNanos = 0;
+        int sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (Attendance row : rows) {
+                for (String path : EXPORT_FIELDS) {
+                    sink += reflectiveGet(row, path) == null ? 0 : 1;
+                }
+            }
+            reflectiveNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (Attendance row : rows) {
+                for (FieldPathAccessor accessor : accessors) {
+                    sink += accessor.get(row) == null ? 0 : 1;
+                }
+            }
+            accessorNanos += System.nanoTime() - start;
+        }
+
+        long cells = (long) rounds * rows.size() * EXPORT_FIELDS.length;
+        System.out.printf("FieldPathAccessor: %d cells, reflective %.1f ms (%.0f cells/ms), accessor %.1f ms (%.0f cells/ms) [%d]%n",
+                cells, reflectiveNanos / 1e6, cells / (reflectiveNanos / 1e6),
+                accessorNanos / 1e6, cells / (accessorNanos / 1e6), sink);
+    }
+
+    // Cách BaseExport đọc giá trị trước đây: tách đường dẫn và tra trường bằng reflection cho từng ô
+    private static Object reflectiveGet(Object data, String path) {
+        Object current = data;
+        try {
+            for (String part : path.split("\\.")) {
+                Field field = current.getClass().getDeclaredField(part);
+                field.setAccessible(true);
+                current = field.get(current);
+                if (current == null) {
+                    return null;
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error accessing field: " + path, e);
+        }
+        return current;
+    }
+
+    private static List<Attendance> attendances(int count) {
+        List<Department> departments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Department department = new Department();
+            department.setName("Phòng " + i);
+            departments.add(department);
+        }
+        List<Attendance> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = Employee.builder()
+                    .fullName("Nhân viên " + i)
+                    .department(i % 7 == 0 ? null : departments.get(i % departments.size()))
+                    .build();
+            rows.add(Attendance.builder()
+                    .employee(employee)
+                    .status(AttendanceStatus.values()[i % AttendanceStatus.values().length])
+                    .totalHours(i % 9)
+                    .edited(i % 2 == 0)
+                    .build());
+        }
+        return rows;
+    }
+
+    private static class NoGetter {
+        private final String hidden = "ẩn";
+    }
+}
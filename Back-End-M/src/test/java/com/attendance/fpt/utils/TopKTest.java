@@ -0,0 +1,80 @@
+package com.attendance.fpt.utils;
+
+import com.attendance.fpt.model.response.TopStaffAttendanceResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopKTest {
+
+    private static final Comparator<TopStaffAttendanceResponse> RANKING = Comparator
+            .comparing(TopStaffAttendanceResponse::getTotalAttendanceWorkShift, Comparator.reverseOrder())
+            .thenComparing(TopStaffAttendanceResponse::getEmployeeId);
+
+    @Test
+    void first_returnsLeadingItemsInOrder() {
+        assertEquals(List.of(9, 7, 5), TopK.first(List.of(3, 9, 1, 7, 5), 3, Comparator.reverseOrder()));
+        assertEquals(List.of(1, 3), TopK.first(List.of(3, 1), 10, Comparator.naturalOrder()));
+        assertEquals(List.of(), TopK.first(List.of(3, 1), 0, Comparator.naturalOrder()));
+    }
+
+    @Test
+    void first_matchesFullSortWithTies() {
+        // Điểm chỉ từ 0 đến 4 nên có rất nhiều bản ghi bằng điểm, thứ tự phải theo employeeId như khi sắp xếp toàn bộ
+        List<TopStaffAttendanceResponse> staff = randomStaff(new Random(17), 300, 5);
+        for (int k : new int[]{1, 10, 50, 300, 500}) {
+            List<TopStaffAttendanceResponse> sorted = new ArrayList<>(staff);
+            sorted.sort(RANKING);
+            assertEquals(ids(sorted.subList(0, Math.min(k, sorted.size()))), ids(TopK.first(staff, k, RANKING)));
+        }
+    }
+
+    // Chỉ chạy với profile benchmark: mvn test -Pbenchmark
+    @Test
+    @Tag("benchmark")
+    void benchmarkAgainstFullSort() {
+        List<TopStaffAttendanceResponse> staff = randomStaff(new Random(17), 10_000, 30);
+        int rounds = 200;
+        int k = 50;
+
+        long heapStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            TopK.first(staff, k, RANKING);
+        }
+        long heapNanos = System.nanoTime() - heapStart;
+
+        long sortStart = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            List<TopStaffAttendanceResponse> sorted = new ArrayList<>(staff);
+            sorted.sort(RANKING);
+        }
+        long sortNanos = System.nanoTime() - sortStart;
+
+        System.out.printf("TopK: %d rounds of top %d over %d staff, heap %.1f ms, full sort %.1f ms%n",
+                rounds, k, staff.size(), heapNanos / 1e6, sortNanos / 1e6);
+    }
+
+    private static List<TopStaffAttendanceResponse> randomStaff(Random random, int count, int maxShifts) {
+        List<TopStaffAttendanceResponse> staff = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            staff.add(TopStaffAttendanceResponse.builder()
+                    .employeeId(id)
+                    .totalAttendanceWorkShift((long) random.nextInt(maxShifts))
+                    .build());
+        }
+        // Đảo thứ tự để kết quả không phụ thuộc vào việc đầu vào đã được sắp theo id
+        Collections.shuffle(staff, random);
+        return staff;
+    }
+
+    private static List<Long> ids(List<TopStaffAttendanceResponse> staff) {
+        return staff.stream().map(TopStaffAttendanceResponse::getEmployeeId).toList();
+    }
+}